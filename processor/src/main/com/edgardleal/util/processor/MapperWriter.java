@@ -0,0 +1,206 @@
+package com.edgardleal.util.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.edgardleal.util.processor.SQLMapperProcessor.Column;
+
+/**
+ * Escreve o codigo fonte de um <code>EntityMapper</code>.
+ *
+ * @author Edgard Leal
+ */
+class MapperWriter {
+	private final Writer writer;
+	private final String packageName;
+	private final String mapperName;
+	private final String entityName;
+	private final String tableName;
+	private final List<Column> columns;
+	private final List<Column> keys = new ArrayList<Column>();
+	private final List<Column> insert = new ArrayList<Column>();
+	private final List<Column> update = new ArrayList<Column>();
+
+	MapperWriter(Writer writer, String packageName, String mapperName,
+			String entityName, String tableName, List<Column> columns) {
+		this.writer = writer;
+		this.packageName = packageName;
+		this.mapperName = mapperName;
+		this.entityName = entityName;
+		this.tableName = tableName;
+		this.columns = columns;
+		for (Column column : columns) {
+			if (column.id)
+				keys.add(column);
+			else
+				update.add(column);
+			if (!column.generated)
+				insert.add(column);
+		}
+	}
+
+	void write() throws IOException {
+		if (!packageName.isEmpty())
+			line("package ", packageName, ";").line();
+		line("import java.sql.PreparedStatement;");
+		line("import java.sql.SQLException;").line();
+		line("import com.edgardleal.util.data.EntityMapper;");
+		line("import com.edgardleal.util.data.JdbcTypes;");
+		line("import com.edgardleal.util.data.SQLGenerator;").line();
+		line("/**");
+		line(" * Gerado por ", SQLMapperProcessor.class.getName(),
+				". Nao altere.");
+		line(" */");
+		line("public final class ", mapperName, " implements EntityMapper<",
+				entityName, "> {");
+		line("	private static final String[] COLUMNS = { ", quote(columns),
+				" };");
+		for (Column column : columns)
+			if (!column.type.getKind().isPrimitive())
+				line("	private static final int ", typeConstant(column),
+						" = JdbcTypes.sqlType(", column.erasure, ".class);");
+		line();
+
+		line("	@Override");
+		line("	public String[] getColumnNames() {");
+		line("		return COLUMNS.clone();");
+		line("	}").line();
+
+		header("appendInsertCommand");
+		line("		result.append(\"", escape("INSERT INTO " + tableName + " ("
+				+ join(insert) + ") VALUES"), "\");");
+		line("		appendInsertValues(generator, entity, result);");
+		line("	}").line();
+
+		header("appendInsertValues");
+		line("		result.append('(');");
+		appendValues(insert, ",", "");
+		line("		result.append(')');");
+		line("	}").line();
+
+		header("appendUpdate");
+		line("		result.append(\"", escape("UPDATE " + tableName + " SET "),
+				"\");");
+		appendValues(update, ",", " = ");
+		line("		result.append(\" WHERE \");");
+		line("		appendCondition(generator, entity, result);");
+		line("	}").line();
+
+		header("appendDeleteCommand");
+		line("		result.append(\"", escape("DELETE FROM " + tableName
+				+ " WHERE "), "\");");
+		line("		appendCondition(generator, entity, result);");
+		line("	}").line();
+
+		line("	private void appendCondition(SQLGenerator generator, ",
+				entityName, " entity,");
+		line("			StringBuilder result) {");
+		appendValues(keys, " AND ", " = ");
+		line("	}").line();
+
+		List<Column> updateParameters = new ArrayList<Column>(update);
+		updateParameters.addAll(keys);
+		bind("bindInsert", insert);
+		bind("bindUpdate", updateParameters);
+		bind("bindDelete", keys);
+		line("}");
+	}
+
+	private void header(String method) throws IOException {
+		line("	@Override");
+		line("	public void ", method, "(SQLGenerator generator, ", entityName,
+				" entity,");
+		line("			StringBuilder result) {");
+	}
+
+	/**
+	 * Gera "result.append(separador + nome + igual); generator.appendValue(...)"
+	 * para cada coluna. Com <code>equal</code> vazio, somente os valores.
+	 */
+	private void appendValues(List<Column> list, String separator,
+			String equal) throws IOException {
+		boolean started = false;
+		for (Column column : list) {
+			String prefix = (started ? separator : "")
+					+ (equal.isEmpty() ? "" : column.name + equal);
+			if (!prefix.isEmpty())
+				line("		result.append(\"", escape(prefix), "\");");
+			line("		generator.appendValue(result, entity.", column.accessor,
+					");");
+			started = true;
+		}
+	}
+
+	private void bind(String method, List<Column> parameters)
+			throws IOException {
+		line("	@Override");
+		line("	public void ", method, "(PreparedStatement statement, ",
+				entityName, " entity)");
+		line("			throws SQLException {");
+		int index = 1;
+		for (Column column : parameters)
+			line("		", bindStatement(column, index++));
+		line("	}").line();
+	}
+
+	private String bindStatement(Column column, int index) {
+		String value = "entity." + column.accessor;
+		switch (column.type.getKind()) {
+		case INT:
+			return "statement.setInt(" + index + ", " + value + ");";
+		case LONG:
+			return "statement.setLong(" + index + ", " + value + ");";
+		case DOUBLE:
+			return "statement.setDouble(" + index + ", " + value + ");";
+		case FLOAT:
+			return "statement.setFloat(" + index + ", " + value + ");";
+		case SHORT:
+			return "statement.setShort(" + index + ", " + value + ");";
+		case BYTE:
+			return "statement.setByte(" + index + ", " + value + ");";
+		case BOOLEAN:
+			return "statement.setBoolean(" + index + ", " + value + ");";
+		case CHAR:
+			return "statement.setString(" + index + ", String.valueOf("
+					+ value + "));";
+		default:
+			return "JdbcTypes.bind(statement, " + index + ", " + value + ", "
+					+ typeConstant(column) + ");";
+		}
+	}
+
+	private String typeConstant(Column column) {
+		return "TYPE_" + column.name.toUpperCase();
+	}
+
+	private static String join(List<Column> list) {
+		StringBuilder result = new StringBuilder();
+		for (Column column : list)
+			result.append(result.length() == 0 ? "" : ",").append(column.name);
+		return result.toString();
+	}
+
+	/**
+	 * "a", "b"
+	 */
+	private static String quote(List<Column> list) {
+		StringBuilder result = new StringBuilder();
+		for (Column column : list)
+			result.append(result.length() == 0 ? "" : ", ").append('"')
+					.append(escape(column.name)).append('"');
+		return result.toString();
+	}
+
+	private static String escape(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\"");
+	}
+
+	private MapperWriter line(String... parts) throws IOException {
+		for (String part : parts)
+			writer.write(part);
+		writer.write('\n');
+		return this;
+	}
+}
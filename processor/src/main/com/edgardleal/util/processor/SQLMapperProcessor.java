@@ -0,0 +1,215 @@
+package com.edgardleal.util.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.tools.Diagnostic.Kind;
+
+/**
+ * Processador de anotacoes que gera, para cada classe anotada com
+ * <code>@Entity</code> ou <code>@Table</code>, a classe
+ * <code>&lt;Entidade&gt;SQLMapper</code> (implementacao de
+ * <code>com.edgardleal.util.data.EntityMapper</code>) no mesmo pacote da
+ * entidade.<br>
+ * O mapeador gerado monta os comandos INSERT, UPDATE e DELETE e passa os
+ * parametros para o <code>PreparedStatement</code> chamando diretamente os
+ * metodos get, sem reflexao. As regras sao as mesmas do
+ * <code>SQLGenerator</code>: atributos estaticos sao ignorados,
+ * <code>@Id</code> forma a condicao do UPDATE/DELETE e
+ * <code>@GeneratedValue</code> fica fora do INSERT.<br>
+ * Entidades que nao podem ser acessadas a partir do seu pacote (classes
+ * privadas, classes internas nao estaticas, atributos privados sem metodo get)
+ * nao tem mapeador gerado e continuam sendo tratadas por reflexao.
+ *
+ * @author Edgard Leal
+ */
+@SupportedAnnotationTypes({ "javax.persistence.Entity",
+		"javax.persistence.Table" })
+public class SQLMapperProcessor extends AbstractProcessor {
+	static final String SUFFIX = "SQLMapper";
+
+	private final Set<String> generated = new HashSet<String>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations,
+			RoundEnvironment roundEnv) {
+		Set<Element> entities = new HashSet<Element>();
+		entities.addAll(roundEnv.getElementsAnnotatedWith(Entity.class));
+		entities.addAll(roundEnv.getElementsAnnotatedWith(Table.class));
+
+		for (Element element : entities) {
+			if (element.getKind() != ElementKind.CLASS)
+				continue;
+			TypeElement type = (TypeElement) element;
+			if (!generated.add(type.getQualifiedName().toString()))
+				continue;
+			try {
+				generate(type);
+			} catch (IOException e) {
+				processingEnv.getMessager().printMessage(Kind.ERROR,
+						e.getMessage(), type);
+			}
+		}
+		return false;
+	}
+
+	private void generate(TypeElement type) throws IOException {
+		String reason = getUnsupportedReason(type);
+		List<Column> columns = reason == null ? getColumns(type) : null;
+		if (reason == null && columns == null)
+			reason = "atributo privado sem metodo get";
+		if (reason != null) {
+			processingEnv.getMessager().printMessage(Kind.NOTE,
+					SUFFIX + " nao gerado: " + reason, type);
+			return;
+		}
+
+		String packageName = getPackage(type).getQualifiedName().toString();
+		String mapperName = getMapperSimpleName(type);
+		Writer writer = processingEnv
+				.getFiler()
+				.createSourceFile(
+						packageName.isEmpty() ? mapperName : packageName + "."
+								+ mapperName, type).openWriter();
+		try {
+			new MapperWriter(writer, packageName, mapperName, type
+					.getQualifiedName().toString(), getTableName(type),
+					columns).write();
+		} finally {
+			writer.close();
+		}
+	}
+
+	private String getUnsupportedReason(TypeElement type) {
+		if (!type.getTypeParameters().isEmpty())
+			return "classe generica";
+		for (Element element = type; element.getKind() == ElementKind.CLASS; element = element
+				.getEnclosingElement()) {
+			if (element.getModifiers().contains(Modifier.PRIVATE))
+				return "classe privada";
+			if (((TypeElement) element).getNestingKind() == NestingKind.MEMBER
+					&& !element.getModifiers().contains(Modifier.STATIC))
+				return "classe interna nao estatica";
+		}
+		return null;
+	}
+
+	private PackageElement getPackage(Element element) {
+		while (element.getKind() != ElementKind.PACKAGE)
+			element = element.getEnclosingElement();
+		return (PackageElement) element;
+	}
+
+	/**
+	 * Pedido.Item -> Pedido_ItemSQLMapper
+	 */
+	private String getMapperSimpleName(TypeElement type) {
+		StringBuilder result = new StringBuilder(type.getSimpleName());
+		for (Element element = type.getEnclosingElement(); element.getKind() != ElementKind.PACKAGE; element = element
+				.getEnclosingElement())
+			result.insert(0, '_').insert(0, element.getSimpleName());
+		return result.append(SUFFIX).toString();
+	}
+
+	private String getTableName(TypeElement type) {
+		String tableName = type.getSimpleName().toString(), schemaName = "";
+		Table table = type.getAnnotation(Table.class);
+		if (table != null) {
+			if (!table.name().isEmpty())
+				tableName = table.name();
+			schemaName = table.schema();
+		}
+		return schemaName.isEmpty() ? tableName : schemaName + "." + tableName;
+	}
+
+	/**
+	 * Retorna as colunas na ordem de declaracao ou <code>null</code> caso
+	 * algum atributo nao possa ser lido a partir do pacote da entidade.
+	 */
+	private List<Column> getColumns(TypeElement type) {
+		List<Column> result = new ArrayList<Column>();
+		for (Element element : type.getEnclosedElements()) {
+			if (element.getKind() != ElementKind.FIELD
+					|| element.getModifiers().contains(Modifier.STATIC))
+				continue;
+			VariableElement field = (VariableElement) element;
+			String accessor = getAccessor(type, field);
+			if (accessor == null)
+				return null;
+			result.add(new Column(field.getSimpleName().toString(),
+					accessor, field.asType(), processingEnv.getTypeUtils()
+							.erasure(field.asType()).toString(), field
+							.getAnnotation(Id.class) != null, field
+							.getAnnotation(GeneratedValue.class) != null));
+		}
+		return result;
+	}
+
+	private String getAccessor(TypeElement type, VariableElement field) {
+		String name = field.getSimpleName().toString();
+		String pascal = Character.toUpperCase(name.charAt(0))
+				+ name.substring(1);
+		List<String> getters = new ArrayList<String>();
+		getters.add("get" + pascal);
+		if (field.asType().getKind() == TypeKind.BOOLEAN)
+			getters.add(0, "is" + pascal);
+
+		for (Element element : type.getEnclosedElements()) {
+			if (element.getKind() != ElementKind.METHOD
+					|| element.getModifiers().contains(Modifier.PRIVATE)
+					|| element.getModifiers().contains(Modifier.STATIC))
+				continue;
+			ExecutableElement method = (ExecutableElement) element;
+			if (method.getParameters().isEmpty()
+					&& getters.contains(method.getSimpleName().toString()))
+				return method.getSimpleName() + "()";
+		}
+		return field.getModifiers().contains(Modifier.PRIVATE) ? null : name;
+	}
+
+	static class Column {
+		final String name;
+		final String accessor;
+		final TypeMirror type;
+		final String erasure;
+		final boolean id;
+		final boolean generated;
+
+		Column(String name, String accessor, TypeMirror type, String erasure,
+				boolean id, boolean generated) {
+			this.name = name;
+			this.accessor = accessor;
+			this.type = type;
+			this.erasure = erasure;
+			this.id = id;
+			this.generated = generated;
+		}
+	}
+}
@@ -0,0 +1,232 @@
+package test.edgardleal.util.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.lang.reflect.Constructor;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaCompiler.CompilationTask;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.edgardleal.util.data.EntityMappers;
+import com.edgardleal.util.data.SQLGenerator;
+import com.edgardleal.util.data.SQLTemplate;
+import com.edgardleal.util.processor.SQLMapperProcessor;
+
+/**
+ * Compila uma entidade com e sem o {@link SQLMapperProcessor} e compara os
+ * comandos do mapeador gerado com os comandos obtidos por reflexao.
+ */
+public class TestSQLMapperProcessor {
+	private static final String SOURCE = "package fixture;\n"
+			+ "import java.util.Date;\n"
+			+ "import javax.persistence.*;\n"
+			+ "@Entity @Table(name = \"cliente\", schema = \"loja\")\n"
+			+ "public class Cliente {\n"
+			+ "	@Id @GeneratedValue private int codigo = 7;\n"
+			+ "	private String nome = \"D'Avila \\\\ \\\"Ze\\\"\";\n"
+			+ "	private double saldo = 10.5;\n"
+			+ "	private long limite = 3000000000L;\n"
+			+ "	private boolean ativo = true;\n"
+			+ "	private char tipo = 'F';\n"
+			+ "	private Integer pontos = null;\n"
+			+ "	private Date cadastro = new Date(0L);\n"
+			+ "	public int getCodigo() { return codigo; }\n"
+			+ "	public String getNome() { return nome; }\n"
+			+ "	public double getSaldo() { return saldo; }\n"
+			+ "	public long getLimite() { return limite; }\n"
+			+ "	public boolean isAtivo() { return ativo; }\n"
+			+ "	public char getTipo() { return tipo; }\n"
+			+ "	public Integer getPontos() { return pontos; }\n"
+			+ "	public Date getCadastro() { return cadastro; }\n"
+			+ "	@Entity\n"
+			+ "	public static class Endereco {\n"
+			+ "		@Id int cliente = 7;\n"
+			+ "		@Id int numero = 2;\n"
+			+ "		String rua = \"Rua A\";\n"
+			+ "	}\n"
+			+ "}\n";
+
+	private File reflectionDir = null;
+	private File mapperDir = null;
+
+	@Before
+	public void setUp() throws Exception {
+		reflectionDir = createTempDir("reflection");
+		mapperDir = createTempDir("mapper");
+		assertTrue(compile(reflectionDir, false));
+		assertTrue(compile(mapperDir, true));
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		delete(reflectionDir);
+		delete(mapperDir);
+	}
+
+	private static File createTempDir(String name) throws Exception {
+		File dir = File.createTempFile(name, "");
+		dir.delete();
+		dir.mkdir();
+		return dir;
+	}
+
+	private static void delete(File file) {
+		File children[] = file.listFiles();
+		if (children != null)
+			for (File child : children)
+				delete(child);
+		file.delete();
+	}
+
+	private boolean compile(File dir, boolean process) {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		JavaFileObject source = new SimpleJavaFileObject(
+				URI.create("string:///fixture/Cliente.java"),
+				JavaFileObject.Kind.SOURCE) {
+			@Override
+			public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+				return SOURCE;
+			}
+		};
+		List<String> options = new ArrayList<String>(Arrays.asList("-d",
+				dir.getPath(), "-cp", System.getProperty("java.class.path")));
+		if (!process)
+			options.add("-proc:none");
+		CompilationTask task = compiler.getTask(null, null, null, options,
+				null, Arrays.asList(source));
+		if (process)
+			task.setProcessors(Arrays.asList(new SQLMapperProcessor()));
+		return task.call();
+	}
+
+	private static Object create(File dir, String className) throws Exception {
+		ClassLoader loader = new URLClassLoader(new URL[] { dir.toURI()
+				.toURL() }, TestSQLMapperProcessor.class.getClassLoader());
+		Constructor<?> constructor = loader.loadClass(
+				className).getDeclaredConstructor();
+		constructor.setAccessible(true);
+		return constructor.newInstance();
+	}
+
+	private void assertSameCommands(String className) throws Exception {
+		Object reflection = create(reflectionDir, className);
+		Object mapped = create(mapperDir, className);
+		assertNull(EntityMappers.find(reflection.getClass()));
+		assertNotNull(EntityMappers.find(mapped.getClass()));
+
+		SQLGenerator generator = new SQLGenerator();
+		assertEquals(generator.getInsertCommand(reflection),
+				generator.getInsertCommand(mapped));
+		assertEquals(generator.getUpdate(reflection),
+				generator.getUpdate(mapped));
+		assertEquals(generator.getDeleteCommand(reflection),
+				generator.getDeleteCommand(mapped));
+		assertEquals(
+				generator.getInsertCommand(Arrays.asList(reflection, reflection)),
+				generator.getInsertCommand(Arrays.asList(mapped, mapped)));
+	}
+
+	@Test
+	public void testCommands() throws Exception {
+		assertSameCommands("fixture.Cliente");
+		assertEquals(
+				"DELETE FROM loja.cliente WHERE codigo = 7",
+				new SQLGenerator().getDeleteCommand(create(mapperDir,
+						"fixture.Cliente")));
+	}
+
+	/**
+	 * Executa os comandos de {@link SQLTemplate} com os parametros passados
+	 * pelo mapeador gerado e compara o registro gravado com o gravado por
+	 * reflexao.
+	 */
+	@Test
+	public void testBind() throws Exception {
+		Object reflection = create(reflectionDir, "fixture.Cliente");
+		Object mapped = create(mapperDir, "fixture.Cliente");
+		assertNotNull(EntityMappers.find(mapped.getClass()));
+		SQLGenerator generator = new SQLGenerator();
+		Connection connection = DriverManager
+				.getConnection("jdbc:h2:mem:processor");
+		try {
+			Statement statement = connection.createStatement();
+			statement.execute("CREATE SCHEMA loja");
+			statement
+					.execute("CREATE TABLE loja.cliente (codigo INT AUTO_INCREMENT PRIMARY KEY,"
+							+ " nome VARCHAR(50), saldo DOUBLE, limite BIGINT, ativo BOOLEAN,"
+							+ " tipo CHAR(1), pontos INT, cadastro TIMESTAMP)");
+
+			assertEquals(1, execute(connection,
+					generator.getInsertTemplate(reflection.getClass()),
+					reflection));
+			assertEquals(1, execute(connection,
+					generator.getInsertTemplate(mapped.getClass()), mapped));
+			assertEquals(getRow(connection, 1), getRow(connection, 2));
+
+			statement.execute("INSERT INTO loja.cliente (codigo) VALUES (7)");
+			assertEquals(1, execute(connection,
+					generator.getUpdateTemplate(mapped.getClass()), mapped));
+			assertEquals(getRow(connection, 1), getRow(connection, 7));
+			assertEquals(1, execute(connection,
+					generator.getDeleteTemplate(mapped.getClass()), mapped));
+			assertEquals(Collections.emptyList(), getRow(connection, 7));
+		} finally {
+			connection.close();
+		}
+	}
+
+	private static int execute(Connection connection, SQLTemplate template,
+			Object entity) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement(template
+				.getSql());
+		try {
+			template.bind(statement, entity);
+			return statement.executeUpdate();
+		} finally {
+			statement.close();
+		}
+	}
+
+	private static List<Object> getRow(Connection connection, int codigo)
+			throws SQLException {
+		List<Object> result = new ArrayList<Object>();
+		ResultSet rs = connection.createStatement().executeQuery(
+				"SELECT nome,saldo,limite,ativo,tipo,pontos,cadastro FROM loja.cliente WHERE codigo = "
+						+ codigo);
+		if (rs.next())
+			for (int i = 1; i <= 7; i++)
+				result.add(rs.getObject(i));
+		return result;
+	}
+
+	@Test
+	public void testNestedClass() throws Exception {
+		assertSameCommands("fixture.Cliente$Endereco");
+		assertTrue(new File(mapperDir, "fixture/Cliente_EnderecoSQLMapper.class")
+				.exists());
+	}
+}
@@ -0,0 +1,20 @@
+package com.edgardleal.util.data;
+
+/**
+ * Recebe o resultado de cada lote executado pelo {@link BatchWriter}.
+ *
+ * @author Edgard Leal
+ */
+public interface BatchListener {
+
+	/**
+	 * Chamado apos a execucao de um lote.
+	 *
+	 * @param type
+	 *            classe das entidades do lote
+	 * @param operation
+	 * @param updateCounts
+	 *            retorno de <code>executeBatch()</code>, um valor por entidade
+	 */
+	void batchExecuted(Class<?> type, Operation operation, int[] updateCounts);
+}
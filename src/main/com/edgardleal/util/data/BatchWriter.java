@@ -0,0 +1,320 @@
+package com.edgardleal.util.data;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Grava entidades em lotes JDBC (<code>addBatch</code>/
+ * <code>executeBatch</code>) utilizando os comandos parametrizados do
+ * {@link SQLGenerator}.<br>
+ * As entidades sao agrupadas por classe e operacao, cada grupo com o seu
+ * <code>PreparedStatement</code>. Um lote e executado quando atinge
+ * <code>batchSize</code> entidades, quando a entidade mais antiga do lote
+ * esta aguardando ha mais de <code>maxLingerMillis</code> (verificado a cada
+ * entidade adicionada ou em {@link #flushExpired()}) ou quando e adicionada
+ * uma entidade de outra classe ou operacao. Assim, os comandos chegam ao
+ * banco na mesma ordem em que foram adicionados (ex.: INSERT do pai antes do
+ * filho, DELETE antes de um novo INSERT da mesma chave).<br>
+ * Com {@link #setPreserveOrder(boolean) setPreserveOrder(false)}, cada classe
+ * e operacao mantem o seu lote aberto e a troca de classe ou operacao nao
+ * executa os lotes pendentes. Entradas intercaladas (ex.: pai, filho, pai,
+ * filho) passam a gerar lotes grandes em vez de lotes de uma entidade, mas os
+ * lotes sao executados na ordem em que foram criados, e nao na ordem das
+ * entidades; utilize somente quando nao houver dependencia entre as
+ * operacoes (chaves estrangeiras, DELETE seguido de INSERT da mesma chave).<br>
+ * Assim como a <code>Connection</code>, esta classe nao e thread-safe. A
+ * conexao nao e fechada por {@link #close()}.<br>
+ * O tempo de execucao de cada lote e informado ao {@link SQLListener} do
+ * {@link SQLGenerator}.<br>
+ * Ex.:<br>
+ * <code>
+ * BatchWriter writer = new BatchWriter(connection, 500, 1000);<br>
+ * for (Cliente cliente : clientes)<br>
+ * &nbsp;&nbsp;writer.insert(cliente);<br>
+ * writer.close();
+ * </code>
+ *
+ * @author Edgard Leal
+ */
+public class BatchWriter implements AutoCloseable {
+	public static final int DEFAULT_BATCH_SIZE = 500;
+	public static final long DEFAULT_MAX_LINGER_MILLIS = 1000L;
+
+	private final Connection connection;
+	private final SQLGenerator generator;
+	private final int batchSize;
+	private final long maxLingerMillis;
+	private final Map<BatchKey, Batch> batches = new LinkedHashMap<BatchKey, Batch>();
+	/**
+	 * Com <code>preserveOrder</code>, unico lote que pode possuir entidades
+	 * pendentes
+	 */
+	private Batch current;
+	private boolean preserveOrder = true;
+	private BatchListener listener;
+
+	public BatchWriter(Connection connection) {
+		this(connection, DEFAULT_BATCH_SIZE, DEFAULT_MAX_LINGER_MILLIS);
+	}
+
+	public BatchWriter(Connection connection, int batchSize,
+			long maxLingerMillis) {
+		this(connection, new SQLGenerator(), batchSize, maxLingerMillis);
+	}
+
+	public BatchWriter(Connection connection, SQLGenerator generator,
+			int batchSize, long maxLingerMillis) {
+		if (batchSize < 1)
+			throw new IllegalArgumentException(
+					"batchSize deve ser maior que zero");
+		this.connection = connection;
+		this.generator = generator;
+		this.batchSize = batchSize;
+		this.maxLingerMillis = maxLingerMillis;
+	}
+
+	public BatchListener getListener() {
+		return listener;
+	}
+
+	public void setListener(BatchListener listener) {
+		this.listener = listener;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public long getMaxLingerMillis() {
+		return maxLingerMillis;
+	}
+
+	public boolean isPreserveOrder() {
+		return preserveOrder;
+	}
+
+	/**
+	 * Indica se os comandos devem ser executados na ordem em que as entidades
+	 * foram adicionadas (padrao) ou agrupados em um lote aberto por classe e
+	 * operacao. Deve ser alterado antes de adicionar as entidades.
+	 */
+	public void setPreserveOrder(boolean preserveOrder) {
+		this.preserveOrder = preserveOrder;
+	}
+
+	public void insert(Object entity) throws SQLException {
+		add(Operation.INSERT, entity);
+	}
+
+	public void update(Object entity) throws SQLException {
+		add(Operation.UPDATE, entity);
+	}
+
+	public void delete(Object entity) throws SQLException {
+		add(Operation.DELETE, entity);
+	}
+
+	/**
+	 * Adiciona todas as entidades informadas com a mesma operacao.
+	 */
+	public void write(Iterable<?> entities, Operation operation)
+			throws SQLException {
+		for (Object entity : entities)
+			add(operation, entity);
+	}
+
+	/**
+	 * Adiciona todas as linhas do buffer com a mesma operacao, passando os
+	 * parametros diretamente das colunas.
+	 */
+	public void write(ColumnarBuffer buffer, Operation operation)
+			throws SQLException {
+		Batch batch = getCurrentBatch(new BatchKey(buffer.getMetadata()
+				.getEntityClass(), operation));
+		for (int row = 0; row < buffer.size(); row++) {
+			buffer.bind(batch.statement, batch.template, row);
+			batch.addBatch();
+			if (batch.size >= batchSize)
+				execute(batch);
+		}
+		flushExpired();
+	}
+
+	/**
+	 * Adiciona a entidade ao lote da sua classe e operacao, executando o lote
+	 * caso o tamanho ou o tempo limite tenha sido atingido. Caso a classe ou a
+	 * operacao seja diferente da entidade anterior, o lote pendente e
+	 * executado antes (ver {@link #setPreserveOrder(boolean)}).
+	 */
+	public void add(Operation operation, Object entity) throws SQLException {
+		Batch batch = getCurrentBatch(new BatchKey(entity.getClass(),
+				operation));
+		batch.add(entity);
+		if (batch.size >= batchSize || isExpired(batch))
+			execute(batch);
+		else
+			flushExpired();
+	}
+
+	/**
+	 * Lote da chave informada, executando antes o lote pendente de outra
+	 * classe ou operacao
+	 */
+	private Batch getCurrentBatch(BatchKey key) throws SQLException {
+		Batch batch = getBatch(key);
+		if (preserveOrder && batch != current) {
+			flush();
+			current = batch;
+		}
+		return batch;
+	}
+
+	private Batch getBatch(BatchKey key) throws SQLException {
+		Batch batch = batches.get(key);
+		if (batch == null) {
+			batch = new Batch(key, getTemplate(key));
+			batches.put(key, batch);
+		}
+		return batch;
+	}
+
+	private SQLTemplate getTemplate(BatchKey key) {
+		switch (key.operation) {
+		case INSERT:
+			return generator.getInsertTemplate(key.type);
+		case UPDATE:
+			return generator.getUpdateTemplate(key.type);
+		default:
+			return generator.getDeleteTemplate(key.type);
+		}
+	}
+
+	private boolean isExpired(Batch batch) {
+		return batch.size > 0
+				&& System.currentTimeMillis() - batch.firstAdded >= maxLingerMillis;
+	}
+
+	/**
+	 * Executa os lotes cuja entidade mais antiga esta aguardando ha mais de
+	 * <code>maxLingerMillis</code>.
+	 */
+	public void flushExpired() throws SQLException {
+		for (Batch batch : batches.values())
+			if (isExpired(batch))
+				execute(batch);
+	}
+
+	/**
+	 * Executa os lotes pendentes.
+	 */
+	public void flush() throws SQLException {
+		for (Batch batch : batches.values())
+			if (batch.size > 0)
+				execute(batch);
+	}
+
+	/**
+	 * Descarta as entidades adicionadas e ainda nao executadas.
+	 */
+	public void clear() throws SQLException {
+		for (Batch batch : batches.values())
+			if (batch.size > 0) {
+				batch.size = 0;
+				batch.statement.clearBatch();
+			}
+	}
+
+	private void execute(Batch batch) throws SQLException {
+		SQLListener sqlListener = generator.getListener();
+		long start = sqlListener == SQLListener.NONE ? 0L : System.nanoTime();
+		int size = batch.size;
+		int[] updateCounts;
+		try {
+			updateCounts = batch.statement.executeBatch();
+		} finally {
+			batch.size = 0;
+			if (sqlListener != SQLListener.NONE)
+				sqlListener.batchExecuted(batch.key.type, batch.key.operation,
+						size, System.nanoTime() - start);
+		}
+		if (listener != null)
+			listener.batchExecuted(batch.key.type, batch.key.operation,
+					updateCounts);
+	}
+
+	/**
+	 * Executa os lotes pendentes e fecha os comandos preparados.
+	 */
+	@Override
+	public void close() throws SQLException {
+		try {
+			flush();
+		} finally {
+			SQLException error = null;
+			for (Batch batch : batches.values())
+				try {
+					batch.statement.close();
+				} catch (SQLException e) {
+					if (error == null)
+						error = e;
+					else
+						error.addSuppressed(e);
+				}
+			batches.clear();
+			current = null;
+			if (error != null)
+				throw error;
+		}
+	}
+
+	private static class BatchKey {
+		final Class<?> type;
+		final Operation operation;
+
+		BatchKey(Class<?> type, Operation operation) {
+			this.type = type;
+			this.operation = operation;
+		}
+
+		@Override
+		public int hashCode() {
+			return type.hashCode() * 31 + operation.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof BatchKey))
+				return false;
+			BatchKey other = (BatchKey) obj;
+			return type.equals(other.type) && operation == other.operation;
+		}
+	}
+
+	private class Batch {
+		final BatchKey key;
+		final SQLTemplate template;
+		final PreparedStatement statement;
+		int size;
+		long firstAdded;
+
+		Batch(BatchKey key, SQLTemplate template) throws SQLException {
+			this.key = key;
+			this.template = template;
+			this.statement = connection.prepareStatement(template.getSql());
+		}
+
+		void add(Object entity) throws SQLException {
+			template.bind(statement, entity);
+			addBatch();
+		}
+
+		void addBatch() throws SQLException {
+			statement.addBatch();
+			if (size++ == 0)
+				firstAdded = System.currentTimeMillis();
+		}
+	}
+}
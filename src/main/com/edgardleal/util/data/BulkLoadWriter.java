@@ -0,0 +1,255 @@
+package com.edgardleal.util.data;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Escreve entidades no formato de carga em massa, em vez de comandos INSERT:
+ * texto do <code>COPY</code> do PostgreSQL (colunas separadas por tabulacao,
+ * <code>\N</code> para null) ou CSV (RFC 4180, campo vazio para null).<br>
+ * As colunas sao as mesmas do INSERT do {@link SQLGenerator}, na mesma ordem
+ * e sem as colunas <code>@GeneratedValue</code> (ver
+ * {@link #getCopyCommand(Class)}).<br>
+ * Ex.:<br>
+ * <code>
+ * BulkLoadWriter writer = new BulkLoadWriter(new FileOutputStream("clientes.txt"), Charset.forName("UTF-8"), Format.TEXT);<br>
+ * writer.write(clientes);<br>
+ * writer.close();<br>
+ * // psql: \copy cliente (nome,cidade) FROM 'clientes.txt'
+ * </code>
+ *
+ * @author Edgard Leal
+ */
+public class BulkLoadWriter implements Flushable, AutoCloseable {
+
+	public enum Format {
+		/**
+		 * Formato texto do <code>COPY</code>: tabulacao entre as colunas,
+		 * <code>\N</code> para null e barra invertida como escape
+		 */
+		TEXT('\t', "\n"),
+		/**
+		 * RFC 4180: virgula entre as colunas, aspas quando necessario e campo
+		 * vazio (sem aspas) para null
+		 */
+		CSV(',', "\r\n");
+
+		private final char delimiter;
+		private final String lineEnd;
+
+		private Format(char delimiter, String lineEnd) {
+			this.delimiter = delimiter;
+			this.lineEnd = lineEnd;
+		}
+	}
+
+	private static final String TEXT_NULL = "\\N";
+	private static final char CSV_QUOTE = '"';
+
+	private final SQLScriptWriter out;
+	private final Format format;
+	private final StringBuilder row = new StringBuilder(256);
+	private final StringBuilder field = new StringBuilder(64);
+	/**
+	 * Indica se {@link #writeHeader(Class)} foi chamado
+	 */
+	private boolean header;
+
+	public BulkLoadWriter(Appendable out, Format format) {
+		this(new SQLScriptWriter(out), format);
+	}
+
+	public BulkLoadWriter(OutputStream out, Charset charset, Format format) {
+		this(new SQLScriptWriter(Channels.newChannel(out), charset), format);
+	}
+
+	private BulkLoadWriter(SQLScriptWriter out, Format format) {
+		this.out = out;
+		this.format = format;
+	}
+
+	public Format getFormat() {
+		return format;
+	}
+
+	/**
+	 * Comando que carrega o conteudo gerado para a classe informada. Ex.:
+	 * <code>COPY loja.produto (codigo,nome,preco) FROM STDIN WITH (FORMAT csv)</code>
+	 * <br>
+	 * Quando o cabecalho foi escrito, inclui a opcao <code>HEADER true</code>
+	 * para que a primeira linha seja ignorada (no formato texto, a opcao
+	 * requer PostgreSQL 15 ou superior).
+	 */
+	public String getCopyCommand(Class<?> type) {
+		EntityMetadata metadata = EntityMetadata.of(type);
+		StringBuilder result = new StringBuilder("COPY ")
+				.append(metadata.getTableName()).append(" (")
+				.append(metadata.getInsertColumnList()).append(") FROM STDIN");
+		if (format == Format.CSV)
+			result.append(header ? " WITH (FORMAT csv, HEADER true)"
+					: " WITH (FORMAT csv)");
+		else if (header)
+			result.append(" WITH (FORMAT text, HEADER true)");
+		return result.toString();
+	}
+
+	/**
+	 * Escreve uma linha com o nome das colunas (cabecalho do CSV). A partir
+	 * desta chamada {@link #getCopyCommand(Class)} inclui a opcao
+	 * <code>HEADER</code>.
+	 */
+	public void writeHeader(Class<?> type) throws IOException {
+		header = true;
+		row.setLength(0);
+		boolean started = false;
+		for (ColumnMetadata column : EntityMetadata.of(type)
+				.getInsertColumns()) {
+			if (started)
+				row.append(format.delimiter);
+			appendEscaped(column.getName());
+			started = true;
+		}
+		out.writeRaw(row.append(format.lineEnd));
+	}
+
+	/**
+	 * Escreve uma linha para cada entidade informada.
+	 */
+	public void write(Iterable<?> entities) throws IOException {
+		for (Object entity : entities)
+			write(entity);
+	}
+
+	/**
+	 * Escreve uma linha com os valores das colunas do INSERT da entidade.
+	 */
+	public void write(Object entity) throws IOException {
+		List<ColumnMetadata> columns = EntityMetadata.of(entity.getClass())
+				.getInsertColumns();
+		row.setLength(0);
+		try {
+			for (int i = 0; i < columns.size(); i++) {
+				if (i > 0)
+					row.append(format.delimiter);
+				appendField(columns.get(i).getValue(entity));
+			}
+		} catch (InvocationTargetException e) {
+			throw new IOException(e.getCause());
+		}
+		out.writeRaw(row.append(format.lineEnd));
+	}
+
+	private void appendField(Object value) {
+		if (value == null) {
+			if (format == Format.TEXT)
+				row.append(TEXT_NULL);
+		} else if (value instanceof CharSequence)
+			appendEscaped((CharSequence) value);
+		else if (value instanceof Number || value instanceof Boolean)
+			// nao contem caracteres que precisem de escape
+			appendPlain(row, value);
+		else {
+			field.setLength(0);
+			appendPlain(field, value);
+			appendEscaped(field);
+		}
+	}
+
+	/**
+	 * Valor sem escape. Datas no formato ISO e <code>byte[]</code> no formato
+	 * hexadecimal do <code>bytea</code> (\x0aff).
+	 */
+	private static void appendPlain(StringBuilder result, Object value) {
+		if (value instanceof BigDecimal)
+			result.append(((BigDecimal) value).toPlainString());
+		else if (value instanceof Double)
+			result.append(((Double) value).doubleValue());
+		else if (value instanceof Float)
+			result.append(((Float) value).floatValue());
+		else if (value instanceof Date)
+			SQLLiteralEncoder.appendDateText(result, (Date) value);
+		else if (value instanceof byte[])
+			SQLLiteralEncoder.appendHex(result.append("\\x"), (byte[]) value);
+		else
+			result.append(value);
+	}
+
+	private void appendEscaped(CharSequence value) {
+		if (format == Format.TEXT)
+			appendText(value);
+		else
+			appendCsv(value);
+	}
+
+	private void appendText(CharSequence value) {
+		int start = 0, length = value.length();
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i), escape;
+			switch (c) {
+			case '\\':
+				escape = '\\';
+				break;
+			case '\t':
+				escape = 't';
+				break;
+			case '\n':
+				escape = 'n';
+				break;
+			case '\r':
+				escape = 'r';
+				break;
+			default:
+				continue;
+			}
+			row.append(value, start, i).append('\\').append(escape);
+			start = i + 1;
+		}
+		row.append(value, start, length);
+	}
+
+	/**
+	 * O texto vazio e escrito entre aspas para nao ser lido como null.
+	 */
+	private void appendCsv(CharSequence value) {
+		int length = value.length();
+		boolean quote = length == 0;
+		for (int i = 0; i < length && !quote; i++) {
+			char c = value.charAt(i);
+			quote = c == format.delimiter || c == CSV_QUOTE || c == '\n'
+					|| c == '\r';
+		}
+		if (!quote) {
+			row.append(value);
+			return;
+		}
+		row.append(CSV_QUOTE);
+		int start = 0;
+		for (int i = 0; i < length; i++)
+			if (value.charAt(i) == CSV_QUOTE) {
+				row.append(value, start, i + 1).append(CSV_QUOTE);
+				start = i + 1;
+			}
+		row.append(value, start, length).append(CSV_QUOTE);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	/**
+	 * Descarrega o buffer e fecha o destino, quando este for um
+	 * <code>Writer</code> ou <code>OutputStream</code>.
+	 */
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+}
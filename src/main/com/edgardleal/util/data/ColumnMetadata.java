@@ -0,0 +1,117 @@
+package com.edgardleal.util.data;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+
+/**
+ * Informacoes de uma coluna (atributo) de entidade, resolvidas uma unica vez
+ * por {@link EntityMetadata}.
+ *
+ * @author Edgard Leal
+ */
+public class ColumnMetadata {
+	private final Field field;
+	private final int index;
+	private final String name;
+	private final boolean id;
+	private final boolean generated;
+	private final boolean number;
+	private final PropertyAccessor accessor;
+	private final int sqlType;
+
+	ColumnMetadata(Field field, int index) {
+		this.field = field;
+		this.index = index;
+		this.name = field.getName();
+		this.id = field.isAnnotationPresent(Id.class);
+		this.generated = field.isAnnotationPresent(GeneratedValue.class);
+		this.number = isNumber(field.getType());
+		this.accessor = new PropertyAccessor(field);
+		this.sqlType = JdbcTypes.sqlType(field.getType());
+	}
+
+	public Field getField() {
+		return field;
+	}
+
+	/**
+	 * Posicao desta coluna em {@link EntityMetadata#getColumns()}
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Class<?> getType() {
+		return field.getType();
+	}
+
+	/**
+	 * Indica se o atributo esta anotado com <code>@Id</code>
+	 */
+	public boolean isId() {
+		return id;
+	}
+
+	/**
+	 * Indica se o atributo esta anotado com <code>@GeneratedValue</code>
+	 */
+	public boolean isGenerated() {
+		return generated;
+	}
+
+	public boolean isNumber() {
+		return number;
+	}
+
+	public PropertyAccessor getAccessor() {
+		return accessor;
+	}
+
+	/**
+	 * Retorna o valor deste atributo na entidade informada, com o seu tipo
+	 * original.
+	 */
+	public Object getValue(Object entity) throws InvocationTargetException {
+		return accessor.get(entity);
+	}
+
+	/**
+	 * Tipo JDBC (<code>java.sql.Types</code>) correspondente ao atributo
+	 */
+	public int getSqlType() {
+		return sqlType;
+	}
+
+	/**
+	 * Passa o valor deste atributo na entidade para o parametro
+	 * <code>index</code> do comando.
+	 */
+	public void bind(PreparedStatement statement, int index, Object entity)
+			throws SQLException {
+		try {
+			JdbcTypes.bind(statement, index, getValue(entity), sqlType);
+		} catch (InvocationTargetException e) {
+			throw new SQLException(name, e.getCause());
+		}
+	}
+
+	static boolean isNumber(Class<?> _class) {
+		return _class.equals(int.class) || _class.equals(float.class)
+				|| _class.equals(double.class) || _class.equals(Integer.class)
+				|| _class.equals(Float.class) || _class.equals(Double.class);
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -0,0 +1,232 @@
+package com.edgardleal.util.data;
+
+import java.lang.invoke.MethodHandle;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Le uma coluna do <code>ResultSet</code> com o metodo get especifico do tipo
+ * do atributo (<code>getInt</code>, <code>getDouble</code>, ...) e passa o
+ * valor para o metodo set da entidade, sem conversao para <code>String</code>.
+ * O leitor e escolhido uma unica vez por atributo.
+ *
+ * @author Edgard Leal
+ */
+abstract class ColumnReader {
+
+	/**
+	 * Le a coluna <code>index</code> e altera o atributo da entidade.
+	 *
+	 * @param setter
+	 *            <code>MethodHandle</code> do tipo
+	 *            <code>(Object, T)void</code>
+	 */
+	abstract void read(ResultSet rs, int index, Object entity,
+			MethodHandle setter) throws Throwable;
+
+	static ColumnReader forType(Class<?> type) {
+		if (type.equals(int.class))
+			return INT;
+		if (type.equals(long.class))
+			return LONG;
+		if (type.equals(double.class))
+			return DOUBLE;
+		if (type.equals(float.class))
+			return FLOAT;
+		if (type.equals(short.class))
+			return SHORT;
+		if (type.equals(byte.class))
+			return BYTE;
+		if (type.equals(boolean.class))
+			return BOOLEAN;
+		if (type.equals(Integer.class))
+			return INTEGER_OBJECT;
+		if (type.equals(Long.class))
+			return LONG_OBJECT;
+		if (type.equals(Double.class))
+			return DOUBLE_OBJECT;
+		if (type.equals(Boolean.class))
+			return BOOLEAN_OBJECT;
+		if (type.equals(String.class))
+			return STRING;
+		if (type.equals(BigDecimal.class))
+			return BIG_DECIMAL;
+		if (type.equals(java.sql.Date.class))
+			return SQL_DATE;
+		if (type.equals(java.sql.Timestamp.class))
+			return TIMESTAMP;
+		if (type.equals(java.util.Date.class))
+			return DATE;
+		return new ObjectReader(type);
+	}
+
+	static final ColumnReader INT = new ColumnReader() {
+		@Override
+		void read(ResultSet rs, int index, Object entity, MethodHandle setter)
+				throws Throwable {
+			setter.invokeExact(entity, rs.getInt(index));
+		}
+	};
+
+	static final ColumnReader LONG = new ColumnReader() {
+		@Override
+		void read(ResultSet rs, int index, Object entity, MethodHandle setter)
+				throws Throwable {
+			setter.invokeExact(entity, rs.getLong(index));
+		}
+	};
+
+	static final ColumnReader DOUBLE = new ColumnReader() {
+		@Override
+		void read(ResultSet rs, int index, Object entity, MethodHandle setter)
+				throws Throwable {
+			setter.invokeExact(entity, rs.getDouble(index));
+		}
+	};
+
+	static final ColumnReader FLOAT = new ColumnReader() {
+		@Override
+		void read(ResultSet rs, int index, Object entity, MethodHandle setter)
+				throws Throwable {
+			setter.invokeExact(entity, rs.getFloat(index));
+		}
+	};
+
+	static final ColumnReader SHORT = new ColumnReader() {
+		@Override
+		void read(ResultSet rs, int index, Object entity, MethodHandle setter)
+				throws Throwable {
+			setter.invokeExact(entity, rs.getShort(index));
+		}
+	};
+
+	static final ColumnReader BYTE = new ColumnReader() {
+		@Override
+		void read(ResultSet rs, int index, Object entity, MethodHandle setter)
+				throws Throwable {
+			setter.invokeExact(entity, rs.getByte(index));
+		}
+	};
+
+	static final ColumnReader BOOLEAN = new ColumnReader() {
+		@Override
+		void read(ResultSet rs, int index, Object entity, MethodHandle setter)
+				throws Throwable {
+			setter.invokeExact(entity, rs.getBoolean(index));
+		}
+	};
+
+	static final ColumnReader INTEGER_OBJECT = new ColumnReader() {
+		@Override
+		void read(ResultSet rs, int index, Object entity, MethodHandle setter)
+				throws Throwable {
+			int value = rs.getInt(index);
+			Integer result = rs.wasNull() ? null : Integer.valueOf(value);
+			setter.invokeExact(entity, result);
+		}
+	};
+
+	static final ColumnReader LONG_OBJECT = new ColumnReader() {
+		@Override
+		void read(ResultSet rs, int index, Object entity, MethodHandle setter)
+				throws Throwable {
+			long value = rs.getLong(index);
+			Long result = rs.wasNull() ? null : Long.valueOf(value);
+			setter.invokeExact(entity, result);
+		}
+	};
+
+	static final ColumnReader DOUBLE_OBJECT = new ColumnReader() {
+		@Override
+		void read(ResultSet rs, int index, Object entity, MethodHandle setter)
+				throws Throwable {
+			double value = rs.getDouble(index);
+			Double result = rs.wasNull() ? null : Double.valueOf(value);
+			setter.invokeExact(entity, result);
+		}
+	};
+
+	static final ColumnReader BOOLEAN_OBJECT = new ColumnReader() {
+		@Override
+		void read(ResultSet rs, int index, Object entity, MethodHandle setter)
+				throws Throwable {
+			boolean value = rs.getBoolean(index);
+			Boolean result = rs.wasNull() ? null : Boolean.valueOf(value);
+			setter.invokeExact(entity, result);
+		}
+	};
+
+	static final ColumnReader STRING = new ColumnReader() {
+		@Override
+		void read(ResultSet rs, int index, Object entity, MethodHandle setter)
+				throws Throwable {
+			setter.invokeExact(entity, rs.getString(index));
+		}
+	};
+
+	static final ColumnReader BIG_DECIMAL = new ColumnReader() {
+		@Override
+		void read(ResultSet rs, int index, Object entity, MethodHandle setter)
+				throws Throwable {
+			setter.invokeExact(entity, rs.getBigDecimal(index));
+		}
+	};
+
+	static final ColumnReader SQL_DATE = new ColumnReader() {
+		@Override
+		void read(ResultSet rs, int index, Object entity, MethodHandle setter)
+				throws Throwable {
+			setter.invokeExact(entity, rs.getDate(index));
+		}
+	};
+
+	static final ColumnReader TIMESTAMP = new ColumnReader() {
+		@Override
+		void read(ResultSet rs, int index, Object entity, MethodHandle setter)
+				throws Throwable {
+			setter.invokeExact(entity, rs.getTimestamp(index));
+		}
+	};
+
+	static final ColumnReader DATE = new ColumnReader() {
+		@Override
+		void read(ResultSet rs, int index, Object entity, MethodHandle setter)
+				throws Throwable {
+			java.sql.Timestamp value = rs.getTimestamp(index);
+			java.util.Date result = value == null ? null : new java.util.Date(
+					value.getTime());
+			setter.invokeExact(entity, result);
+		}
+	};
+
+	/**
+	 * Demais tipos, lidos com <code>getObject</code>
+	 */
+	private static class ObjectReader extends ColumnReader {
+		private final Class<?> type;
+
+		ObjectReader(Class<?> type) {
+			this.type = type;
+		}
+
+		@Override
+		void read(ResultSet rs, int index, Object entity, MethodHandle setter)
+				throws Throwable {
+			Object value = rs.getObject(index);
+			if (value != null && !type.isInstance(value))
+				value = convert(rs, index);
+			if (value != null || !type.isPrimitive())
+				setter.invoke(entity, value);
+		}
+
+		private Object convert(ResultSet rs, int index) throws SQLException {
+			if (type.equals(char.class) || type.equals(Character.class)) {
+				String value = rs.getString(index);
+				return value == null || value.isEmpty() ? null : value
+						.charAt(0);
+			}
+			return rs.getObject(index, type);
+		}
+	}
+}
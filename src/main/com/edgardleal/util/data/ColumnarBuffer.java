@@ -0,0 +1,567 @@
+package com.edgardleal.util.data;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Area de espera em colunas para gravacao em lote: os valores das entidades
+ * sao copiados para um vetor por atributo, e as entidades em si nao ficam
+ * retidas ate a gravacao.<br>
+ * Atributos numericos e booleanos (primitivos ou nao) sao guardados em
+ * vetores primitivos (<code>int[]</code>, <code>long[]</code>,
+ * <code>double[]</code>, <code>boolean[]</code>), sem objetos
+ * <code>Integer</code>/<code>Double</code>; textos sao guardados em um unico
+ * buffer de caracteres com as posicoes de inicio e fim; atributos
+ * <code>java.util.Date</code> sao guardados em milissegundos. Os demais tipos
+ * ficam em um vetor de objetos.<br>
+ * Os valores sao lidos diretamente das colunas ao passar os parametros (
+ * {@link #bind(PreparedStatement, SQLTemplate, int)},
+ * {@link BatchWriter#write(ColumnarBuffer, Operation)}) ou ao montar os
+ * literais ({@link #appendInsertCommand(SQLGenerator, int, StringBuilder)}).
+ * <br>
+ * Ex.:<br>
+ * <code>
+ * ColumnarBuffer buffer = new ColumnarBuffer(Leitura.class, 10000);<br>
+ * for (Leitura leitura : leituras)<br>
+ * &nbsp;&nbsp;buffer.add(leitura);<br>
+ * writer.write(buffer, Operation.INSERT);<br>
+ * buffer.clear();
+ * </code>
+ *
+ * @author Edgard Leal
+ */
+public class ColumnarBuffer {
+	private final EntityMetadata metadata;
+	private final Column[] columns;
+	private int capacity;
+	private int size;
+
+	/**
+	 * @param type
+	 * @param initialCapacity
+	 *            quantidade de linhas reservadas inicialmente
+	 */
+	public ColumnarBuffer(Class<?> type, int initialCapacity) {
+		this.metadata = EntityMetadata.of(type);
+		this.capacity = Math.max(initialCapacity, 1);
+		List<ColumnMetadata> list = metadata.getColumns();
+		this.columns = new Column[list.size()];
+		for (ColumnMetadata column : list)
+			columns[column.getIndex()] = createColumn(column, capacity);
+	}
+
+	private static Column createColumn(ColumnMetadata column, int capacity) {
+		Class<?> type = column.getType();
+		if (type == int.class || type == short.class || type == byte.class
+				|| type == char.class || type == Integer.class
+				|| type == Short.class || type == Byte.class)
+			return new IntColumn(column, capacity);
+		if (type == long.class || type == Long.class)
+			return new LongColumn(column, capacity);
+		if (type == double.class || type == float.class
+				|| type == Double.class || type == Float.class)
+			return new DoubleColumn(column, capacity);
+		if (type == boolean.class || type == Boolean.class)
+			return new BooleanColumn(column, capacity);
+		if (type == String.class)
+			return new StringColumn(column, capacity);
+		if (type == Date.class)
+			return new DateColumn(column, capacity);
+		return new ObjectColumn(column, capacity);
+	}
+
+	public EntityMetadata getMetadata() {
+		return metadata;
+	}
+
+	/**
+	 * Quantidade de linhas (entidades) adicionadas
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Copia os valores da entidade para uma nova linha.
+	 *
+	 * @throws IllegalArgumentException
+	 *             caso a entidade nao seja da classe do buffer
+	 */
+	public void add(Object entity) throws InvocationTargetException {
+		if (entity.getClass() != metadata.getEntityClass())
+			throw new IllegalArgumentException(entity.getClass().getName());
+		if (size == capacity) {
+			capacity *= 2;
+			for (Column column : columns)
+				column.grow(capacity);
+		}
+		try {
+			for (Column column : columns) {
+				column.nulls.clear(size);
+				column.read(entity, size);
+			}
+		} catch (InvocationTargetException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new InvocationTargetException(e);
+		}
+		size++;
+	}
+
+	/**
+	 * Descarta as linhas, mantendo os vetores para reutilizacao.
+	 */
+	public void clear() {
+		for (Column column : columns)
+			column.clear();
+		size = 0;
+	}
+
+	/**
+	 * Valor da coluna na linha informada (convertido para objeto)
+	 */
+	public Object getValue(int row, ColumnMetadata column) {
+		Column values = getColumn(row, column);
+		return values.nulls.get(row) ? null : values.get(row);
+	}
+
+	private Column getColumn(int row, ColumnMetadata column) {
+		if (row < 0 || row >= size)
+			throw new IndexOutOfBoundsException(String.valueOf(row));
+		return columns[column.getIndex()];
+	}
+
+	/**
+	 * Passa os valores da linha para os parametros do comando, na ordem de
+	 * {@link SQLTemplate#getParameters()}.
+	 */
+	public void bind(PreparedStatement statement, SQLTemplate template,
+			int row) throws SQLException {
+		int index = 1;
+		for (ColumnMetadata parameter : template.getParameters()) {
+			Column column = getColumn(row, parameter);
+			if (column.nulls.get(row))
+				statement.setNull(index, parameter.getSqlType());
+			else
+				column.bind(statement, index, row);
+			index++;
+		}
+	}
+
+	/**
+	 * Adiciona em <code>result</code> o literal SQL do valor da coluna.
+	 */
+	public void appendValue(SQLGenerator generator, int row,
+			ColumnMetadata column, StringBuilder result) {
+		Column values = getColumn(row, column);
+		if (values.nulls.get(row))
+			generator.appendValue(result, (Object) null);
+		else
+			values.append(generator, result, row);
+	}
+
+	/**
+	 * Adiciona o INSERT da linha informada. Ex.:
+	 * <code>INSERT INTO cliente (codigo,nome) VALUES(1,'Maria')</code>
+	 */
+	public void appendInsertCommand(SQLGenerator generator, int row,
+			StringBuilder result) {
+		result.append("INSERT INTO ").append(metadata.getTableName())
+				.append(" (").append(metadata.getInsertColumnList())
+				.append(") VALUES(");
+		boolean started = false;
+		for (ColumnMetadata column : metadata.getInsertColumns()) {
+			if (started)
+				result.append(',');
+			appendValue(generator, row, column, result);
+			started = true;
+		}
+		result.append(')');
+	}
+
+	private abstract static class Column {
+		final ColumnMetadata metadata;
+		final BitSet nulls = new BitSet();
+
+		Column(ColumnMetadata metadata) {
+			this.metadata = metadata;
+		}
+
+		/**
+		 * Le o valor da entidade, marcando <code>nulls</code> quando null
+		 */
+		abstract void read(Object entity, int row) throws Throwable;
+
+		abstract Object get(int row);
+
+		abstract void bind(PreparedStatement statement, int index, int row)
+				throws SQLException;
+
+		abstract void append(SQLGenerator generator, StringBuilder result,
+				int row);
+
+		abstract void grow(int capacity);
+
+		void clear() {
+			nulls.clear();
+		}
+
+		/**
+		 * <code>MethodHandle</code> do tipo <code>(Object)type</code>, com
+		 * conversao de primitivos menores (ex.: short -&gt; int)
+		 */
+		MethodHandle getter(Class<?> type) {
+			return metadata.getAccessor().getTypedGetter()
+					.asType(MethodType.methodType(type, Object.class));
+		}
+
+		Object getBoxed(Object entity, int row) throws Throwable {
+			Object value = metadata.getAccessor().get(entity);
+			if (value == null)
+				nulls.set(row);
+			return value;
+		}
+	}
+
+	/**
+	 * int, short, byte, char e os respectivos objetos
+	 */
+	private static class IntColumn extends Column {
+		final Class<?> type;
+		final MethodHandle getter;
+		int[] values;
+
+		IntColumn(ColumnMetadata metadata, int capacity) {
+			super(metadata);
+			this.type = metadata.getType();
+			this.getter = type.isPrimitive() ? getter(int.class) : null;
+			this.values = new int[capacity];
+		}
+
+		@Override
+		void read(Object entity, int row) throws Throwable {
+			if (getter != null)
+				values[row] = (int) getter.invokeExact(entity);
+			else {
+				Object value = getBoxed(entity, row);
+				values[row] = value == null ? 0 : ((Number) value).intValue();
+			}
+		}
+
+		@Override
+		Object get(int row) {
+			int value = values[row];
+			if (type == char.class)
+				return Character.valueOf((char) value);
+			if (type == short.class || type == Short.class)
+				return Short.valueOf((short) value);
+			if (type == byte.class || type == Byte.class)
+				return Byte.valueOf((byte) value);
+			return Integer.valueOf(value);
+		}
+
+		@Override
+		void bind(PreparedStatement statement, int index, int row)
+				throws SQLException {
+			int value = values[row];
+			if (type == char.class)
+				statement.setString(index, String.valueOf((char) value));
+			else if (type == short.class || type == Short.class)
+				statement.setShort(index, (short) value);
+			else if (type == byte.class || type == Byte.class)
+				statement.setByte(index, (byte) value);
+			else
+				statement.setInt(index, value);
+		}
+
+		@Override
+		void append(SQLGenerator generator, StringBuilder result, int row) {
+			if (type == char.class)
+				generator.appendValue(result, (char) values[row]);
+			else
+				generator.appendValue(result, values[row]);
+		}
+
+		@Override
+		void grow(int capacity) {
+			values = Arrays.copyOf(values, capacity);
+		}
+	}
+
+	private static class LongColumn extends Column {
+		final MethodHandle getter;
+		long[] values;
+
+		LongColumn(ColumnMetadata metadata, int capacity) {
+			super(metadata);
+			this.getter = metadata.getType().isPrimitive() ? getter(long.class)
+					: null;
+			this.values = new long[capacity];
+		}
+
+		@Override
+		void read(Object entity, int row) throws Throwable {
+			if (getter != null)
+				values[row] = (long) getter.invokeExact(entity);
+			else {
+				Object value = getBoxed(entity, row);
+				values[row] = value == null ? 0 : ((Number) value)
+						.longValue();
+			}
+		}
+
+		@Override
+		Object get(int row) {
+			return Long.valueOf(values[row]);
+		}
+
+		@Override
+		void bind(PreparedStatement statement, int index, int row)
+				throws SQLException {
+			statement.setLong(index, values[row]);
+		}
+
+		@Override
+		void append(SQLGenerator generator, StringBuilder result, int row) {
+			generator.appendValue(result, values[row]);
+		}
+
+		@Override
+		void grow(int capacity) {
+			values = Arrays.copyOf(values, capacity);
+		}
+	}
+
+	/**
+	 * java.util.Date em milissegundos
+	 */
+	private static class DateColumn extends LongColumn {
+
+		DateColumn(ColumnMetadata metadata, int capacity) {
+			super(metadata, capacity);
+		}
+
+		@Override
+		void read(Object entity, int row) throws Throwable {
+			Object value = getBoxed(entity, row);
+			values[row] = value == null ? 0 : ((Date) value).getTime();
+		}
+
+		@Override
+		Object get(int row) {
+			return new Date(values[row]);
+		}
+
+		@Override
+		void bind(PreparedStatement statement, int index, int row)
+				throws SQLException {
+			statement.setTimestamp(index, new Timestamp(values[row]));
+		}
+
+		@Override
+		void append(SQLGenerator generator, StringBuilder result, int row) {
+			generator.appendValue(result, get(row));
+		}
+	}
+
+	/**
+	 * double, float e os respectivos objetos
+	 */
+	private static class DoubleColumn extends Column {
+		final boolean single;
+		final MethodHandle getter;
+		double[] values;
+
+		DoubleColumn(ColumnMetadata metadata, int capacity) {
+			super(metadata);
+			Class<?> type = metadata.getType();
+			this.single = type == float.class || type == Float.class;
+			this.getter = type.isPrimitive() ? getter(double.class) : null;
+			this.values = new double[capacity];
+		}
+
+		@Override
+		void read(Object entity, int row) throws Throwable {
+			if (getter != null)
+				values[row] = (double) getter.invokeExact(entity);
+			else {
+				Object value = getBoxed(entity, row);
+				values[row] = value == null ? 0 : ((Number) value)
+						.doubleValue();
+			}
+		}
+
+		@Override
+		Object get(int row) {
+			return single ? (Object) Float.valueOf((float) values[row])
+					: Double.valueOf(values[row]);
+		}
+
+		@Override
+		void bind(PreparedStatement statement, int index, int row)
+				throws SQLException {
+			if (single)
+				statement.setFloat(index, (float) values[row]);
+			else
+				statement.setDouble(index, values[row]);
+		}
+
+		@Override
+		void append(SQLGenerator generator, StringBuilder result, int row) {
+			if (single)
+				generator.appendValue(result, (float) values[row]);
+			else
+				generator.appendValue(result, values[row]);
+		}
+
+		@Override
+		void grow(int capacity) {
+			values = Arrays.copyOf(values, capacity);
+		}
+	}
+
+	private static class BooleanColumn extends Column {
+		final MethodHandle getter;
+		boolean[] values;
+
+		BooleanColumn(ColumnMetadata metadata, int capacity) {
+			super(metadata);
+			this.getter = metadata.getType().isPrimitive() ? getter(boolean.class)
+					: null;
+			this.values = new boolean[capacity];
+		}
+
+		@Override
+		void read(Object entity, int row) throws Throwable {
+			if (getter != null)
+				values[row] = (boolean) getter.invokeExact(entity);
+			else {
+				Object value = getBoxed(entity, row);
+				values[row] = value != null && ((Boolean) value).booleanValue();
+			}
+		}
+
+		@Override
+		Object get(int row) {
+			return Boolean.valueOf(values[row]);
+		}
+
+		@Override
+		void bind(PreparedStatement statement, int index, int row)
+				throws SQLException {
+			statement.setBoolean(index, values[row]);
+		}
+
+		@Override
+		void append(SQLGenerator generator, StringBuilder result, int row) {
+			generator.appendValue(result, values[row]);
+		}
+
+		@Override
+		void grow(int capacity) {
+			values = Arrays.copyOf(values, capacity);
+		}
+	}
+
+	/**
+	 * Todos os textos em um unico buffer; <code>ends[i]</code> e a posicao
+	 * final do texto da linha i (o inicio e o final da linha anterior).
+	 */
+	private static class StringColumn extends Column {
+		final StringBuilder chars = new StringBuilder();
+		int[] ends;
+
+		StringColumn(ColumnMetadata metadata, int capacity) {
+			super(metadata);
+			this.ends = new int[capacity];
+		}
+
+		@Override
+		void read(Object entity, int row) throws Throwable {
+			int start = row == 0 ? 0 : ends[row - 1];
+			// descarta o texto de uma leitura anterior que falhou
+			chars.setLength(start);
+			Object value = getBoxed(entity, row);
+			if (value != null)
+				chars.append((String) value);
+			ends[row] = chars.length();
+		}
+
+		@Override
+		Object get(int row) {
+			return chars.substring(row == 0 ? 0 : ends[row - 1], ends[row]);
+		}
+
+		@Override
+		void bind(PreparedStatement statement, int index, int row)
+				throws SQLException {
+			statement.setString(index, (String) get(row));
+		}
+
+		@Override
+		void append(SQLGenerator generator, StringBuilder result, int row) {
+			generator.appendValue(result, get(row));
+		}
+
+		@Override
+		void grow(int capacity) {
+			ends = Arrays.copyOf(ends, capacity);
+		}
+
+		@Override
+		void clear() {
+			super.clear();
+			chars.setLength(0);
+		}
+	}
+
+	private static class ObjectColumn extends Column {
+		Object[] values;
+
+		ObjectColumn(ColumnMetadata metadata, int capacity) {
+			super(metadata);
+			this.values = new Object[capacity];
+		}
+
+		@Override
+		void read(Object entity, int row) throws Throwable {
+			values[row] = getBoxed(entity, row);
+		}
+
+		@Override
+		Object get(int row) {
+			return values[row];
+		}
+
+		@Override
+		void bind(PreparedStatement statement, int index, int row)
+				throws SQLException {
+			JdbcTypes.bind(statement, index, values[row],
+					metadata.getSqlType());
+		}
+
+		@Override
+		void append(SQLGenerator generator, StringBuilder result, int row) {
+			generator.appendValue(result, values[row]);
+		}
+
+		@Override
+		void grow(int capacity) {
+			values = Arrays.copyOf(values, capacity);
+		}
+
+		@Override
+		void clear() {
+			super.clear();
+			Arrays.fill(values, null);
+		}
+	}
+}
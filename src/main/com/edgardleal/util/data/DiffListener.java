@@ -0,0 +1,34 @@
+package com.edgardleal.util.data;
+
+import java.util.List;
+
+/**
+ * Recebe as diferencas encontradas pelo {@link EntityDiff}.
+ *
+ * @author Edgard Leal
+ */
+public interface DiffListener<T> {
+
+	/**
+	 * Entidade que existe somente na colecao desejada
+	 */
+	void inserted(T entity) throws Exception;
+
+	/**
+	 * Entidade que existe nas duas colecoes, com valores diferentes.
+	 *
+	 * @param current
+	 *            entidade da colecao atual
+	 * @param desired
+	 *            entidade da colecao desejada
+	 * @param changedColumns
+	 *            colunas (exceto as chaves) com valores diferentes
+	 */
+	void updated(T current, T desired, List<ColumnMetadata> changedColumns)
+			throws Exception;
+
+	/**
+	 * Entidade que existe somente na colecao atual
+	 */
+	void deleted(T entity) throws Exception;
+}
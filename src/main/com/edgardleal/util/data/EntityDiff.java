@@ -0,0 +1,299 @@
+package com.edgardleal.util.data;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compara a colecao atual (ex.: o que a tabela possui) com a colecao desejada
+ * (ex.: o que a origem informa) e gera somente as diferencas: INSERT das
+ * entidades novas, UPDATE das colunas alteradas e DELETE das entidades que
+ * deixaram de existir.<br>
+ * As entidades sao relacionadas pela sua {@link EntityKey}. Para cada
+ * entidade e calculado um hash de 64 bits das colunas que nao sao chave;
+ * entidades com o mesmo hash sao consideradas iguais e somente as demais
+ * sao comparadas coluna a coluna.<br>
+ * {@link #compare(Iterable, Iterable, DiffListener)} guarda a colecao atual
+ * em memoria; quando as duas colecoes estao ordenadas pela chave,
+ * {@link #compareSorted(Iterator, Iterator, DiffListener)} percorre ambas ao
+ * mesmo tempo, sem guardar nada.<br>
+ * Ex.:<br>
+ * <code>
+ * EntityDiff&lt;Cliente&gt; diff = new EntityDiff&lt;Cliente&gt;(Cliente.class);<br>
+ * diff.compare(clientesDaTabela, clientesDaOrigem, EntityDiff.toScript(writer));
+ * </code>
+ *
+ * @author Edgard Leal
+ */
+public class EntityDiff<T> {
+	private static final long PRIME = 0x100000001b3L;
+	private static final long NULL_HASH = 0x9e3779b97f4a7c15L;
+
+	private final EntityMetadata metadata;
+	private final List<ColumnMetadata> columns;
+	private int inserts;
+	private int updates;
+	private int deletes;
+
+	public EntityDiff(Class<T> type) {
+		this.metadata = EntityMetadata.of(type);
+		if (metadata.getKeyColumns().isEmpty())
+			throw new IllegalArgumentException(type.getName()
+					+ " nao possui @Id");
+		this.columns = metadata.getUpdateColumns();
+	}
+
+	/**
+	 * Compara as colecoes guardando a atual em memoria. As exclusoes sao
+	 * informadas por ultimo, na ordem da colecao atual.
+	 *
+	 * @param current
+	 *            colecao atual
+	 * @param desired
+	 *            colecao desejada
+	 * @param listener
+	 *            recebe as diferencas
+	 * @throws IllegalArgumentException
+	 *             caso uma colecao possua chaves repetidas
+	 */
+	public void compare(Iterable<? extends T> current,
+			Iterable<? extends T> desired, DiffListener<? super T> listener)
+			throws Exception {
+		Map<EntityKey, Row<T>> rows = new LinkedHashMap<EntityKey, Row<T>>();
+		for (T entity : current)
+			if (rows.put(EntityKey.of(entity), new Row<T>(entity,
+					getHash(entity))) != null)
+				throw new IllegalArgumentException("Chave repetida: "
+						+ EntityKey.of(entity));
+		for (T entity : desired) {
+			EntityKey key = EntityKey.of(entity);
+			Row<T> row = rows.get(key);
+			if (row == null) {
+				// guardada somente para identificar chaves repetidas
+				row = new Row<T>(null, 0L);
+				row.matched = true;
+				rows.put(key, row);
+				inserts++;
+				listener.inserted(entity);
+				continue;
+			}
+			if (row.matched)
+				throw new IllegalArgumentException("Chave repetida: " + key);
+			row.matched = true;
+			if (row.entity != null && row.hash != getHash(entity))
+				update(row.entity, entity, listener);
+		}
+		for (Row<T> row : rows.values())
+			if (!row.matched) {
+				deletes++;
+				listener.deleted(row.entity);
+			}
+	}
+
+	/**
+	 * Compara as colecoes percorrendo ambas ao mesmo tempo. As duas devem
+	 * estar em ordem crescente pelas colunas <code>@Id</code> (na ordem de
+	 * declaracao), como em <code>ORDER BY</code> das chaves.
+	 *
+	 * @throws IllegalArgumentException
+	 *             caso uma colecao esteja fora de ordem ou possua chaves
+	 *             repetidas
+	 */
+	public void compareSorted(Iterator<? extends T> current,
+			Iterator<? extends T> desired, DiffListener<? super T> listener)
+			throws Exception {
+		T a = next(current);
+		T b = next(desired);
+		EntityKey keyA = key(a, null);
+		EntityKey keyB = key(b, null);
+		while (a != null || b != null) {
+			int comparison = a == null ? 1 : b == null ? -1 : compare(keyA,
+					keyB);
+			if (comparison < 0) {
+				deletes++;
+				listener.deleted(a);
+			} else if (comparison > 0) {
+				inserts++;
+				listener.inserted(b);
+			} else if (getHash(a) != getHash(b))
+				update(a, b, listener);
+			if (comparison <= 0) {
+				a = next(current);
+				keyA = key(a, keyA);
+			}
+			if (comparison >= 0) {
+				b = next(desired);
+				keyB = key(b, keyB);
+			}
+		}
+	}
+
+	private T next(Iterator<? extends T> iterator) {
+		return iterator.hasNext() ? iterator.next() : null;
+	}
+
+	/**
+	 * Chave da entidade, verificando se e maior que a anterior
+	 */
+	private EntityKey key(T entity, EntityKey previous)
+			throws InvocationTargetException {
+		if (entity == null)
+			return null;
+		EntityKey key = EntityKey.of(entity);
+		if (previous != null && compare(previous, key) >= 0)
+			throw new IllegalArgumentException(
+					"Colecao fora de ordem ou com chave repetida: " + key);
+		return key;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static int compare(EntityKey a, EntityKey b) {
+		for (int i = 0; i < a.size(); i++) {
+			Comparable x = (Comparable) a.getValue(i);
+			Object y = b.getValue(i);
+			if (x == y)
+				continue;
+			if (x == null)
+				return -1;
+			if (y == null)
+				return 1;
+			int result = x.compareTo(y);
+			if (result != 0)
+				return result;
+		}
+		return 0;
+	}
+
+	private void update(T current, T desired, DiffListener<? super T> listener)
+			throws Exception {
+		List<ColumnMetadata> changed = new ArrayList<ColumnMetadata>();
+		for (ColumnMetadata column : columns)
+			if (!EntitySnapshot.isEqual(column.getValue(current),
+					column.getValue(desired)))
+				changed.add(column);
+		if (changed.isEmpty())
+			return;
+		updates++;
+		listener.updated(current, desired, changed);
+	}
+
+	/**
+	 * Hash de 64 bits dos valores das colunas que nao sao chave. Textos,
+	 * numeros e datas sao calculados com 64 bits; os demais tipos utilizam
+	 * <code>hashCode()</code>.
+	 */
+	public long getHash(Object entity) throws InvocationTargetException {
+		long result = 0;
+		for (ColumnMetadata column : columns)
+			result = (result ^ hash(column.getValue(entity))) * PRIME;
+		return result;
+	}
+
+	private static long hash(Object value) {
+		if (value == null)
+			return NULL_HASH;
+		if (value instanceof String) {
+			String text = (String) value;
+			long result = text.length();
+			for (int i = 0; i < text.length(); i++)
+				result = (result ^ text.charAt(i)) * PRIME;
+			return result;
+		}
+		if (value instanceof Double || value instanceof Float)
+			return Double.doubleToLongBits(((Number) value).doubleValue());
+		if (value instanceof Long || value instanceof Integer
+				|| value instanceof Short || value instanceof Byte)
+			return ((Number) value).longValue();
+		if (value instanceof Date)
+			return ((Date) value).getTime();
+		if (value instanceof byte[])
+			return Arrays.hashCode((byte[]) value);
+		return value.hashCode();
+	}
+
+	/**
+	 * Quantidade de INSERTs informados desde a criacao
+	 */
+	public int getInserts() {
+		return inserts;
+	}
+
+	/**
+	 * Quantidade de UPDATEs informados desde a criacao
+	 */
+	public int getUpdates() {
+		return updates;
+	}
+
+	/**
+	 * Quantidade de DELETEs informados desde a criacao
+	 */
+	public int getDeletes() {
+		return deletes;
+	}
+
+	/**
+	 * Escreve as diferencas no script; os UPDATEs contem somente as colunas
+	 * alteradas.
+	 */
+	public static DiffListener<Object> toScript(final SQLScriptWriter writer) {
+		return new DiffListener<Object>() {
+			@Override
+			public void inserted(Object entity) throws Exception {
+				writer.writeInsert(entity);
+			}
+
+			@Override
+			public void updated(Object current, Object desired,
+					List<ColumnMetadata> changedColumns) throws Exception {
+				writer.writeUpdate(desired, changedColumns);
+			}
+
+			@Override
+			public void deleted(Object entity) throws Exception {
+				writer.writeDelete(entity);
+			}
+		};
+	}
+
+	/**
+	 * Envia as diferencas para o {@link BatchWriter}. Os UPDATEs em lote
+	 * utilizam todas as colunas, ja que o comando preparado e o mesmo para
+	 * todas as entidades.
+	 */
+	public static DiffListener<Object> toBatch(final BatchWriter writer) {
+		return new DiffListener<Object>() {
+			@Override
+			public void inserted(Object entity) throws Exception {
+				writer.insert(entity);
+			}
+
+			@Override
+			public void updated(Object current, Object desired,
+					List<ColumnMetadata> changedColumns) throws Exception {
+				writer.update(desired);
+			}
+
+			@Override
+			public void deleted(Object entity) throws Exception {
+				writer.delete(entity);
+			}
+		};
+	}
+
+	private static class Row<T> {
+		final T entity;
+		final long hash;
+		boolean matched;
+
+		Row(T entity, long hash) {
+			this.entity = entity;
+			this.hash = hash;
+		}
+	}
+}
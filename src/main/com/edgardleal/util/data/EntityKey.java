@@ -0,0 +1,172 @@
+package com.edgardleal.util.data;
+
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Identidade de uma entidade: a classe e os valores das colunas
+ * <code>@Id</code> (uma ou mais). Duas instancias diferentes que representam
+ * o mesmo registro possuem chaves iguais.<br>
+ * Ex.: <code>EntityKey.of(cliente).equals(EntityKey.of(Cliente.class, 10))</code>
+ *
+ * @author Edgard Leal
+ */
+public final class EntityKey {
+	private final Class<?> type;
+	private final Object[] values;
+	private final int hash;
+	private final boolean assigned;
+
+	private EntityKey(Class<?> type, List<ColumnMetadata> keys,
+			Object[] values) {
+		this.type = type;
+		this.values = values;
+		this.hash = type.hashCode() * 31 + Arrays.deepHashCode(values);
+		this.assigned = isAssigned(keys, values);
+	}
+
+	/**
+	 * Uma coluna <code>@GeneratedValue</code> com <code>null</code> (ou zero,
+	 * em atributos primitivos) ainda nao recebeu o valor do banco.
+	 */
+	private static boolean isAssigned(List<ColumnMetadata> keys,
+			Object[] values) {
+		for (int i = 0; i < values.length; i++) {
+			ColumnMetadata column = keys.get(i);
+			if (!column.isGenerated())
+				continue;
+			Object value = values[i];
+			if (value == null
+					|| (column.getType().isPrimitive()
+							&& value instanceof Number && ((Number) value)
+							.doubleValue() == 0))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Chave da entidade informada.
+	 *
+	 * @throws IllegalArgumentException
+	 *             caso a classe nao possua <code>@Id</code>
+	 */
+	public static EntityKey of(Object entity) throws InvocationTargetException {
+		List<ColumnMetadata> keys = getKeyColumns(entity.getClass());
+		Object[] values = new Object[keys.size()];
+		for (int i = 0; i < values.length; i++)
+			values[i] = keys.get(i).getValue(entity);
+		return new EntityKey(entity.getClass(), keys, values);
+	}
+
+	/**
+	 * Chave formada pelos valores informados, na ordem de declaracao das
+	 * colunas <code>@Id</code>. Valores numericos sao convertidos para o tipo
+	 * do atributo; assim <code>EntityKey.of(Cliente.class, 10L)</code> e igual
+	 * a chave de um cliente com <code>int codigo = 10</code>.
+	 *
+	 * @throws IllegalArgumentException
+	 *             caso a quantidade de valores seja diferente da quantidade de
+	 *             colunas <code>@Id</code> ou algum valor nao caiba no tipo do
+	 *             atributo
+	 */
+	public static EntityKey of(Class<?> type, Object... values) {
+		List<ColumnMetadata> keys = getKeyColumns(type);
+		if (keys.size() != values.length)
+			throw new IllegalArgumentException(type.getName() + " possui "
+					+ keys.size() + " coluna(s) @Id");
+		Object[] converted = new Object[values.length];
+		for (int i = 0; i < values.length; i++)
+			converted[i] = convert(values[i], keys.get(i));
+		return new EntityKey(type, keys, converted);
+	}
+
+	private static Object convert(Object value, ColumnMetadata column) {
+		if (!(value instanceof Number))
+			return value;
+		Number number = (Number) value;
+		Class<?> type = column.getType();
+		Object result;
+		if (type == int.class || type == Integer.class)
+			result = number.intValue();
+		else if (type == long.class || type == Long.class)
+			result = number.longValue();
+		else if (type == short.class || type == Short.class)
+			result = number.shortValue();
+		else if (type == byte.class || type == Byte.class)
+			result = number.byteValue();
+		else if (type == double.class || type == Double.class)
+			result = number.doubleValue();
+		else if (type == float.class || type == Float.class)
+			result = number.floatValue();
+		else if (type == BigDecimal.class)
+			result = value instanceof BigDecimal ? value : new BigDecimal(
+					number.toString());
+		else if (type == BigInteger.class)
+			result = value instanceof BigInteger ? value : BigInteger
+					.valueOf(number.longValue());
+		else
+			return value;
+		if (((Number) result).doubleValue() != number.doubleValue())
+			throw new IllegalArgumentException(value
+					+ " nao e um valor valido para " + column.getName());
+		return result;
+	}
+
+	private static List<ColumnMetadata> getKeyColumns(Class<?> type) {
+		List<ColumnMetadata> keys = EntityMetadata.of(type).getKeyColumns();
+		if (keys.isEmpty())
+			throw new IllegalArgumentException(type.getName()
+					+ " nao possui @Id");
+		return keys;
+	}
+
+	public Class<?> getType() {
+		return type;
+	}
+
+	/**
+	 * Valor da coluna <code>@Id</code> na posicao informada
+	 */
+	public Object getValue(int index) {
+		return values[index];
+	}
+
+	/**
+	 * Indica se os valores das colunas <code>@GeneratedValue</code> ja foram
+	 * atribuidos. Entidades novas, ainda sem chave, possuem chaves iguais
+	 * (ex.: <code>GuineaPigModel[0]</code>) embora representem registros
+	 * diferentes; nesse caso a chave nao identifica a entidade.
+	 */
+	public boolean isAssigned() {
+		return assigned;
+	}
+
+	public int size() {
+		return values.length;
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof EntityKey))
+			return false;
+		EntityKey other = (EntityKey) obj;
+		return hash == other.hash && type.equals(other.type)
+				&& Arrays.deepEquals(values, other.values);
+	}
+
+	@Override
+	public String toString() {
+		return type.getSimpleName() + Arrays.deepToString(values);
+	}
+}
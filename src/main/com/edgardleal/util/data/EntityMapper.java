@@ -0,0 +1,71 @@
+package com.edgardleal.util.data;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Mapeador de uma entidade, gerado em tempo de compilacao pelo processador de
+ * anotacoes (modulo <code>processor</code>) a partir das mesmas anotacoes lidas
+ * pelo {@link SQLGenerator} (<code>@Table</code>, <code>@Id</code> e
+ * <code>@GeneratedValue</code>).<br>
+ * O mapeador chama diretamente os metodos get da entidade, sem reflexao. O
+ * {@link SQLGenerator} utiliza o mapeador sempre que a classe
+ * <code>&lt;Entidade&gt;SQLMapper</code> existir no mesmo pacote da entidade
+ * (ver {@link EntityMappers}).<br>
+ * Os comandos gerados devem ser identicos aos do {@link SQLGenerator} e os
+ * parametros devem seguir a ordem dos comandos de {@link SQLTemplate}.
+ *
+ * @author Edgard Leal
+ */
+public interface EntityMapper<T> {
+	/**
+	 * Sufixo do nome da classe gerada. Ex.: ClienteSQLMapper
+	 */
+	String SUFFIX = "SQLMapper";
+
+	/**
+	 * Colunas na ordem de declaracao dos atributos no codigo fonte, que define
+	 * a ordem dos comandos e dos parametros do mapeador. O mapeador so e
+	 * utilizado quando a ordem e igual a de {@link EntityMetadata#getColumns()}
+	 * (ver {@link EntityMappers}).
+	 */
+	String[] getColumnNames();
+
+	/**
+	 * "INSERT INTO tabela (a,b) VALUES(1,'x')"
+	 */
+	void appendInsertCommand(SQLGenerator generator, T entity,
+			StringBuilder result);
+
+	/**
+	 * "(1,'x')", utilizado nos INSERT com varias linhas
+	 */
+	void appendInsertValues(SQLGenerator generator, T entity,
+			StringBuilder result);
+
+	/**
+	 * "UPDATE tabela SET b = 'x' WHERE a = 1"
+	 */
+	void appendUpdate(SQLGenerator generator, T entity, StringBuilder result);
+
+	/**
+	 * "DELETE FROM tabela WHERE a = 1"
+	 */
+	void appendDeleteCommand(SQLGenerator generator, T entity,
+			StringBuilder result);
+
+	/**
+	 * Parametros de {@link SQLGenerator#getInsertTemplate(Class)}
+	 */
+	void bindInsert(PreparedStatement statement, T entity) throws SQLException;
+
+	/**
+	 * Parametros de {@link SQLGenerator#getUpdateTemplate(Class)}
+	 */
+	void bindUpdate(PreparedStatement statement, T entity) throws SQLException;
+
+	/**
+	 * Parametros de {@link SQLGenerator#getDeleteTemplate(Class)}
+	 */
+	void bindDelete(PreparedStatement statement, T entity) throws SQLException;
+}
@@ -0,0 +1,98 @@
+package com.edgardleal.util.data;
+
+import java.util.List;
+
+/**
+ * Registro dos {@link EntityMapper} gerados em tempo de compilacao. A busca
+ * pela classe <code>&lt;Entidade&gt;SQLMapper</code> e feita uma unica vez por
+ * classe de entidade.<br>
+ * O mapeador segue a ordem dos atributos no codigo fonte, enquanto
+ * {@link SQLTemplate} segue a ordem de <code>getDeclaredFields()</code>, que
+ * nao e garantida pela JVM. Quando as colunas do mapeador
+ * ({@link EntityMapper#getColumnNames()}) nao estao na mesma ordem de
+ * {@link EntityMetadata#getColumns()}, o mapeador e ignorado e a entidade e
+ * tratada por reflexao.
+ *
+ * @author Edgard Leal
+ */
+public final class EntityMappers {
+	private static final ClassValue<Holder> REGISTRY = new ClassValue<Holder>() {
+		@Override
+		protected Holder computeValue(Class<?> type) {
+			return new Holder(load(type));
+		}
+	};
+
+	private EntityMappers() {
+
+	}
+
+	/**
+	 * Retorna o mapeador gerado para a classe informada ou <code>null</code>
+	 * caso ele nao exista.
+	 *
+	 * @throws IllegalStateException
+	 *             caso o mapeador exista mas nao possa ser criado (ex.:
+	 *             construtor lancou uma excecao)
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> EntityMapper<T> find(Class<T> type) {
+		return (EntityMapper<T>) REGISTRY.get(type).mapper;
+	}
+
+	@SuppressWarnings("unchecked")
+	static EntityMapper<Object> forObject(Object entity) {
+		return (EntityMapper<Object>) REGISTRY.get(entity.getClass()).mapper;
+	}
+
+	/**
+	 * Nome da classe gerada para a entidade. Classes internas tem o "$"
+	 * substituido por "_". Ex.: com.exemplo.Pedido$Item ->
+	 * com.exemplo.Pedido_ItemSQLMapper
+	 */
+	public static String getMapperName(Class<?> type) {
+		return type.getName().replace('$', '_') + EntityMapper.SUFFIX;
+	}
+
+	/**
+	 * @throws IllegalStateException
+	 *             caso o mapeador exista mas nao possa ser criado
+	 */
+	private static EntityMapper<?> load(Class<?> type) {
+		String name = getMapperName(type);
+		try {
+			Class<?> mapperClass = Class.forName(name, true,
+					type.getClassLoader());
+			if (!EntityMapper.class.isAssignableFrom(mapperClass))
+				return null;
+			EntityMapper<?> mapper = (EntityMapper<?>) mapperClass
+					.getDeclaredConstructor().newInstance();
+			return hasSameColumns(mapper, EntityMetadata.of(type)) ? mapper
+					: null;
+		} catch (ClassNotFoundException e) {
+			return null;
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Erro ao criar " + name, e);
+		}
+	}
+
+	private static boolean hasSameColumns(EntityMapper<?> mapper,
+			EntityMetadata metadata) {
+		String[] names = mapper.getColumnNames();
+		List<ColumnMetadata> columns = metadata.getColumns();
+		if (names.length != columns.size())
+			return false;
+		for (int i = 0; i < names.length; i++)
+			if (!names[i].equals(columns.get(i).getName()))
+				return false;
+		return true;
+	}
+
+	private static class Holder {
+		final EntityMapper<?> mapper;
+
+		Holder(EntityMapper<?> mapper) {
+			this.mapper = mapper;
+		}
+	}
+}
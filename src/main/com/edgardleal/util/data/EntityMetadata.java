@@ -0,0 +1,179 @@
+package com.edgardleal.util.data;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.Table;
+
+import com.edgardleal.util.Str;
+
+/**
+ * Contem os metadados de uma entidade: lista de colunas, colunas chave (
+ * <code>@Id</code>), colunas geradas (<code>@GeneratedValue</code>) e o nome
+ * qualificado da tabela (<code>@Table</code>).<br>
+ * Os metadados sao resolvidos uma unica vez por classe e mantidos em um
+ * registro (<code>ClassValue</code>), evitando reflexao a cada comando gerado.<br>
+ * Ex.: <code>EntityMetadata.of(Cliente.class).getTableName();</code>
+ *
+ * @author Edgard Leal
+ */
+public class EntityMetadata {
+	private static final ClassValue<EntityMetadata> REGISTRY = new ClassValue<EntityMetadata>() {
+		@Override
+		protected EntityMetadata computeValue(Class<?> type) {
+			return new EntityMetadata(type);
+		}
+	};
+
+	private final Class<?> entityClass;
+	private final String tableName;
+	private final List<ColumnMetadata> columns;
+	private final List<ColumnMetadata> keyColumns;
+	private final List<ColumnMetadata> generatedColumns;
+	private final List<ColumnMetadata> insertColumns;
+	private final List<ColumnMetadata> updateColumns;
+	private final Map<String, ColumnMetadata> columnsByName;
+	private final String insertColumnList;
+	private final String columnList;
+
+	/**
+	 * Retorna os metadados da classe informada, resolvendo-os apenas na
+	 * primeira chamada.
+	 *
+	 * @param type
+	 * @return
+	 */
+	public static EntityMetadata of(Class<?> type) {
+		return REGISTRY.get(type);
+	}
+
+	private EntityMetadata(Class<?> type) {
+		List<ColumnMetadata> all = new ArrayList<ColumnMetadata>();
+		List<ColumnMetadata> keys = new ArrayList<ColumnMetadata>();
+		List<ColumnMetadata> generated = new ArrayList<ColumnMetadata>();
+		List<ColumnMetadata> insert = new ArrayList<ColumnMetadata>();
+		List<ColumnMetadata> update = new ArrayList<ColumnMetadata>();
+		Map<String, ColumnMetadata> byName = new HashMap<String, ColumnMetadata>();
+
+		for (Field field : type.getDeclaredFields()) {
+			if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic())
+				continue;
+			ColumnMetadata column = new ColumnMetadata(field, all.size());
+			all.add(column);
+			byName.put(column.getName(), column);
+			if (column.isId())
+				keys.add(column);
+			else
+				update.add(column);
+			if (column.isGenerated())
+				generated.add(column);
+			else
+				insert.add(column);
+		}
+
+		this.entityClass = type;
+		this.tableName = resolveTableName(type);
+		this.columns = Collections.unmodifiableList(all);
+		this.keyColumns = Collections.unmodifiableList(keys);
+		this.generatedColumns = Collections.unmodifiableList(generated);
+		this.insertColumns = Collections.unmodifiableList(insert);
+		this.updateColumns = Collections.unmodifiableList(update);
+		this.columnsByName = byName;
+		this.insertColumnList = join(insert);
+		this.columnList = join(all);
+	}
+
+	private static String resolveTableName(Class<?> type) {
+		String tableName = type.getSimpleName(), schemaName = Str.EMPTY;
+		if (type.isAnnotationPresent(Table.class)) {
+			Table table = type.getAnnotation(Table.class);
+			tableName = Str.ifNullOrEmpty(table.name(), tableName);
+			schemaName = table.schema();
+		}
+
+		return schemaName.equals(Str.EMPTY) ? tableName : Str.concat(
+				schemaName, ".", tableName);
+	}
+
+	static String join(List<ColumnMetadata> columns) {
+		StringBuilder result = new StringBuilder();
+		for (ColumnMetadata column : columns)
+			result.append(result.length() == 0 ? Str.EMPTY : ",").append(
+					column.getName());
+		return result.toString();
+	}
+
+	public Class<?> getEntityClass() {
+		return entityClass;
+	}
+
+	/**
+	 * Nome da tabela, precedido do schema quando informado em
+	 * <code>@Table</code>
+	 */
+	public String getTableName() {
+		return tableName;
+	}
+
+	/**
+	 * Todas as colunas, na ordem de declaracao dos atributos
+	 */
+	public List<ColumnMetadata> getColumns() {
+		return columns;
+	}
+
+	/**
+	 * Colunas anotadas com <code>@Id</code>
+	 */
+	public List<ColumnMetadata> getKeyColumns() {
+		return keyColumns;
+	}
+
+	/**
+	 * Colunas anotadas com <code>@GeneratedValue</code>
+	 */
+	public List<ColumnMetadata> getGeneratedColumns() {
+		return generatedColumns;
+	}
+
+	/**
+	 * Colunas utilizadas no INSERT (todas, exceto as geradas)
+	 */
+	public List<ColumnMetadata> getInsertColumns() {
+		return insertColumns;
+	}
+
+	/**
+	 * Colunas utilizadas no SET do UPDATE (todas, exceto as chaves)
+	 */
+	public List<ColumnMetadata> getUpdateColumns() {
+		return updateColumns;
+	}
+
+	/**
+	 * Lista das colunas do INSERT separadas por virgula. Ex.: "nome,cor"
+	 */
+	public String getInsertColumnList() {
+		return insertColumnList;
+	}
+
+	/**
+	 * Lista de todas as colunas separadas por virgula. Ex.: "codigo,nome,cor"
+	 */
+	public String getColumnList() {
+		return columnList;
+	}
+
+	/**
+	 * Retorna a coluna com o nome informado ou <code>null</code> caso nao
+	 * exista.
+	 */
+	public ColumnMetadata getColumn(String name) {
+		return columnsByName.get(name);
+	}
+}
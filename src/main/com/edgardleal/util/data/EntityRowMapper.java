@@ -0,0 +1,182 @@
+package com.edgardleal.util.data;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Converte linhas de um <code>ResultSet</code> em entidades.<br>
+ * A relacao entre as colunas do resultado (pelo label, sem diferenciar
+ * maiusculas e minusculas e ignorando "_") e os atributos da entidade e
+ * resolvida uma unica vez para cada formato de <code>ResultSetMetaData</code>
+ * e mantida em cache. Cada linha e lida pelo indice da coluna com o metodo get
+ * do tipo do atributo (<code>getInt</code>, <code>getDouble</code>, ...).
+ * Colunas sem atributo correspondente sao ignoradas.<br>
+ * A entidade deve ter um construtor sem parametros. Instancias desta classe
+ * podem ser compartilhadas entre threads.<br>
+ * Ex.:<br>
+ * <code>
+ * EntityRowMapper&lt;Cliente&gt; mapper = EntityRowMapper.of(Cliente.class);<br>
+ * while (rs.next())<br>
+ * &nbsp;&nbsp;clientes.add(mapper.mapRow(rs));
+ * </code>
+ *
+ * @author Edgard Leal
+ */
+public class EntityRowMapper<T> implements RowMapper<T> {
+	private static final ClassValue<EntityRowMapper<?>> REGISTRY = new ClassValue<EntityRowMapper<?>>() {
+		@Override
+		@SuppressWarnings("unchecked")
+		protected EntityRowMapper<?> computeValue(Class<?> type) {
+			return new EntityRowMapper<Object>((Class<Object>) type);
+		}
+	};
+
+	private final Class<T> type;
+	private final MethodHandle constructor;
+	private final Map<String, ColumnMetadata> columnsByLabel = new HashMap<String, ColumnMetadata>();
+	private final Map<String, Plan> plans = new ConcurrentHashMap<String, Plan>();
+	private volatile Bound last;
+
+	/**
+	 * Retorna o mapeador compartilhado da classe, criado na primeira chamada.
+	 * Os planos de leitura ficam disponiveis para todas as consultas da
+	 * mesma entidade.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> EntityRowMapper<T> of(Class<T> type) {
+		return (EntityRowMapper<T>) REGISTRY.get(type);
+	}
+
+	public EntityRowMapper(Class<T> type) {
+		this.type = type;
+		try {
+			Constructor<T> defaultConstructor = type.getDeclaredConstructor();
+			defaultConstructor.setAccessible(true);
+			this.constructor = MethodHandles.lookup()
+					.unreflectConstructor(defaultConstructor)
+					.asType(MethodType.methodType(Object.class));
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new IllegalArgumentException(type.getName()
+					+ " deve ter um construtor sem parametros", e);
+		}
+		for (ColumnMetadata column : EntityMetadata.of(type).getColumns())
+			if (column.getAccessor().isWritable()) {
+				columnsByLabel.put(normalize(column.getName()), column);
+				columnsByLabel.put(column.getName().toLowerCase(), column);
+			}
+	}
+
+	private static String normalize(String label) {
+		return label.toLowerCase().replace("_", "");
+	}
+
+	public Class<T> getType() {
+		return type;
+	}
+
+	@Override
+	public T mapRow(ResultSet rs) throws SQLException {
+		Plan plan = getPlan(rs);
+		T entity;
+		try {
+			entity = type.cast(constructor.invokeExact());
+		} catch (Throwable e) {
+			throw new SQLException("Erro ao criar " + type.getName(), e);
+		}
+		plan.populate(rs, entity);
+		return entity;
+	}
+
+	/**
+	 * Retorna o plano de leitura do <code>ResultSet</code>. O
+	 * <code>ResultSetMetaData</code> so e consultado quando o
+	 * <code>ResultSet</code> muda.
+	 */
+	private Plan getPlan(ResultSet rs) throws SQLException {
+		Bound bound = last;
+		if (bound != null && bound.resultSet == rs)
+			return bound.plan;
+
+		ResultSetMetaData meta = rs.getMetaData();
+		StringBuilder shape = new StringBuilder();
+		for (int i = 1; i <= meta.getColumnCount(); i++)
+			shape.append(meta.getColumnLabel(i)).append(',');
+		String key = shape.toString();
+		Plan plan = plans.get(key);
+		if (plan == null) {
+			plan = new Plan(meta);
+			plans.put(key, plan);
+		}
+		last = new Bound(rs, plan);
+		return plan;
+	}
+
+	private ColumnMetadata findColumn(String label) {
+		ColumnMetadata column = columnsByLabel.get(label.toLowerCase());
+		return column != null ? column : columnsByLabel.get(normalize(label));
+	}
+
+	/**
+	 * Indices das colunas do resultado e os respectivos atributos
+	 */
+	private class Plan {
+		private final int[] indexes;
+		private final ColumnReader[] readers;
+		private final MethodHandle[] setters;
+		private final String[] names;
+
+		Plan(ResultSetMetaData meta) throws SQLException {
+			List<Integer> found = new ArrayList<Integer>();
+			List<ColumnMetadata> columns = new ArrayList<ColumnMetadata>();
+			for (int i = 1; i <= meta.getColumnCount(); i++) {
+				ColumnMetadata column = findColumn(meta.getColumnLabel(i));
+				if (column != null && !columns.contains(column)) {
+					found.add(i);
+					columns.add(column);
+				}
+			}
+			indexes = new int[found.size()];
+			readers = new ColumnReader[found.size()];
+			setters = new MethodHandle[found.size()];
+			names = new String[found.size()];
+			for (int i = 0; i < indexes.length; i++) {
+				ColumnMetadata column = columns.get(i);
+				indexes[i] = found.get(i);
+				readers[i] = ColumnReader.forType(column.getType());
+				setters[i] = column.getAccessor().getTypedSetter();
+				names[i] = column.getName();
+			}
+		}
+
+		void populate(ResultSet rs, Object entity) throws SQLException {
+			for (int i = 0; i < indexes.length; i++)
+				try {
+					readers[i].read(rs, indexes[i], entity, setters[i]);
+				} catch (SQLException | Error e) {
+					throw e;
+				} catch (Throwable e) {
+					throw new SQLException(names[i], e);
+				}
+		}
+	}
+
+	private class Bound {
+		final ResultSet resultSet;
+		final Plan plan;
+
+		Bound(ResultSet resultSet, Plan plan) {
+			this.resultSet = resultSet;
+			this.plan = plan;
+		}
+	}
+}
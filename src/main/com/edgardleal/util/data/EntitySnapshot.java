@@ -0,0 +1,101 @@
+package com.edgardleal.util.data;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Copia dos valores de uma entidade em um determinado momento (normalmente
+ * logo apos ser carregada do banco), utilizada para descobrir quais colunas
+ * foram alteradas e gerar um UPDATE somente com elas.<br>
+ * Ex.:<br>
+ * <code>
+ * EntitySnapshot snapshot = EntitySnapshot.capture(cliente);<br>
+ * cliente.setNome("Maria");<br>
+ * String sql = generator.getUpdate(cliente, snapshot); // UPDATE Cliente SET nome = 'Maria' WHERE codigo = 1
+ * </code>
+ *
+ * @author Edgard Leal
+ */
+public class EntitySnapshot {
+	private final EntityMetadata metadata;
+	private final Object[] values;
+
+	private EntitySnapshot(EntityMetadata metadata, Object[] values) {
+		this.metadata = metadata;
+		this.values = values;
+	}
+
+	/**
+	 * Copia os valores atuais da entidade. Datas e vetores de bytes sao
+	 * copiados, ja que podem ser alterados sem a chamada do metodo set.
+	 *
+	 * @param entity
+	 * @return
+	 * @throws InvocationTargetException
+	 */
+	public static EntitySnapshot capture(Object entity)
+			throws InvocationTargetException {
+		EntityMetadata metadata = EntityMetadata.of(entity.getClass());
+		List<ColumnMetadata> columns = metadata.getColumns();
+		Object[] values = new Object[columns.size()];
+		for (ColumnMetadata column : columns)
+			values[column.getIndex()] = copy(column.getValue(entity));
+		return new EntitySnapshot(metadata, values);
+	}
+
+	private static Object copy(Object value) {
+		if (value instanceof Date)
+			return ((Date) value).clone();
+		if (value instanceof byte[])
+			return ((byte[]) value).clone();
+		return value;
+	}
+
+	static boolean isEqual(Object a, Object b) {
+		if (a == b)
+			return true;
+		if (a == null || b == null)
+			return false;
+		if (a instanceof byte[] && b instanceof byte[])
+			return Arrays.equals((byte[]) a, (byte[]) b);
+		return a.equals(b);
+	}
+
+	public EntityMetadata getMetadata() {
+		return metadata;
+	}
+
+	/**
+	 * Valor da coluna no momento da copia
+	 */
+	public Object getValue(ColumnMetadata column) {
+		return values[column.getIndex()];
+	}
+
+	/**
+	 * Retorna as colunas (exceto as chaves) cujo valor atual na entidade e
+	 * diferente do valor copiado. A lista e vazia quando nada mudou.
+	 *
+	 * @param entity
+	 *            entidade da mesma classe da copia
+	 * @return
+	 * @throws InvocationTargetException
+	 */
+	public List<ColumnMetadata> getChangedColumns(Object entity)
+			throws InvocationTargetException {
+		if (entity.getClass() != metadata.getEntityClass())
+			throw new IllegalArgumentException(entity.getClass().getName());
+		List<ColumnMetadata> result = new ArrayList<ColumnMetadata>();
+		for (ColumnMetadata column : metadata.getUpdateColumns())
+			if (!isEqual(values[column.getIndex()], column.getValue(entity)))
+				result.add(column);
+		return result;
+	}
+
+	public boolean isChanged(Object entity) throws InvocationTargetException {
+		return !getChangedColumns(entity).isEmpty();
+	}
+}
@@ -0,0 +1,189 @@
+package com.edgardleal.util.data;
+
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache de primeiro nivel ("identity map"): guarda as entidades carregadas
+ * pela sua {@link EntityKey}, de modo que buscas repetidas pelo mesmo
+ * <code>@Id</code> (simples ou composto) retornem a mesma instancia sem uma
+ * nova consulta.<br>
+ * Normalmente uma instancia e criada para cada unidade de trabalho (ex.: uma
+ * requisicao) e descartada ao final. Com <code>maxSize</code>, as entidades
+ * menos usadas recentemente sao descartadas quando o limite e atingido (LRU),
+ * o que permite manter a mesma instancia entre unidades de trabalho.<br>
+ * Ex.:<br>
+ * <code>
+ * IdentityMap map = new IdentityMap();<br>
+ * Cliente a = map.find(connection, Cliente.class, 10); // SELECT<br>
+ * Cliente b = map.find(connection, Cliente.class, 10); // a == b, sem SELECT
+ * </code>
+ *
+ * @author Edgard Leal
+ */
+public class IdentityMap {
+	private final SQLGenerator generator;
+	private final Map<EntityKey, Object> entities;
+	private int hits;
+	private int misses;
+
+	/**
+	 * Sem limite de tamanho
+	 */
+	public IdentityMap() {
+		this(new SQLGenerator(), 0);
+	}
+
+	/**
+	 * @param maxSize
+	 *            quantidade maxima de entidades mantidas (LRU)
+	 */
+	public IdentityMap(int maxSize) {
+		this(new SQLGenerator(), maxSize);
+	}
+
+	/**
+	 * @param generator
+	 * @param maxSize
+	 *            quantidade maxima de entidades mantidas (LRU); zero para sem
+	 *            limite
+	 */
+	public IdentityMap(SQLGenerator generator, final int maxSize) {
+		if (maxSize < 0)
+			throw new IllegalArgumentException("maxSize");
+		this.generator = generator;
+		if (maxSize == 0)
+			this.entities = new HashMap<EntityKey, Object>();
+		else
+			this.entities = new LinkedHashMap<EntityKey, Object>(16, 0.75f,
+					true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(
+						Map.Entry<EntityKey, Object> eldest) {
+					return size() > maxSize;
+				}
+			};
+	}
+
+	/**
+	 * Retorna a entidade guardada com a chave informada ou <code>null</code>.
+	 *
+	 * @param type
+	 * @param id
+	 *            valores das colunas <code>@Id</code>, na ordem de declaracao
+	 *            (numeros sao convertidos para o tipo do atributo, ver
+	 *            {@link EntityKey#of(Class, Object...)})
+	 */
+	public synchronized <T> T get(Class<T> type, Object... id) {
+		return type.cast(entities.get(EntityKey.of(type, id)));
+	}
+
+	/**
+	 * Retorna a entidade guardada ou, caso nao exista, carrega-a do banco (
+	 * {@link SQLGenerator#getSelectByIdTemplate(Class)}) e guarda o resultado.
+	 * Retorna <code>null</code> se o registro nao existir.
+	 */
+	public <T> T find(Connection connection, Class<T> type, Object... id)
+			throws SQLException {
+		EntityKey key = EntityKey.of(type, id);
+		synchronized (this) {
+			Object cached = entities.get(key);
+			if (cached != null) {
+				hits++;
+				return type.cast(cached);
+			}
+			misses++;
+		}
+		T loaded = load(connection, type, key);
+		return loaded == null ? null : register(key, loaded);
+	}
+
+	private <T> T load(Connection connection, Class<T> type, EntityKey key)
+			throws SQLException {
+		List<ColumnMetadata> keys = EntityMetadata.of(type).getKeyColumns();
+		PreparedStatement statement = connection.prepareStatement(generator
+				.getSelectByIdTemplate(type).getSql());
+		try {
+			for (int i = 0; i < key.size(); i++)
+				JdbcTypes.bind(statement, i + 1, key.getValue(i), keys.get(i)
+						.getSqlType());
+			ResultSet rs = statement.executeQuery();
+			return rs.next() ? EntityRowMapper.of(type).mapRow(rs) : null;
+		} finally {
+			statement.close();
+		}
+	}
+
+	/**
+	 * Guarda a entidade informada. Caso ja exista uma instancia com a mesma
+	 * chave, esta e retornada e a informada e ignorada; assim, entidades
+	 * carregadas por outras consultas podem ser substituidas pela instancia ja
+	 * conhecida.<br>
+	 * Entidades cuja chave ainda sera gerada pelo banco (
+	 * {@link EntityKey#isAssigned()}) sao retornadas sem serem guardadas.<br>
+	 * Ex.: <code>cliente = map.register(mapper.mapRow(rs));</code>
+	 */
+	public <T> T register(T entity) throws InvocationTargetException {
+		EntityKey key = EntityKey.of(entity);
+		return key.isAssigned() ? register(key, entity) : entity;
+	}
+
+	@SuppressWarnings("unchecked")
+	private synchronized <T> T register(EntityKey key, T entity) {
+		Object cached = entities.get(key);
+		if (cached != null)
+			return (T) cached;
+		entities.put(key, entity);
+		return entity;
+	}
+
+	/**
+	 * Retira a entidade do cache (ex.: apos ser excluida).
+	 */
+	public synchronized void remove(Object entity)
+			throws InvocationTargetException {
+		entities.remove(EntityKey.of(entity));
+	}
+
+	/**
+	 * Verifica se existe uma entidade com a chave informada, sem altera-la
+	 * como a mais usada.
+	 */
+	public synchronized boolean contains(Class<?> type, Object... id) {
+		return entities.containsKey(EntityKey.of(type, id));
+	}
+
+	/**
+	 * Descarta todas as entidades (fim da unidade de trabalho).
+	 */
+	public synchronized void clear() {
+		entities.clear();
+	}
+
+	public synchronized int size() {
+		return entities.size();
+	}
+
+	/**
+	 * Quantidade de chamadas a {@link #find} atendidas pelo cache
+	 */
+	public synchronized int getHits() {
+		return hits;
+	}
+
+	/**
+	 * Quantidade de chamadas a {@link #find} que consultaram o banco
+	 */
+	public synchronized int getMisses() {
+		return misses;
+	}
+}
@@ -0,0 +1,81 @@
+package com.edgardleal.util.data;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+/**
+ * Conversao entre os tipos dos atributos das entidades e os tipos JDBC (
+ * <code>java.sql.Types</code>), utilizada para passar os valores para um
+ * <code>PreparedStatement</code>. Tambem utilizada pelos {@link EntityMapper}
+ * gerados.
+ *
+ * @author Edgard Leal
+ */
+public final class JdbcTypes {
+
+	private JdbcTypes() {
+
+	}
+
+	/**
+	 * Retorna o tipo JDBC correspondente ao tipo do atributo ou
+	 * <code>Types.VARCHAR</code> para tipos desconhecidos, que sao gravados
+	 * atraves do <code>toString()</code>.
+	 */
+	public static int sqlType(Class<?> type) {
+		if (type.equals(String.class) || type.equals(char.class)
+				|| type.equals(Character.class))
+			return Types.VARCHAR;
+		if (type.equals(int.class) || type.equals(Integer.class))
+			return Types.INTEGER;
+		if (type.equals(long.class) || type.equals(Long.class))
+			return Types.BIGINT;
+		if (type.equals(double.class) || type.equals(Double.class))
+			return Types.DOUBLE;
+		if (type.equals(float.class) || type.equals(Float.class))
+			return Types.REAL;
+		if (type.equals(short.class) || type.equals(Short.class))
+			return Types.SMALLINT;
+		if (type.equals(byte.class) || type.equals(Byte.class))
+			return Types.TINYINT;
+		if (type.equals(boolean.class) || type.equals(Boolean.class))
+			return Types.BOOLEAN;
+		if (BigDecimal.class.isAssignableFrom(type))
+			return Types.DECIMAL;
+		if (java.sql.Date.class.isAssignableFrom(type))
+			return Types.DATE;
+		if (java.sql.Time.class.isAssignableFrom(type))
+			return Types.TIME;
+		if (java.util.Date.class.isAssignableFrom(type)
+				|| java.util.Calendar.class.isAssignableFrom(type))
+			return Types.TIMESTAMP;
+		if (type.equals(byte[].class))
+			return Types.VARBINARY;
+		return Types.VARCHAR;
+	}
+
+	/**
+	 * Passa o valor para o parametro <code>index</code> do comando.
+	 */
+	public static void bind(PreparedStatement statement, int index, Object value,
+			int sqlType) throws SQLException {
+		if (value == null)
+			statement.setNull(index, sqlType);
+		else if (value instanceof java.sql.Date || value instanceof Timestamp
+				|| value instanceof java.sql.Time)
+			statement.setObject(index, value);
+		else if (value instanceof java.util.Date)
+			statement.setTimestamp(index,
+					new Timestamp(((java.util.Date) value).getTime()));
+		else if (value instanceof java.util.Calendar)
+			statement.setTimestamp(index, new Timestamp(
+					((java.util.Calendar) value).getTimeInMillis()));
+		else if (sqlType == Types.VARCHAR)
+			statement.setString(index, value.toString());
+		else
+			statement.setObject(index, value, sqlType);
+	}
+}
@@ -0,0 +1,374 @@
+package com.edgardleal.util.data;
+
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import com.edgardleal.util.Str;
+
+/**
+ * Monta as consultas de paginacao por chave ("keyset" ou "seek"): em vez de
+ * <code>OFFSET</code>, que obriga o banco a ler e descartar todas as linhas
+ * das paginas anteriores, cada pagina comeca depois dos valores de ordenacao
+ * da ultima linha da pagina anterior:<br>
+ * <code>
+ * SELECT ... FROM cliente WHERE (nome,codigo) &gt; ('Maria',10) ORDER BY nome,codigo FETCH FIRST 20 ROWS ONLY
+ * </code><br>
+ * As colunas <code>@Id</code> sao acrescentadas ao final da ordenacao, para
+ * que a ordem seja unica. Os valores da primeira/ultima linha sao passados
+ * entre as paginas como um texto ("token") que pode ser utilizado em URLs (
+ * {@link #getToken(Object)}). As colunas de ordenacao nao devem conter
+ * <code>null</code>.<br>
+ * Quando o dialeto nao aceita comparacao de linhas (
+ * {@link com.edgardleal.util.data.dialect.SQLDialect#supportsRowValueIn()}),
+ * a condicao e expandida: <code>nome &gt; 'Maria' OR (nome = 'Maria' AND codigo &gt; 10)</code>.<br>
+ * Ex.:<br>
+ * <code>
+ * KeysetQuery query = new KeysetQuery(Cliente.class, request.getParameterValues("order"));<br>
+ * String sql = after == null ? query.getFirstPage() : query.getNextPage(after);
+ * </code>
+ *
+ * @author Edgard Leal
+ */
+public class KeysetQuery {
+	public static final int DEFAULT_PAGE_SIZE = 20;
+	private static final char SEPARATOR = ',';
+	private static final char ESCAPE = '\\';
+	private static final String NULL_TOKEN = "\\N";
+	private static final String ENCODING = "UTF-8";
+
+	private final SQLGenerator generator;
+	private final EntityMetadata metadata;
+	private final List<ColumnMetadata> columns;
+	private int pageSize = DEFAULT_PAGE_SIZE;
+	private boolean descending;
+
+	/**
+	 * @param type
+	 * @param orderColumns
+	 *            nomes das colunas (atributos) de ordenacao; nomes vazios ou
+	 *            <code>null</code> sao ignorados, assim como o proprio array
+	 *            (ex.: <code>request.getParameterValues("order")</code> sem o
+	 *            parametro)
+	 * @throws IllegalArgumentException
+	 *             caso alguma coluna nao exista na entidade ou a entidade nao
+	 *             possua <code>@Id</code>
+	 */
+	public KeysetQuery(Class<?> type, String... orderColumns) {
+		this(new SQLGenerator(), type, orderColumns);
+	}
+
+	public KeysetQuery(SQLGenerator generator, Class<?> type,
+			String... orderColumns) {
+		this.generator = generator;
+		this.metadata = EntityMetadata.of(type);
+		if (metadata.getKeyColumns().isEmpty())
+			throw new IllegalArgumentException(type.getName()
+					+ " nao possui @Id");
+		List<ColumnMetadata> list = new ArrayList<ColumnMetadata>();
+		for (String name : orderColumns == null ? new String[0] : orderColumns) {
+			if (Str.isNullOrEmpty(name))
+				continue;
+			ColumnMetadata column = metadata.getColumn(name);
+			if (column == null)
+				throw new IllegalArgumentException("Coluna invalida: " + name);
+			if (!list.contains(column))
+				list.add(column);
+		}
+		for (ColumnMetadata column : metadata.getKeyColumns())
+			if (!list.contains(column))
+				list.add(column);
+		this.columns = Collections.unmodifiableList(list);
+	}
+
+	/**
+	 * Colunas de ordenacao, seguidas das colunas <code>@Id</code>
+	 */
+	public List<ColumnMetadata> getColumns() {
+		return columns;
+	}
+
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	public void setPageSize(int pageSize) {
+		if (pageSize < 1)
+			throw new IllegalArgumentException("pageSize");
+		this.pageSize = pageSize;
+	}
+
+	public boolean isDescending() {
+		return descending;
+	}
+
+	/**
+	 * Ordena todas as colunas de forma decrescente
+	 */
+	public void setDescending(boolean descending) {
+		this.descending = descending;
+	}
+
+	/**
+	 * Consulta da primeira pagina
+	 */
+	public String getFirstPage() {
+		StringBuilder result = new StringBuilder(
+				generator.getSelectCommand(metadata.getEntityClass()));
+		appendOrderBy(descending, result);
+		generator.getDialect().appendLimit(pageSize, result);
+		return result.toString();
+	}
+
+	/**
+	 * Consulta da pagina seguinte a linha representada pelo token (ultima
+	 * linha da pagina atual).
+	 */
+	public String getNextPage(String token) {
+		return getPage(parseToken(token), false);
+	}
+
+	/**
+	 * Consulta da pagina anterior a linha representada pelo token (primeira
+	 * linha da pagina atual). As linhas sao retornadas na ordem normal.
+	 */
+	public String getPreviousPage(String token) {
+		return getPage(parseToken(token), true);
+	}
+
+	private String getPage(Object[] values, boolean backward) {
+		// na pagina anterior, busca de tras para frente e reordena
+		boolean reverse = descending != backward;
+		StringBuilder result = new StringBuilder();
+		if (backward)
+			result.append("SELECT * FROM (");
+		result.append(generator.getSelectCommand(metadata.getEntityClass()))
+				.append(" WHERE ");
+		appendCondition(values, reverse ? " < " : " > ", result);
+		appendOrderBy(reverse, result);
+		generator.getDialect().appendLimit(pageSize, result);
+		if (backward) {
+			result.append(") p");
+			appendOrderBy(descending, result);
+		}
+		return result.toString();
+	}
+
+	private void appendCondition(Object[] values, String operator,
+			StringBuilder result) {
+		if (generator.getDialect().supportsRowValueIn()) {
+			result.append('(').append(EntityMetadata.join(columns))
+					.append(')').append(operator).append('(');
+			for (int i = 0; i < values.length; i++) {
+				if (i > 0)
+					result.append(',');
+				generator.appendValue(result, values[i]);
+			}
+			result.append(')');
+			return;
+		}
+		// a > 1 OR (a = 1 AND b > 2) OR (a = 1 AND b = 2 AND c > 3)
+		result.append('(');
+		for (int i = 0; i < columns.size(); i++) {
+			if (i > 0)
+				result.append(" OR ");
+			result.append('(');
+			for (int j = 0; j < i; j++) {
+				result.append(columns.get(j).getName()).append(" = ");
+				generator.appendValue(result, values[j]);
+				result.append(" AND ");
+			}
+			result.append(columns.get(i).getName()).append(operator);
+			generator.appendValue(result, values[i]);
+			result.append(')');
+		}
+		result.append(')');
+	}
+
+	private void appendOrderBy(boolean reverse, StringBuilder result) {
+		result.append(" ORDER BY ");
+		for (int i = 0; i < columns.size(); i++) {
+			if (i > 0)
+				result.append(',');
+			result.append(columns.get(i).getName());
+			if (reverse)
+				result.append(" DESC");
+		}
+	}
+
+	/**
+	 * Token com os valores de ordenacao da entidade informada
+	 */
+	public String getToken(Object entity) throws InvocationTargetException {
+		Object[] values = new Object[columns.size()];
+		for (int i = 0; i < values.length; i++)
+			values[i] = columns.get(i).getValue(entity);
+		return toToken(values);
+	}
+
+	/**
+	 * Token com os valores de ordenacao da linha atual do
+	 * <code>ResultSet</code> (lidos pelo nome das colunas).
+	 */
+	public String getToken(ResultSet rs) throws SQLException {
+		return toToken(getValues(rs));
+	}
+
+	/**
+	 * Valores de ordenacao da linha atual do <code>ResultSet</code> (lidos
+	 * pelo nome das colunas). Permite guardar os valores de uma linha e gerar
+	 * o token ({@link #toToken(Object[])}) somente quando necessario.
+	 */
+	public Object[] getValues(ResultSet rs) throws SQLException {
+		Object[] values = new Object[columns.size()];
+		for (int i = 0; i < values.length; i++)
+			values[i] = rs.getObject(columns.get(i).getName());
+		return values;
+	}
+
+	/**
+	 * Valores separados por virgula (com escape) e codificados para URL.
+	 * Datas sao representadas em milissegundos, exceto
+	 * <code>java.sql.Date</code> e <code>Timestamp</code>.
+	 */
+	public String toToken(Object[] values) {
+		StringBuilder result = new StringBuilder();
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0)
+				result.append(SEPARATOR);
+			Object value = values[i];
+			if (value == null) {
+				result.append(NULL_TOKEN);
+				continue;
+			}
+			String text;
+			if (value instanceof BigDecimal)
+				text = ((BigDecimal) value).toPlainString();
+			else if (value instanceof Date && !(value instanceof Timestamp)
+					&& !(value instanceof java.sql.Date))
+				text = String.valueOf(((Date) value).getTime());
+			else
+				text = value.toString();
+			for (int j = 0; j < text.length(); j++) {
+				char c = text.charAt(j);
+				if (c == SEPARATOR || c == ESCAPE)
+					result.append(ESCAPE);
+				result.append(c);
+			}
+		}
+		try {
+			return URLEncoder.encode(result.toString(), ENCODING);
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Converte o token para os valores das colunas, com o tipo de cada
+	 * atributo.
+	 *
+	 * @throws IllegalArgumentException
+	 *             caso o token seja invalido
+	 */
+	public Object[] parseToken(String token) {
+		String text;
+		try {
+			text = URLDecoder.decode(token, ENCODING);
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+		List<String> parts = new ArrayList<String>();
+		StringBuilder part = new StringBuilder();
+		boolean isNull = false;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == ESCAPE && i + 1 < text.length()) {
+				char next = text.charAt(++i);
+				if (next == 'N')
+					isNull = true;
+				else
+					part.append(next);
+			} else if (c == SEPARATOR) {
+				parts.add(isNull ? null : part.toString());
+				part.setLength(0);
+				isNull = false;
+			} else
+				part.append(c);
+		}
+		parts.add(isNull ? null : part.toString());
+		if (parts.size() != columns.size())
+			throw new IllegalArgumentException("Token invalido: " + token);
+
+		Object[] result = new Object[parts.size()];
+		for (int i = 0; i < result.length; i++)
+			try {
+				result[i] = parse(parts.get(i), columns.get(i).getType());
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException("Token invalido: " + token,
+						e);
+			}
+		return result;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Object parse(String text, Class<?> type) {
+		if (text == null)
+			return null;
+		if (type == String.class)
+			return text;
+		if (type == int.class || type == Integer.class)
+			return Integer.valueOf(text);
+		if (type == long.class || type == Long.class)
+			return Long.valueOf(text);
+		if (type == short.class || type == Short.class)
+			return Short.valueOf(text);
+		if (type == byte.class || type == Byte.class)
+			return Byte.valueOf(text);
+		if (type == double.class || type == Double.class)
+			return Double.valueOf(text);
+		if (type == float.class || type == Float.class)
+			return Float.valueOf(text);
+		if (type == BigDecimal.class)
+			return new BigDecimal(text);
+		if (type == BigInteger.class)
+			return new BigInteger(text);
+		if (type == boolean.class || type == Boolean.class)
+			return Boolean.valueOf(text);
+		if (type == char.class || type == Character.class) {
+			if (text.length() != 1)
+				throw new IllegalArgumentException(text);
+			return Character.valueOf(text.charAt(0));
+		}
+		if (Date.class.isAssignableFrom(type))
+			return parseDate(text, type);
+		if (type.isEnum())
+			return Enum.valueOf((Class<Enum>) type, text);
+		throw new IllegalArgumentException("Tipo nao suportado: "
+				+ type.getName());
+	}
+
+	private static Date parseDate(String text, Class<?> type) {
+		Date date;
+		if (text.matches("-?\\d+"))
+			date = new Date(Long.parseLong(text));
+		else if (text.indexOf(' ') >= 0)
+			date = Timestamp.valueOf(text);
+		else
+			date = java.sql.Date.valueOf(text);
+		if (type == java.sql.Date.class && !(date instanceof java.sql.Date))
+			return new java.sql.Date(date.getTime());
+		if (type == Timestamp.class && !(date instanceof Timestamp))
+			return new Timestamp(date.getTime());
+		return date;
+	}
+}
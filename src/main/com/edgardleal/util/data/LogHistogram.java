@@ -0,0 +1,106 @@
+package com.edgardleal.util.data;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma com faixas em potencias de 2: a faixa <code>i</code> guarda os
+ * valores de <code>2^(i-1)</code> ate <code>2^i - 1</code> (a faixa 0 guarda
+ * o zero). Utiliza memoria fixa e pode ser atualizado por varias threads sem
+ * bloqueio; os percentis sao aproximados pelo limite superior da faixa.
+ *
+ * @author Edgard Leal
+ */
+public class LogHistogram {
+	private static final int BUCKETS = 65;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong sum = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Registra um valor. Valores negativos sao tratados como zero.
+	 */
+	public void record(long value) {
+		if (value < 0)
+			value = 0;
+		buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(value));
+		count.incrementAndGet();
+		sum.addAndGet(value);
+		long current;
+		while (value > (current = max.get())
+				&& !max.compareAndSet(current, value))
+			;
+	}
+
+	public long getCount() {
+		return count.get();
+	}
+
+	public long getSum() {
+		return sum.get();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	public double getMean() {
+		long n = count.get();
+		return n == 0 ? 0 : (double) sum.get() / n;
+	}
+
+	/**
+	 * Valor aproximado abaixo do qual estao <code>percentile</code>% dos
+	 * valores registrados.
+	 *
+	 * @param percentile
+	 *            de 0 a 100
+	 */
+	public long getPercentile(double percentile) {
+		long n = count.get();
+		if (n == 0)
+			return 0;
+		long target = (long) Math.ceil(n * percentile / 100);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += buckets.get(i);
+			if (seen >= target && seen > 0)
+				return Math.min(getUpperBound(i), max.get());
+		}
+		return max.get();
+	}
+
+	/**
+	 * Maior valor da faixa informada
+	 */
+	public static long getUpperBound(int bucket) {
+		return bucket == BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+	}
+
+	/**
+	 * Quantidade de valores em cada faixa
+	 */
+	public long[] getBuckets() {
+		long[] result = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++)
+			result[i] = buckets.get(i);
+		return result;
+	}
+
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++)
+			buckets.set(i, 0);
+		count.set(0);
+		sum.set(0);
+		max.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return "count=" + getCount() + ", mean=" + (long) getMean() + ", p50="
+				+ getPercentile(50) + ", p99=" + getPercentile(99) + ", max="
+				+ getMax();
+	}
+}
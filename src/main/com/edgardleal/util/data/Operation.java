@@ -0,0 +1,10 @@
+package com.edgardleal.util.data;
+
+/**
+ * Operacoes de escrita geradas pelo {@link SQLGenerator}
+ *
+ * @author Edgard Leal
+ */
+public enum Operation {
+	INSERT, UPDATE, DELETE
+}
@@ -0,0 +1,213 @@
+package com.edgardleal.util.data;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Gera os comandos de uma colecao grande de entidades em paralelo (fork/join),
+ * mantendo a ordem da colecao.<br>
+ * A lista e dividida em blocos de <code>chunkSize</code> entidades; cada bloco
+ * e montado pelo {@link SQLGenerator} em um buffer da propria thread (
+ * <code>ThreadLocal</code>) e o resultado e gravado na posicao do bloco, sem
+ * sincronizacao entre as threads. Ao final os blocos sao juntados na ordem
+ * original.<br>
+ * Ex.:<br>
+ * <code>
+ * List&lt;String&gt; comandos = new ParallelSQLGenerator().generate(clientes, Operation.INSERT);
+ * </code>
+ *
+ * @author Edgard Leal
+ */
+public class ParallelSQLGenerator {
+	public static final int DEFAULT_CHUNK_SIZE = 512;
+	/**
+	 * Quantidade de blocos montados por thread antes de cada escrita em
+	 * {@link #write(List, Operation, SQLScriptWriter)}
+	 */
+	private static final int CHUNKS_PER_THREAD = 4;
+	private static final String STATEMENT_END = ";\n";
+
+	private static final ThreadLocal<StringBuilder> BUFFER = new ThreadLocal<StringBuilder>() {
+		@Override
+		protected StringBuilder initialValue() {
+			return new StringBuilder(8192);
+		}
+	};
+
+	private final SQLGenerator generator;
+	private final ForkJoinPool pool;
+	private final int chunkSize;
+
+	public ParallelSQLGenerator() {
+		this(new SQLGenerator());
+	}
+
+	/**
+	 * Utiliza um unico pool, compartilhado por todas as instancias criadas sem
+	 * pool e criado no primeiro uso.
+	 */
+	public ParallelSQLGenerator(SQLGenerator generator) {
+		this(generator, SharedPool.POOL, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * @param generator
+	 * @param pool
+	 *            pool utilizado na geracao. O pool nao e finalizado por esta
+	 *            classe.
+	 * @param chunkSize
+	 *            quantidade de entidades montadas por tarefa
+	 */
+	public ParallelSQLGenerator(SQLGenerator generator, ForkJoinPool pool,
+			int chunkSize) {
+		if (chunkSize < 1)
+			throw new IllegalArgumentException("chunkSize");
+		this.generator = generator;
+		this.pool = pool;
+		this.chunkSize = chunkSize;
+	}
+
+	public SQLGenerator getGenerator() {
+		return generator;
+	}
+
+	/**
+	 * Retorna um comando por entidade, na ordem da lista informada.
+	 *
+	 * @param entities
+	 * @param operation
+	 * @return
+	 * @throws InvocationTargetException
+	 *             caso algum metodo get lance uma excecao
+	 */
+	public List<String> generate(List<?> entities, Operation operation)
+			throws InvocationTargetException {
+		List<?> list = toRandomAccess(entities);
+		String[] result = new String[list.size()];
+		invoke(new Task(list, operation, 0, list.size(), result, null));
+		return Arrays.asList(result);
+	}
+
+	/**
+	 * Escreve o comando de cada entidade (seguido de ";" e quebra de linha) na
+	 * ordem da lista informada. A lista e processada em partes, de modo que
+	 * apenas alguns blocos por thread ficam em memoria antes de serem
+	 * escritos.
+	 *
+	 * @param entities
+	 * @param operation
+	 * @param out
+	 * @throws IOException
+	 */
+	public void write(List<?> entities, Operation operation,
+			SQLScriptWriter out) throws IOException {
+		List<?> list = toRandomAccess(entities);
+		int window = chunkSize * CHUNKS_PER_THREAD * pool.getParallelism();
+		for (int from = 0; from < list.size(); from += window) {
+			int to = Math.min(list.size(), from + window);
+			String[] chunks = new String[(to - from + chunkSize - 1)
+					/ chunkSize];
+			try {
+				invoke(new Task(list, operation, from, to, null, chunks));
+			} catch (InvocationTargetException e) {
+				throw new IOException(e.getCause());
+			}
+			for (String chunk : chunks)
+				out.writeRaw(chunk);
+		}
+	}
+
+	private void invoke(Task task) throws InvocationTargetException {
+		try {
+			pool.invoke(task);
+		} catch (RuntimeException e) {
+			for (Throwable cause = e; cause != null; cause = cause.getCause())
+				if (cause instanceof InvocationTargetException)
+					throw (InvocationTargetException) cause;
+			throw e;
+		}
+	}
+
+	private static List<?> toRandomAccess(List<?> entities) {
+		return entities instanceof RandomAccess ? entities
+				: new ArrayList<Object>(entities);
+	}
+
+	/**
+	 * Pool padrao, criado somente no primeiro uso. As threads de um
+	 * <code>ForkJoinPool</code> sao daemon e terminam quando ficam ociosas,
+	 * portanto o pool nao precisa ser finalizado.
+	 */
+	private static class SharedPool {
+		static final ForkJoinPool POOL = new ForkJoinPool();
+	}
+
+	/**
+	 * Monta as entidades [from, to). Com <code>commands</code>, grava um
+	 * comando por posicao (relativa ao inicio da lista); com
+	 * <code>chunks</code>, grava o script de cada bloco na posicao do bloco
+	 * (relativa a <code>from</code> da primeira tarefa).
+	 */
+	private class Task extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final List<?> entities;
+		private final Operation operation;
+		private final int base;
+		private final int from;
+		private final int to;
+		private final String[] commands;
+		private final String[] chunks;
+
+		Task(List<?> entities, Operation operation, int from, int to,
+				String[] commands, String[] chunks) {
+			this(entities, operation, from, from, to, commands, chunks);
+		}
+
+		private Task(List<?> entities, Operation operation, int base,
+				int from, int to, String[] commands, String[] chunks) {
+			this.entities = entities;
+			this.operation = operation;
+			this.base = base;
+			this.from = from;
+			this.to = to;
+			this.commands = commands;
+			this.chunks = chunks;
+		}
+
+		@Override
+		protected void compute() {
+			int count = (to - from + chunkSize - 1) / chunkSize;
+			if (count > 1) {
+				int middle = from + (count / 2) * chunkSize;
+				invokeAll(new Task(entities, operation, base, from, middle,
+						commands, chunks), new Task(entities, operation, base,
+						middle, to, commands, chunks));
+				return;
+			}
+			StringBuilder buffer = BUFFER.get();
+			buffer.setLength(0);
+			try {
+				for (int i = from; i < to; i++) {
+					generator.append(operation, entities.get(i), buffer);
+					if (commands != null) {
+						commands[i] = buffer.toString();
+						buffer.setLength(0);
+					} else
+						buffer.append(STATEMENT_END);
+				}
+			} catch (InvocationTargetException e) {
+				throw new IllegalStateException(e);
+			}
+			if (chunks != null)
+				chunks[(from - base) / chunkSize] = buffer.toString();
+			if (buffer.capacity() > chunkSize * 1024)
+				BUFFER.remove();
+		}
+	}
+}
@@ -0,0 +1,443 @@
+package com.edgardleal.util.data;
+
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+/**
+ * Grava entidades em lotes em varias conexoes ao mesmo tempo. Cada entidade e
+ * direcionada a uma particao pelo hash da sua {@link EntityKey}; cada particao
+ * possui a sua conexao, o seu {@link BatchWriter} e a sua thread, e executa os
+ * lotes de forma independente das demais. Entidades novas, cuja chave
+ * <code>@GeneratedValue</code> ainda nao foi atribuida (ver
+ * {@link EntityKey#isAssigned()}), sao distribuidas entre as particoes em
+ * rodizio.<br>
+ * Como a mesma chave sempre vai para a mesma particao, as operacoes sobre uma
+ * entidade sao gravadas na ordem em que foram enviadas (o {@link BatchWriter}
+ * de cada particao mantem a ordem dos comandos).<br>
+ * Quando o autoCommit da conexao esta desligado, cada particao confirma (
+ * <code>commit</code>) os seus lotes a cada execucao completa; em caso de
+ * erro, a transacao da particao e desfeita e as operacoes pendentes sao
+ * descartadas. Os erros de todas as particoes sao reunidos e lancados em
+ * {@link #flush()} e {@link #close()}.<br>
+ * As threads sao criadas pelo <code>ThreadFactory</code> informado (ex.:
+ * <code>Thread.ofVirtual().factory()</code> em versoes do Java com threads
+ * virtuais). O padrao, <code>Executors.defaultThreadFactory()</code>, cria
+ * threads que nao sao daemon: um writer que nao e fechado (
+ * {@link #close()}) impede o encerramento da JVM.<br>
+ * Ex.:<br>
+ * <code>
+ * PartitionedBatchWriter writer = new PartitionedBatchWriter(dataSource, 8);<br>
+ * for (Leitura leitura : leituras)<br>
+ * &nbsp;&nbsp;writer.insert(leitura);<br>
+ * writer.close();
+ * </code>
+ *
+ * @author Edgard Leal
+ */
+public class PartitionedBatchWriter implements AutoCloseable {
+	public static final int DEFAULT_QUEUE_CAPACITY = 10000;
+
+	private final Partition[] partitions;
+	/**
+	 * Proxima particao das entidades sem chave
+	 */
+	private final AtomicInteger next = new AtomicInteger();
+	private volatile boolean closed;
+
+	/**
+	 * Utiliza <code>Executors.defaultThreadFactory()</code> (threads que nao
+	 * sao daemon); o writer deve ser fechado.
+	 */
+	public PartitionedBatchWriter(DataSource dataSource, int partitions)
+			throws SQLException {
+		this(dataSource, partitions, new SQLGenerator(),
+				BatchWriter.DEFAULT_BATCH_SIZE,
+				BatchWriter.DEFAULT_MAX_LINGER_MILLIS, DEFAULT_QUEUE_CAPACITY,
+				Executors.defaultThreadFactory());
+	}
+
+	/**
+	 * @param dataSource
+	 *            fornece uma conexao para cada particao
+	 * @param partitions
+	 *            quantidade de particoes (conexoes e threads)
+	 * @param generator
+	 * @param batchSize
+	 * @param maxLingerMillis
+	 *            tempo maximo que uma entidade aguarda na particao
+	 * @param queueCapacity
+	 *            quantidade maxima de entidades aguardando em cada particao;
+	 *            quem envia aguarda quando a fila esta cheia
+	 * @param threadFactory
+	 *            caso a criacao ou o inicio de alguma thread falhe, as threads
+	 *            ja iniciadas sao interrompidas e as conexoes sao fechadas
+	 */
+	public PartitionedBatchWriter(DataSource dataSource, int partitions,
+			SQLGenerator generator, int batchSize, long maxLingerMillis,
+			int queueCapacity, ThreadFactory threadFactory)
+			throws SQLException {
+		if (partitions < 1)
+			throw new IllegalArgumentException(
+					"partitions deve ser maior que zero");
+		if (maxLingerMillis < 1)
+			throw new IllegalArgumentException(
+					"maxLingerMillis deve ser maior que zero");
+		this.partitions = new Partition[partitions];
+		try {
+			for (int i = 0; i < partitions; i++)
+				this.partitions[i] = new Partition(i,
+						dataSource.getConnection(), generator, batchSize,
+						maxLingerMillis, queueCapacity);
+		} catch (SQLException e) {
+			for (Partition partition : this.partitions)
+				if (partition != null)
+					partition.closeConnection(e);
+			throw e;
+		}
+		int started = 0;
+		try {
+			for (Partition partition : this.partitions) {
+				partition.thread = threadFactory.newThread(partition);
+				partition.thread.start();
+				started++;
+			}
+		} catch (RuntimeException | Error e) {
+			// as threads iniciadas fecham a propria conexao ao terminar
+			for (int i = 0; i < partitions; i++)
+				if (i < started)
+					this.partitions[i].thread.interrupt();
+				else
+					this.partitions[i].closeConnection(e);
+			throw e;
+		}
+	}
+
+	public int getPartitionCount() {
+		return partitions.length;
+	}
+
+	/**
+	 * Particao que grava a entidade informada ou -1 quando a chave ainda nao
+	 * foi atribuida (a particao e escolhida em rodizio no envio).
+	 */
+	public int getPartition(Object entity) throws InvocationTargetException {
+		EntityKey key = EntityKey.of(entity);
+		return key.isAssigned() ? getPartition(key) : -1;
+	}
+
+	private int getPartition(EntityKey key) {
+		return (key.hashCode() & Integer.MAX_VALUE) % partitions.length;
+	}
+
+	private int nextPartition() {
+		return (next.getAndIncrement() & Integer.MAX_VALUE)
+				% partitions.length;
+	}
+
+	public void insert(Object entity) throws InterruptedException,
+			InvocationTargetException {
+		add(Operation.INSERT, entity);
+	}
+
+	public void update(Object entity) throws InterruptedException,
+			InvocationTargetException {
+		add(Operation.UPDATE, entity);
+	}
+
+	public void delete(Object entity) throws InterruptedException,
+			InvocationTargetException {
+		add(Operation.DELETE, entity);
+	}
+
+	/**
+	 * Envia a operacao para a particao da entidade. Aguarda caso a fila da
+	 * particao esteja cheia.
+	 *
+	 * @throws IllegalStateException
+	 *             caso tenha sido fechado
+	 */
+	public void add(Operation operation, Object entity)
+			throws InterruptedException, InvocationTargetException {
+		if (closed)
+			throw new IllegalStateException("PartitionedBatchWriter fechado");
+		EntityKey key = EntityKey.of(entity);
+		int partition = key.isAssigned() ? getPartition(key) : nextPartition();
+		partitions[partition].put(new Task(operation, entity));
+	}
+
+	/**
+	 * Aguarda todas as particoes executarem os lotes pendentes e lanca os
+	 * erros ocorridos desde a chamada anterior (um
+	 * <code>SQLException</code> com os erros de cada particao em
+	 * <code>getSuppressed()</code>).
+	 */
+	public void flush() throws SQLException, InterruptedException {
+		if (closed)
+			throw new IllegalStateException("PartitionedBatchWriter fechado");
+		CountDownLatch done = new CountDownLatch(partitions.length);
+		for (Partition partition : partitions)
+			partition.put(new Task(done, false));
+		done.await();
+		throwErrors();
+	}
+
+	private void throwErrors() throws SQLException {
+		SQLException result = null;
+		for (Partition partition : partitions)
+			for (SQLException error : partition.takeErrors()) {
+				if (result == null)
+					result = new SQLException("Erro na gravacao das particoes");
+				result.addSuppressed(error);
+			}
+		if (result != null)
+			throw result;
+	}
+
+	/**
+	 * Executa os lotes pendentes, encerra as threads e fecha as conexoes.<br>
+	 * Aguarda o encerramento mesmo que a thread que chama seja interrompida;
+	 * nesse caso o estado de interrupcao e restaurado ao final.
+	 */
+	@Override
+	public void close() throws SQLException {
+		if (closed)
+			return;
+		closed = true;
+		boolean interrupted = false;
+		CountDownLatch done = new CountDownLatch(partitions.length);
+		for (Partition partition : partitions)
+			while (true)
+				try {
+					partition.put(new Task(done, true));
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+		for (Partition partition : partitions)
+			while (true)
+				try {
+					partition.thread.join();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+		throwErrors();
+	}
+
+	/**
+	 * Operacao enviada a particao ou, quando <code>operation</code> e nulo, um
+	 * pedido de gravacao (e encerramento, se <code>stop</code>) que libera
+	 * <code>done</code> ao terminar.
+	 */
+	private static class Task {
+		final Operation operation;
+		final Object entity;
+		final CountDownLatch done;
+		final boolean stop;
+
+		Task(Operation operation, Object entity) {
+			this.operation = operation;
+			this.entity = entity;
+			this.done = null;
+			this.stop = false;
+		}
+
+		Task(CountDownLatch done, boolean stop) {
+			this.operation = null;
+			this.entity = null;
+			this.done = done;
+			this.stop = stop;
+		}
+	}
+
+	private static class Partition implements Runnable {
+		final int index;
+		final Connection connection;
+		final BatchWriter writer;
+		final long maxLingerMillis;
+		final BlockingQueue<Task> queue;
+		/**
+		 * Existem operacoes adicionadas desde a ultima execucao
+		 */
+		boolean pending;
+		final List<SQLException> errors = new ArrayList<SQLException>();
+		Thread thread;
+		/**
+		 * A thread terminou (normalmente ou por um erro inesperado) e nao
+		 * recebe mais tarefas
+		 */
+		volatile boolean stopped;
+
+		Partition(int index, Connection connection, SQLGenerator generator,
+				int batchSize, long maxLingerMillis, int queueCapacity) {
+			this.index = index;
+			this.connection = connection;
+			this.writer = new BatchWriter(connection, generator, batchSize,
+					maxLingerMillis);
+			this.maxLingerMillis = maxLingerMillis;
+			this.queue = new ArrayBlockingQueue<Task>(queueCapacity);
+		}
+
+		/**
+		 * Envia a tarefa para a thread da particao. Quando a thread ja
+		 * terminou, os pedidos de gravacao sao liberados imediatamente e as
+		 * operacoes sao recusadas.
+		 *
+		 * @throws IllegalStateException
+		 *             caso a thread tenha terminado
+		 */
+		void put(Task task) throws InterruptedException {
+			if (!stopped) {
+				queue.put(task);
+				// a thread pode ter terminado antes de retirar a tarefa
+				if (!stopped || !queue.remove(task))
+					return;
+			}
+			if (task.done != null)
+				task.done.countDown();
+			else
+				throw new IllegalStateException("Particao " + index
+						+ " encerrada");
+		}
+
+		/**
+		 * Os erros das gravacoes sao registrados e a thread continua;
+		 * <code>done</code> e sempre liberado, para que
+		 * {@link PartitionedBatchWriter#flush()} e
+		 * {@link PartitionedBatchWriter#close()} nao aguardem uma particao
+		 * que falhou. Caso a thread termine por um erro inesperado, as tarefas
+		 * restantes sao liberadas e a conexao e fechada.
+		 */
+		@Override
+		public void run() {
+			boolean finished = false;
+			try {
+				while (true) {
+					Task task = queue.poll(maxLingerMillis,
+							TimeUnit.MILLISECONDS);
+					if (task == null)
+						flushWriter();
+					else if (task.operation != null)
+						add(task);
+					else {
+						try {
+							flushWriter();
+							if (task.stop) {
+								finished = true;
+								close();
+							}
+						} finally {
+							task.done.countDown();
+						}
+						if (task.stop)
+							return;
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (RuntimeException | Error e) {
+				record(new SQLException("Erro inesperado", e));
+				throw e;
+			} finally {
+				stopped = true;
+				for (Task task = queue.poll(); task != null; task = queue
+						.poll())
+					if (task.done != null)
+						task.done.countDown();
+				if (!finished)
+					close();
+			}
+		}
+
+		void add(Task task) {
+			pending = true;
+			try {
+				writer.add(task.operation, task.entity);
+			} catch (SQLException e) {
+				fail(e);
+			} catch (RuntimeException e) {
+				fail(new SQLException(e));
+			}
+		}
+
+		void flushWriter() {
+			if (!pending)
+				return;
+			try {
+				writer.flush();
+				if (!connection.getAutoCommit())
+					connection.commit();
+				pending = false;
+			} catch (SQLException e) {
+				fail(e);
+			} catch (RuntimeException e) {
+				fail(new SQLException(e));
+			}
+		}
+
+		void fail(SQLException error) {
+			pending = false;
+			try {
+				writer.clear();
+				if (!connection.getAutoCommit())
+					connection.rollback();
+			} catch (SQLException | RuntimeException e) {
+				error.addSuppressed(e);
+			}
+			record(error);
+		}
+
+		void record(SQLException error) {
+			SQLException wrapper = new SQLException("Particao " + index
+					+ ": " + error.getMessage(), error);
+			synchronized (errors) {
+				errors.add(wrapper);
+			}
+		}
+
+		List<SQLException> takeErrors() {
+			synchronized (errors) {
+				List<SQLException> result = new ArrayList<SQLException>(errors);
+				errors.clear();
+				return result;
+			}
+		}
+
+		void close() {
+			try {
+				writer.close();
+			} catch (SQLException e) {
+				record(e);
+			} catch (RuntimeException e) {
+				record(new SQLException(e));
+			}
+			try {
+				connection.close();
+			} catch (SQLException e) {
+				record(e);
+			}
+		}
+
+		void closeConnection(Throwable cause) {
+			try {
+				connection.close();
+			} catch (SQLException e) {
+				cause.addSuppressed(e);
+			}
+		}
+	}
+}
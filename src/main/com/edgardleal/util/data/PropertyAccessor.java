@@ -0,0 +1,169 @@
+package com.edgardleal.util.data;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Acesso ao valor de um atributo de entidade atraves de
+ * <code>MethodHandle</code> ligados uma unica vez aos metodos get e set do
+ * atributo (ou ao proprio atributo, quando nao existirem os metodos).<br>
+ * Substitui o uso de <code>BeanUtils.getProperty</code>, que a cada chamada
+ * faz introspeccao e converte o valor para <code>String</code>; aqui o valor
+ * e retornado com o seu tipo original.
+ *
+ * @author Edgard Leal
+ */
+public class PropertyAccessor {
+	private static final MethodType GENERIC_GETTER = MethodType.methodType(
+			Object.class, Object.class);
+	private static final MethodType GENERIC_SETTER = MethodType.methodType(
+			void.class, Object.class, Object.class);
+
+	private final String name;
+	private final Class<?> type;
+	private final MethodHandle getter;
+	private final MethodHandle typedGetter;
+	private final MethodHandle setter;
+	private final MethodHandle typedSetter;
+
+	PropertyAccessor(Field field) {
+		this.name = field.getName();
+		this.type = field.getType();
+		try {
+			PropertyDescriptor descriptor = findDescriptor(field);
+			MethodHandle handle = findGetter(field, descriptor);
+			this.typedGetter = handle.asType(MethodType.methodType(type,
+					Object.class));
+			this.getter = handle.asType(GENERIC_GETTER);
+
+			handle = findSetter(field, descriptor);
+			this.typedSetter = handle == null ? null : handle
+					.asType(MethodType.methodType(void.class, Object.class,
+							type));
+			this.setter = handle == null ? null : handle
+					.asType(GENERIC_SETTER);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static MethodHandle findGetter(Field field,
+			PropertyDescriptor descriptor) throws IllegalAccessException {
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		Method method = descriptor == null ? null : descriptor.getReadMethod();
+		if (method != null) {
+			method.setAccessible(true);
+			return lookup.unreflect(method);
+		}
+		field.setAccessible(true);
+		return lookup.unreflectGetter(field);
+	}
+
+	/**
+	 * Metodo set ou o proprio atributo; <code>null</code> para atributos
+	 * <code>final</code> sem metodo set.
+	 */
+	private static MethodHandle findSetter(Field field,
+			PropertyDescriptor descriptor) throws IllegalAccessException {
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		Method method = descriptor == null ? null : descriptor
+				.getWriteMethod();
+		if (method != null) {
+			method.setAccessible(true);
+			return lookup.unreflect(method);
+		}
+		if (Modifier.isFinal(field.getModifiers()))
+			return null;
+		field.setAccessible(true);
+		return lookup.unreflectSetter(field);
+	}
+
+	private static PropertyDescriptor findDescriptor(Field field) {
+		try {
+			for (PropertyDescriptor descriptor : Introspector.getBeanInfo(
+					field.getDeclaringClass()).getPropertyDescriptors())
+				if (descriptor.getName().equals(field.getName()))
+					return descriptor;
+		} catch (IntrospectionException e) {
+			e.printStackTrace();
+		}
+		return null;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Class<?> getType() {
+		return type;
+	}
+
+	/**
+	 * Retorna o valor do atributo na entidade informada, sem conversao.
+	 *
+	 * @param entity
+	 * @return
+	 * @throws InvocationTargetException
+	 *             caso o metodo get lance uma excecao
+	 */
+	public Object get(Object entity) throws InvocationTargetException {
+		try {
+			return (Object) getter.invokeExact(entity);
+		} catch (Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new InvocationTargetException(e);
+		}
+	}
+
+	/**
+	 * <code>MethodHandle</code> do tipo <code>(Object)T</code>, onde T e o
+	 * tipo do atributo. Permite ler atributos primitivos sem conversao para
+	 * objeto (<code>invokeExact</code>).
+	 */
+	public MethodHandle getTypedGetter() {
+		return typedGetter;
+	}
+
+	/**
+	 * Indica se o atributo pode ser alterado (possui metodo set ou nao e
+	 * <code>final</code>)
+	 */
+	public boolean isWritable() {
+		return setter != null;
+	}
+
+	/**
+	 * Altera o valor do atributo na entidade informada.
+	 *
+	 * @throws InvocationTargetException
+	 *             caso o metodo set lance uma excecao
+	 */
+	public void set(Object entity, Object value)
+			throws InvocationTargetException {
+		try {
+			setter.invokeExact(entity, value);
+		} catch (Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new InvocationTargetException(e);
+		}
+	}
+
+	/**
+	 * <code>MethodHandle</code> do tipo <code>(Object, T)void</code>, onde T e
+	 * o tipo do atributo, ou <code>null</code> quando o atributo nao pode ser
+	 * alterado.
+	 */
+	public MethodHandle getTypedSetter() {
+		return typedSetter;
+	}
+}
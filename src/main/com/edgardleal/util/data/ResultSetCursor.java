@@ -0,0 +1,162 @@
+package com.edgardleal.util.data;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Percorre um <code>ResultSet</code> sob demanda, convertendo uma linha por
+ * vez com um {@link RowMapper}. Nenhuma lista com todo o resultado e criada, e
+ * o driver busca as linhas em blocos de <code>fetchSize</code>.<br>
+ * O <code>ResultSet</code> e o <code>Statement</code> sao fechados quando a
+ * ultima linha e lida ou em {@link #close()} (ex.: quando o laco e
+ * interrompido). Utilize com try-with-resources:<br>
+ * <code>
+ * try (ResultSetCursor&lt;Cliente&gt; cursor = ResultSetCursor.select(connection, Cliente.class, 500)) {<br>
+ * &nbsp;&nbsp;for (Cliente cliente : cursor)<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;...<br>
+ * }
+ * </code><br>
+ * OBS: alguns drivers so respeitam o <code>fetchSize</code> em determinadas
+ * condicoes (PostgreSQL: conexao com autoCommit desligado; MySQL:
+ * <code>fetchSize</code> igual a <code>Integer.MIN_VALUE</code>).
+ *
+ * @author Edgard Leal
+ */
+public class ResultSetCursor<T> implements Iterator<T>, Iterable<T>,
+		AutoCloseable {
+	private final Statement statement;
+	private final ResultSet resultSet;
+	private final RowMapper<T> mapper;
+	private boolean fetched;
+	private boolean hasRow;
+	private boolean closed;
+
+	/**
+	 * Executa a consulta informada e retorna o cursor sobre o resultado.
+	 *
+	 * @param connection
+	 * @param sql
+	 * @param fetchSize
+	 *            quantidade de linhas buscadas no banco de cada vez
+	 * @param mapper
+	 * @return
+	 * @throws SQLException
+	 */
+	public static <T> ResultSetCursor<T> open(Connection connection,
+			String sql, int fetchSize, RowMapper<T> mapper)
+			throws SQLException {
+		PreparedStatement statement = connection.prepareStatement(sql,
+				ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+		try {
+			statement.setFetchSize(fetchSize);
+			return new ResultSetCursor<T>(statement,
+					statement.executeQuery(), mapper);
+		} catch (SQLException e) {
+			statement.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Retorna o cursor sobre todos os registros da classe informada (
+	 * {@link SQLGenerator#getSelectCommand(Class)}).
+	 */
+	public static <T> ResultSetCursor<T> select(Connection connection,
+			Class<T> type, int fetchSize) throws SQLException {
+		return open(connection, new SQLGenerator().getSelectCommand(type),
+				fetchSize, EntityRowMapper.of(type));
+	}
+
+	/**
+	 * @param statement
+	 *            fechado junto com o cursor; pode ser <code>null</code>
+	 * @param resultSet
+	 * @param mapper
+	 */
+	public ResultSetCursor(Statement statement, ResultSet resultSet,
+			RowMapper<T> mapper) {
+		this.statement = statement;
+		this.resultSet = resultSet;
+		this.mapper = mapper;
+	}
+
+	/**
+	 * <code>ResultSet</code> percorrido por este cursor
+	 */
+	public ResultSet getResultSet() {
+		return resultSet;
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		return this;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (!fetched && !closed) {
+			try {
+				hasRow = resultSet.next();
+				fetched = true;
+				if (!hasRow)
+					close();
+			} catch (SQLException e) {
+				closeQuietly();
+				throw new IllegalStateException(e);
+			}
+		}
+		return hasRow && !closed;
+	}
+
+	@Override
+	public T next() {
+		if (!hasNext())
+			throw new NoSuchElementException();
+		fetched = false;
+		try {
+			return mapper.mapRow(resultSet);
+		} catch (SQLException e) {
+			closeQuietly();
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * Fecha o <code>ResultSet</code> e o <code>Statement</code>. Pode ser
+	 * chamado mais de uma vez.
+	 */
+	@Override
+	public void close() throws SQLException {
+		if (closed)
+			return;
+		closed = true;
+		try {
+			resultSet.close();
+		} finally {
+			if (statement != null)
+				statement.close();
+		}
+	}
+
+	private void closeQuietly() {
+		try {
+			close();
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+}
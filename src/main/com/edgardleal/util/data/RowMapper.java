@@ -0,0 +1,18 @@
+package com.edgardleal.util.data;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Converte a linha atual de um <code>ResultSet</code> em um objeto.
+ *
+ * @author Edgard Leal
+ * @see EntityRowMapper
+ */
+public interface RowMapper<T> {
+
+	/**
+	 * Converte a linha atual, sem mover o cursor.
+	 */
+	T mapRow(ResultSet rs) throws SQLException;
+}
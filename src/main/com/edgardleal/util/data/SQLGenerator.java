@@ -3,26 +3,71 @@ package com.edgardleal.util.data;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-
-import javax.persistence.GeneratedValue;
-import javax.persistence.Id;
-import javax.persistence.Table;
-
-import org.apache.commons.beanutils.BeanUtils;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import com.edgardleal.util.Str;
-import com.edgardleal.util.Validator;
+import com.edgardleal.util.data.dialect.SQLDialect;
+import com.edgardleal.util.data.dialect.StandardDialect;
 
 public class SQLGenerator {
 	private final String WHERE = "WHERE";
-	final String equalString = " = ", QUOTED = "'%s'";
-	final String quotedEqualString = equalString + QUOTED + Str.SPACE;
-	final String COMMA = ",", NULL = "null";
+	final String equalString = " = ";
+	final String COMMA = ",";
+	/**
+	 * Quantidade padrao de linhas por comando INSERT com varias linhas
+	 */
+	public static final int DEFAULT_ROWS_PER_STATEMENT = 1000;
+	/**
+	 * Tamanho padrao (1MB) de cada comando INSERT com varias linhas
+	 */
+	public static final int DEFAULT_MAX_STATEMENT_BYTES = 1024 * 1024;
+	/**
+	 * Quantidade padrao de chaves por comando DELETE em lote
+	 */
+	public static final int DEFAULT_DELETE_CHUNK_SIZE = 1000;
+
+	private SQLDialect dialect = new StandardDialect();
+	private SQLListener listener = SQLListener.NONE;
 
 	public SQLGenerator() {
 
 	}
 
+	public SQLGenerator(SQLDialect dialect) {
+		setDialect(dialect);
+	}
+
+	public SQLDialect getDialect() {
+		return dialect;
+	}
+
+	/**
+	 * Define o dialeto utilizado nos comandos que variam de um banco de dados
+	 * para outro (ex.: "insert or update"). O padrao e
+	 * {@link StandardDialect}.
+	 */
+	public void setDialect(SQLDialect dialect) {
+		this.dialect = dialect;
+	}
+
+	public SQLListener getListener() {
+		return listener;
+	}
+
+	/**
+	 * Define quem recebe o tempo de geracao de cada comando e, pelo
+	 * {@link BatchWriter}, o tempo de execucao de cada lote (ex.:
+	 * {@link SQLMetrics}). O padrao, {@link SQLListener#NONE}, nao mede nada.
+	 */
+	public void setListener(SQLListener listener) {
+		this.listener = listener == null ? SQLListener.NONE : listener;
+	}
+
 	public Object getMethodValue(Method m, Object obj)
 			throws InvocationTargetException, IllegalAccessException {
 		return m.invoke(obj, new Object[0]);
@@ -35,110 +80,670 @@ public class SQLGenerator {
 	public Object getMethodValueToSQL(Field f, Object obj)
 			throws InvocationTargetException, IllegalAccessException,
 			NoSuchMethodException {
-		Object result = BeanUtils.getProperty(obj, f.getName());
-		if (result.toString().equals(NULL)
-				|| (isFieldNumber(f) && new Validator().isValidNumber(result)))
-			return result;
-		else
-			return String.format(QUOTED, result.toString());
+		ColumnMetadata column = EntityMetadata.of(f.getDeclaringClass())
+				.getColumn(f.getName());
+		if (column == null)
+			throw new NoSuchMethodException(f.getName());
+		return getValueToSQL(column.getValue(obj));
+	}
+
+	/**
+	 * Converte o valor informado (com o seu tipo original) para a sua
+	 * representacao em SQL, de acordo com o dialeto. Numeros sao retornados
+	 * sem apostofros e os apostrofos dos textos sao escapados.
+	 */
+	public Object getValueToSQL(Object value) {
+		return dialect.getLiteralEncoder().encode(value);
 	}
 
-	private boolean isFieldNumber(Field f) {
-		@SuppressWarnings("rawtypes")
-		Class _class = f.getType();
-		return _class.equals(int.class) || _class.equals(float.class)
-				|| _class.equals(double.class) || _class.equals(Integer.class)
-				|| _class.equals(Float.class) || _class.equals(Double.class);
+	/**
+	 * Adiciona em <code>result</code> a representacao em SQL do valor
+	 * informado, sem criar <code>String</code> intermediaria. Utilizado
+	 * tambem pelos {@link EntityMapper} gerados.
+	 */
+	public void appendValue(StringBuilder result, Object value) {
+		dialect.getLiteralEncoder().append(result, value);
+	}
+
+	/**
+	 * Versoes de {@link #appendValue(StringBuilder, Object)} para atributos
+	 * primitivos, evitando a conversao para objeto.
+	 */
+	public void appendValue(StringBuilder result, long value) {
+		dialect.getLiteralEncoder().append(result, value);
+	}
+
+	public void appendValue(StringBuilder result, double value) {
+		dialect.getLiteralEncoder().append(result, value);
+	}
+
+	public void appendValue(StringBuilder result, float value) {
+		dialect.getLiteralEncoder().append(result, value);
+	}
+
+	public void appendValue(StringBuilder result, boolean value) {
+		dialect.getLiteralEncoder().append(result, value);
+	}
+
+	public void appendValue(StringBuilder result, char value) {
+		dialect.getLiteralEncoder().append(result, value);
 	}
 
 	public String getUpdate(Object obj) throws Exception {
-		Field[] fields = obj.getClass().getDeclaredFields();
-		Class<? extends Object> classe = obj.getClass();
 		StringBuilder result = new StringBuilder();
-		StringBuilder condition = new StringBuilder();
-		String tableName = Str.EMPTY;
+		appendUpdate(obj, result);
+		return result.toString();
+	}
+
+	/**
+	 * Adiciona em <code>result</code> o comando UPDATE da entidade, sem criar
+	 * uma nova <code>String</code>.
+	 *
+	 * @see #getUpdate(Object)
+	 */
+	public void appendUpdate(Object obj, StringBuilder result)
+			throws InvocationTargetException {
+		if (listener == SQLListener.NONE) {
+			appendUpdateCommand(obj, result);
+			return;
+		}
+		long start = System.nanoTime();
+		int offset = result.length();
+		appendUpdateCommand(obj, result);
+		listener.statementGenerated(obj.getClass(), Operation.UPDATE,
+				System.nanoTime() - start, result.length() - offset);
+	}
 
-		tableName = getTableName(classe);
+	private void appendUpdateCommand(Object obj, StringBuilder result)
+			throws InvocationTargetException {
+		EntityMapper<Object> mapper = EntityMappers.forObject(obj);
+		if (mapper != null) {
+			mapper.appendUpdate(this, obj, result);
+			return;
+		}
+		EntityMetadata metadata = EntityMetadata.of(obj.getClass());
 
-		result.append(String.format("UPDATE %s SET ", tableName));
+		result.append("UPDATE ").append(metadata.getTableName())
+				.append(" SET ");
 		boolean started = false;
-		for (Field field : fields) {
-			if (field.isAnnotationPresent(Id.class)) {
-				condition
-						.append((Str.isNullOrEmpty(condition) ? Str.EMPTY
-								: " AND ")).append(field.getName())
-						.append(equalString)
-						.append(getMethodValueToSQL(field, obj));
-			} else {
-				result.append((started ? "," : Str.EMPTY))
-						.append(field.getName()).append(equalString)
-						.append(getMethodValueToSQL(field, obj));
-				started = true;
-			}
+		for (ColumnMetadata column : metadata.getUpdateColumns()) {
+			result.append((started ? COMMA : Str.EMPTY))
+					.append(column.getName()).append(equalString);
+			appendValue(result, column.getValue(obj));
+			started = true;
 		}
-		result.append(WHERE + Str.SPACE + condition);
-		return result.toString();
+		result.append(Str.SPACE).append(WHERE).append(Str.SPACE);
+		appendCondition(metadata, obj, result);
 	}
 
-	private String getTableName(Class<? extends Object> classe) {
-		String tableName = Str.EMPTY, schemaName = Str.EMPTY;
-		if (classe.isAnnotationPresent(Table.class)) {
-			tableName = classe.getAnnotation(Table.class).name();
-			schemaName = classe.getAnnotation(Table.class).schema();
-		} else
-			tableName = classe.getSimpleName();
+	/**
+	 * Gera um UPDATE somente com as colunas alteradas desde a copia
+	 * informada.
+	 *
+	 * @param obj
+	 * @param snapshot
+	 *            copia da entidade, feita com {@link EntitySnapshot#capture}
+	 * @return o comando ou <code>null</code> caso nenhuma coluna tenha mudado
+	 * @throws InvocationTargetException
+	 */
+	public String getUpdate(Object obj, EntitySnapshot snapshot)
+			throws InvocationTargetException {
+		StringBuilder result = new StringBuilder();
+		return appendUpdate(obj, snapshot, result) ? result.toString() : null;
+	}
 
-		tableName = schemaName.equals(Str.EMPTY) ? tableName : String.format(
-				"%s.%s", schemaName, tableName);
-		return tableName;
+	/**
+	 * Adiciona em <code>result</code> um UPDATE somente com as colunas
+	 * alteradas desde a copia informada.
+	 *
+	 * @return <code>false</code> (sem alterar <code>result</code>) caso
+	 *         nenhuma coluna tenha mudado
+	 * @see #getUpdate(Object, EntitySnapshot)
+	 */
+	public boolean appendUpdate(Object obj, EntitySnapshot snapshot,
+			StringBuilder result) throws InvocationTargetException {
+		List<ColumnMetadata> changed = snapshot.getChangedColumns(obj);
+		if (changed.isEmpty())
+			return false;
+		appendUpdate(obj, changed, result);
+		return true;
 	}
 
-	public String getInsertCommand(Object obj) {
-		Field[] fields = obj.getClass().getDeclaredFields();
-		StringBuilder fieldList = new StringBuilder();
-		StringBuilder valueList = new StringBuilder();
+	/**
+	 * Adiciona em <code>result</code> um UPDATE somente com as colunas
+	 * informadas (ex.: as colunas alteradas encontradas pelo
+	 * {@link EntityDiff}).
+	 */
+	public void appendUpdate(Object obj, List<ColumnMetadata> columns,
+			StringBuilder result) throws InvocationTargetException {
+		if (listener == SQLListener.NONE) {
+			appendUpdateCommand(obj, columns, result);
+			return;
+		}
+		long start = System.nanoTime();
+		int offset = result.length();
+		appendUpdateCommand(obj, columns, result);
+		listener.statementGenerated(obj.getClass(), Operation.UPDATE,
+				System.nanoTime() - start, result.length() - offset);
+	}
 
+	private void appendUpdateCommand(Object obj, List<ColumnMetadata> columns,
+			StringBuilder result) throws InvocationTargetException {
+		EntityMetadata metadata = EntityMetadata.of(obj.getClass());
+		result.append("UPDATE ").append(metadata.getTableName())
+				.append(" SET ");
 		boolean started = false;
-		for (Field field : fields) {
-			if (!field.isAnnotationPresent(GeneratedValue.class)) {
-				fieldList.append((started ? COMMA : Str.EMPTY)).append(
-						field.getName());
-				try {
-					valueList.append((started ? COMMA : Str.EMPTY)).append(
-							getMethodValueToSQL(field, obj));
-				} catch (InvocationTargetException | IllegalAccessException
-						| NoSuchMethodException e) {
-					e.printStackTrace();
-				}
-				started = true;
+		for (ColumnMetadata column : columns) {
+			result.append((started ? COMMA : Str.EMPTY))
+					.append(column.getName()).append(equalString);
+			appendValue(result, column.getValue(obj));
+			started = true;
+		}
+		result.append(Str.SPACE).append(WHERE).append(Str.SPACE);
+		appendCondition(metadata, obj, result);
+	}
+
+	/**
+	 * Adiciona em <code>result</code> a condicao formada pelas colunas
+	 * <code>@Id</code> da entidade. Ex.: "codigo = 1 AND serie = 'A'"
+	 */
+	private void appendCondition(EntityMetadata metadata, Object obj,
+			StringBuilder result) throws InvocationTargetException {
+		boolean started = false;
+		for (ColumnMetadata column : metadata.getKeyColumns()) {
+			result.append((started ? " AND " : Str.EMPTY))
+					.append(column.getName()).append(equalString);
+			appendValue(result, column.getValue(obj));
+			started = true;
+		}
+	}
+
+	/**
+	 * @throws IllegalStateException
+	 *             caso algum metodo get lance uma excecao
+	 */
+	public String getInsertCommand(Object obj) {
+		StringBuilder result = new StringBuilder();
+		try {
+			appendInsertCommand(obj, result);
+		} catch (InvocationTargetException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Adiciona em <code>result</code> o comando INSERT da entidade, sem criar
+	 * uma nova <code>String</code>.
+	 *
+	 * @see #getInsertCommand(Object)
+	 */
+	public void appendInsertCommand(Object obj, StringBuilder result)
+			throws InvocationTargetException {
+		if (listener == SQLListener.NONE) {
+			appendInsert(obj, result);
+			return;
+		}
+		long start = System.nanoTime();
+		int offset = result.length();
+		appendInsert(obj, result);
+		listener.statementGenerated(obj.getClass(), Operation.INSERT,
+				System.nanoTime() - start, result.length() - offset);
+	}
+
+	private void appendInsert(Object obj, StringBuilder result)
+			throws InvocationTargetException {
+		EntityMapper<Object> mapper = EntityMappers.forObject(obj);
+		if (mapper != null) {
+			mapper.appendInsertCommand(this, obj, result);
+			return;
+		}
+		EntityMetadata metadata = EntityMetadata.of(obj.getClass());
+		appendInsertPrefix(metadata, result);
+		appendInsertValues(metadata, obj, result);
+	}
+
+	/**
+	 * Gera comandos INSERT com varias linhas (
+	 * <code>INSERT INTO t (a,b) VALUES(1,'x'),(2,'y')</code>) utilizando os
+	 * limites padrao {@link #DEFAULT_ROWS_PER_STATEMENT} e
+	 * {@link #DEFAULT_MAX_STATEMENT_BYTES}.
+	 *
+	 * @see #getInsertCommand(Collection, int, int)
+	 */
+	public List<String> getInsertCommand(Collection<?> entities)
+			throws InvocationTargetException {
+		return getInsertCommand(entities, DEFAULT_ROWS_PER_STATEMENT,
+				DEFAULT_MAX_STATEMENT_BYTES);
+	}
+
+	/**
+	 * Gera comandos INSERT com varias linhas para as entidades informadas,
+	 * mantendo a ordem da colecao e a mesma ordem de colunas de
+	 * {@link #getInsertCommand(Object)}.<br>
+	 * Um novo comando e iniciado quando a classe da entidade muda ou quando um
+	 * dos limites seria ultrapassado. Uma linha maior que
+	 * <code>maxStatementBytes</code> gera um comando somente com ela.
+	 *
+	 * @param entities
+	 * @param rowsPerStatement
+	 *            quantidade maxima de linhas por comando
+	 * @param maxStatementBytes
+	 *            tamanho maximo de cada comando, em bytes (UTF-8)
+	 * @return
+	 */
+	public List<String> getInsertCommand(Collection<?> entities,
+			int rowsPerStatement, int maxStatementBytes)
+			throws InvocationTargetException {
+		return getMultiRowCommands(entities, rowsPerStatement,
+				maxStatementBytes, false);
+	}
+
+	/**
+	 * Gera o comando "insert or update" da entidade de acordo com o dialeto (
+	 * {@link #getDialect()}), utilizando as colunas <code>@Id</code> para
+	 * identificar o registro. Todas as colunas sao gravadas, inclusive as
+	 * geradas (<code>@GeneratedValue</code>), ja que fazem parte da chave.
+	 */
+	public String getUpsertCommand(Object obj)
+			throws InvocationTargetException {
+		List<String> result = getUpsertCommand(
+				Collections.singletonList(obj), 1,
+				Integer.MAX_VALUE);
+		return result.get(0);
+	}
+
+	/**
+	 * Gera comandos "insert or update" com varias linhas utilizando os limites
+	 * padrao {@link #DEFAULT_ROWS_PER_STATEMENT} e
+	 * {@link #DEFAULT_MAX_STATEMENT_BYTES}.
+	 *
+	 * @see #getUpsertCommand(Collection, int, int)
+	 */
+	public List<String> getUpsertCommand(Collection<?> entities)
+			throws InvocationTargetException {
+		return getUpsertCommand(entities, DEFAULT_ROWS_PER_STATEMENT,
+				DEFAULT_MAX_STATEMENT_BYTES);
+	}
+
+	/**
+	 * Gera comandos "insert or update" com varias linhas, com as mesmas regras
+	 * de divisao de {@link #getInsertCommand(Collection, int, int)}.<br>
+	 * Entidades com a mesma chave sao gravadas uma unica vez, com os valores da
+	 * ultima ocorrencia, ja que o mesmo comando nao pode alterar uma linha duas
+	 * vezes (Ex.: <code>ON CONFLICT</code> do PostgreSQL).
+	 *
+	 * @see #getUpsertCommand(Object)
+	 */
+	public List<String> getUpsertCommand(Collection<?> entities,
+			int rowsPerStatement, int maxStatementBytes)
+			throws InvocationTargetException {
+		return getMultiRowCommands(lastByKey(entities), rowsPerStatement,
+				maxStatementBytes, true);
+	}
+
+	/**
+	 * Mantem somente a ultima entidade de cada chave, na posicao da primeira
+	 * ocorrencia. Chaves ainda nao geradas pelo banco nao sao comparadas.
+	 */
+	private static Collection<?> lastByKey(Collection<?> entities)
+			throws InvocationTargetException {
+		Map<Object, Object> result = new LinkedHashMap<Object, Object>();
+		for (Object entity : entities) {
+			EntityKey key = EntityKey.of(entity);
+			result.put(key.isAssigned() ? key : new Object(), entity);
+		}
+		return result.values();
+	}
+
+	private List<String> getMultiRowCommands(Collection<?> entities,
+			int rowsPerStatement, int maxStatementBytes, boolean upsert)
+			throws InvocationTargetException {
+		if (rowsPerStatement < 1 || maxStatementBytes < 1)
+			throw new IllegalArgumentException(
+					"rowsPerStatement e maxStatementBytes devem ser maiores que zero");
+		List<String> result = new ArrayList<String>();
+		StringBuilder statement = new StringBuilder();
+		StringBuilder row = new StringBuilder();
+		StringBuilder suffix = new StringBuilder();
+		EntityMetadata current = null;
+		int rows = 0, bytes = 0, suffixBytes = 0;
+		long start = startTimer();
+
+		for (Object entity : entities) {
+			EntityMetadata metadata = EntityMetadata.of(entity.getClass());
+			if (upsert && metadata.getKeyColumns().isEmpty())
+				throw new IllegalArgumentException("Entidade sem @Id: "
+						+ metadata.getEntityClass().getName());
+			row.setLength(0);
+			if (upsert)
+				appendValues(metadata.getColumns(), entity, row);
+			else
+				appendInsertValues(metadata, entity, row);
+			int rowBytes = utf8Length(row) + 1;
+
+			if (metadata != current || rows >= rowsPerStatement
+					|| bytes + rowBytes + suffixBytes > maxStatementBytes) {
+				if (rows > 0)
+					start = addStatement(result, statement.append(suffix),
+							current, Operation.INSERT, start);
+				statement.setLength(0);
+				suffix.setLength(0);
+				if (upsert) {
+					dialect.appendUpsertPrefix(metadata, statement);
+					dialect.appendUpsertSuffix(metadata, suffix);
+				} else
+					appendInsertPrefix(metadata, statement);
+				bytes = utf8Length(statement);
+				suffixBytes = utf8Length(suffix);
+				rows = 0;
+				current = metadata;
 			}
+			if (rows > 0)
+				statement.append(COMMA);
+			statement.append(row);
+			bytes += rowBytes;
+			rows++;
 		}
+		if (rows > 0)
+			addStatement(result, statement.append(suffix), current,
+					Operation.INSERT, start);
+		return result;
+	}
 
-		return String.format("INSERT INTO %s (%s) VALUES(%s)",
-				getTableName(obj.getClass()), fieldList.toString(),
-				valueList.toString());
+	/**
+	 * Inicio da geracao de um comando, para {@link #addStatement}. Sem
+	 * listener, o tempo nao e medido.
+	 */
+	private long startTimer() {
+		return listener == SQLListener.NONE ? 0 : System.nanoTime();
 	}
 
-	public String getDeleteCommand(Object obj) {
-		Field[] fields = obj.getClass().getDeclaredFields();
-		StringBuilder condition = new StringBuilder();
+	/**
+	 * Adiciona o comando ao resultado e informa o listener. Retorna o inicio
+	 * do proximo comando.
+	 */
+	private long addStatement(List<String> result, CharSequence statement,
+			EntityMetadata metadata, Operation operation, long start) {
+		result.add(statement.toString());
+		if (listener == SQLListener.NONE)
+			return 0;
+		long end = System.nanoTime();
+		listener.statementGenerated(metadata.getEntityClass(), operation,
+				end - start, statement.length());
+		return end;
+	}
+
+	/**
+	 * "INSERT INTO tabela (a,b,c) VALUES"
+	 */
+	private void appendInsertPrefix(EntityMetadata metadata,
+			StringBuilder result) {
+		result.append("INSERT INTO ").append(metadata.getTableName())
+				.append(" (").append(metadata.getInsertColumnList())
+				.append(") VALUES");
+	}
 
+	/**
+	 * "(1,'a',null)"
+	 */
+	private void appendInsertValues(EntityMetadata metadata, Object obj,
+			StringBuilder result) throws InvocationTargetException {
+		EntityMapper<Object> mapper = EntityMappers.forObject(obj);
+		if (mapper != null) {
+			mapper.appendInsertValues(this, obj, result);
+			return;
+		}
+		appendValues(metadata.getInsertColumns(), obj, result);
+	}
+
+	/**
+	 * "(1,'a',null)" com os valores das colunas informadas
+	 */
+	private void appendValues(List<ColumnMetadata> columns, Object obj,
+			StringBuilder result) throws InvocationTargetException {
+		result.append('(');
 		boolean started = false;
-		for (Field field : fields) {
-			if (field.isAnnotationPresent(Id.class)) {
-				try {
-					condition.append(String.format("%s%s%s%s",
-							(started ? " AND " : Str.EMPTY), field.getName(),
-							equalString, getMethodValueToSQL(field, obj)));
-				} catch (InvocationTargetException | IllegalAccessException
-						| NoSuchMethodException e) {
-					e.printStackTrace();
-				}
-				started = true;
+		for (ColumnMetadata column : columns) {
+			result.append((started ? COMMA : Str.EMPTY));
+			appendValue(result, column.getValue(obj));
+			started = true;
+		}
+		result.append(')');
+	}
+
+	/**
+	 * Quantidade de bytes do texto informado quando codificado em UTF-8
+	 */
+	static int utf8Length(CharSequence value) {
+		int length = value.length(), result = length;
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			if (Character.isHighSurrogate(c)) {
+				result += 2;
+				i++;
+			} else if (c >= 0x800)
+				result += 2;
+			else if (c >= 0x80)
+				result++;
+		}
+		return result;
+	}
+
+	/**
+	 * @throws IllegalStateException
+	 *             caso algum metodo get lance uma excecao
+	 */
+	public String getDeleteCommand(Object obj) {
+		StringBuilder result = new StringBuilder();
+		try {
+			appendDeleteCommand(obj, result);
+		} catch (InvocationTargetException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+
+		return result.toString();
+	}
+
+	/**
+	 * Adiciona em <code>result</code> o comando DELETE da entidade, sem criar
+	 * uma nova <code>String</code>.
+	 *
+	 * @see #getDeleteCommand(Object)
+	 */
+	public void appendDeleteCommand(Object obj, StringBuilder result)
+			throws InvocationTargetException {
+		if (listener == SQLListener.NONE) {
+			appendDelete(obj, result);
+			return;
+		}
+		long start = System.nanoTime();
+		int offset = result.length();
+		appendDelete(obj, result);
+		listener.statementGenerated(obj.getClass(), Operation.DELETE,
+				System.nanoTime() - start, result.length() - offset);
+	}
+
+	private void appendDelete(Object obj, StringBuilder result)
+			throws InvocationTargetException {
+		EntityMapper<Object> mapper = EntityMappers.forObject(obj);
+		if (mapper != null) {
+			mapper.appendDeleteCommand(this, obj, result);
+			return;
+		}
+		EntityMetadata metadata = EntityMetadata.of(obj.getClass());
+
+		result.append("DELETE FROM ").append(metadata.getTableName())
+				.append(Str.SPACE).append(WHERE).append(Str.SPACE);
+		appendCondition(metadata, obj, result);
+	}
+
+	/**
+	 * Gera comandos DELETE em lote utilizando o tamanho padrao
+	 * {@link #DEFAULT_DELETE_CHUNK_SIZE}.
+	 *
+	 * @see #getDeleteCommand(Collection, int)
+	 */
+	public List<String> getDeleteCommand(Collection<?> entities)
+			throws InvocationTargetException {
+		return getDeleteCommand(entities, DEFAULT_DELETE_CHUNK_SIZE);
+	}
+
+	/**
+	 * Gera comandos DELETE em lote, com ate <code>chunkSize</code> entidades
+	 * por comando, utilizando as mesmas colunas <code>@Id</code> de
+	 * {@link #getDeleteCommand(Object)}.<br>
+	 * Chave simples: <code>DELETE FROM t WHERE codigo IN (1,2,3)</code><br>
+	 * Chave composta: <code>DELETE FROM t WHERE (a,b) IN ((1,2),(3,4))</code>
+	 * ou, quando o dialeto nao suporta comparacao de linhas,
+	 * <code>DELETE FROM t WHERE (a = 1 AND b = 2) OR (a = 3 AND b = 4)</code>
+	 * <br>
+	 * Um novo comando e iniciado quando a classe da entidade muda.
+	 *
+	 * @param entities
+	 * @param chunkSize
+	 * @return
+	 * @throws InvocationTargetException
+	 *             caso a leitura de alguma chave falhe
+	 */
+	public List<String> getDeleteCommand(Collection<?> entities, int chunkSize)
+			throws InvocationTargetException {
+		if (chunkSize < 1)
+			throw new IllegalArgumentException(
+					"chunkSize deve ser maior que zero");
+		List<String> result = new ArrayList<String>();
+		StringBuilder statement = new StringBuilder();
+		EntityMetadata current = null;
+		int rows = 0;
+		long start = startTimer();
+
+		for (Object entity : entities) {
+			EntityMetadata metadata = EntityMetadata.of(entity.getClass());
+			List<ColumnMetadata> keys = metadata.getKeyColumns();
+			if (keys.isEmpty())
+				throw new IllegalArgumentException("Entidade sem @Id: "
+						+ metadata.getEntityClass().getName());
+			boolean rowValues = keys.size() == 1
+					|| dialect.supportsRowValueIn();
+
+			if (metadata != current || rows >= chunkSize) {
+				if (rows > 0)
+					start = addStatement(result,
+							closeDeleteCommand(current, statement), current,
+							Operation.DELETE, start);
+				statement.setLength(0);
+				statement.append("DELETE FROM ")
+						.append(metadata.getTableName()).append(Str.SPACE)
+						.append(WHERE).append(Str.SPACE);
+				if (keys.size() == 1)
+					statement.append(keys.get(0).getName()).append(" IN (");
+				else if (rowValues)
+					statement.append('(')
+							.append(EntityMetadata.join(keys))
+							.append(") IN (");
+				rows = 0;
+				current = metadata;
 			}
+
+			if (rows > 0)
+				statement.append(rowValues ? COMMA : " OR ");
+			if (keys.size() == 1)
+				appendValue(statement, keys.get(0).getValue(entity));
+			else if (rowValues)
+				appendValues(keys, entity, statement);
+			else {
+				statement.append('(');
+				appendCondition(metadata, entity, statement);
+				statement.append(')');
+			}
+			rows++;
 		}
+		if (rows > 0)
+			addStatement(result, closeDeleteCommand(current, statement),
+					current, Operation.DELETE, start);
+		return result;
+	}
 
-		return String.format("DELETE FROM %s WHERE %s",
-				getTableName(obj.getClass()), condition.toString());
+	private String closeDeleteCommand(EntityMetadata metadata,
+			StringBuilder statement) {
+		if (metadata.getKeyColumns().size() == 1
+				|| dialect.supportsRowValueIn())
+			statement.append(')');
+		return statement.toString();
+	}
+
+	/**
+	 * Adiciona em <code>result</code> o comando da operacao informada.
+	 */
+	public void append(Operation operation, Object obj, StringBuilder result)
+			throws InvocationTargetException {
+		switch (operation) {
+		case INSERT:
+			appendInsertCommand(obj, result);
+			break;
+		case UPDATE:
+			appendUpdate(obj, result);
+			break;
+		case DELETE:
+			appendDeleteCommand(obj, result);
+			break;
+		}
+	}
+
+	/**
+	 * Retorna o comando INSERT parametrizado ("?") da classe informada. O
+	 * comando e montado uma unica vez por classe.
+	 */
+	public SQLTemplate getInsertTemplate(Class<?> type) {
+		return SQLTemplates.of(type).getInsert();
+	}
+
+	/**
+	 * Retorna o comando UPDATE parametrizado ("?") da classe informada, com a
+	 * condicao formada pelas colunas <code>@Id</code>.
+	 */
+	public SQLTemplate getUpdateTemplate(Class<?> type) {
+		return SQLTemplates.of(type).getUpdate();
+	}
+
+	/**
+	 * Retorna o comando DELETE parametrizado ("?") da classe informada, com a
+	 * condicao formada pelas colunas <code>@Id</code>.
+	 */
+	public SQLTemplate getDeleteTemplate(Class<?> type) {
+		return SQLTemplates.of(type).getDelete();
+	}
+
+	/**
+	 * Retorna o comando SELECT de todos os registros da classe informada, com
+	 * as colunas na ordem de declaracao dos atributos. Ex.: "SELECT
+	 * codigo,nome FROM cliente"
+	 */
+	public String getSelectCommand(Class<?> type) {
+		return SQLTemplates.of(type).getSelect();
+	}
+
+	/**
+	 * Retorna o comando SELECT do registro da entidade informada, identificado
+	 * pelas colunas <code>@Id</code>. Ex.: "SELECT codigo,nome FROM cliente
+	 * WHERE codigo = 1"
+	 */
+	public String getSelectByIdCommand(Object obj)
+			throws InvocationTargetException {
+		EntityMetadata metadata = EntityMetadata.of(obj.getClass());
+		StringBuilder result = new StringBuilder(getSelectCommand(obj
+				.getClass()));
+		result.append(Str.SPACE).append(WHERE).append(Str.SPACE);
+		appendCondition(metadata, obj, result);
+		return result.toString();
+	}
+
+	/**
+	 * Retorna o comando SELECT parametrizado ("?") da classe informada, com a
+	 * condicao formada pelas colunas <code>@Id</code>. Para ler o resultado,
+	 * utilize {@link EntityRowMapper}.
+	 */
+	public SQLTemplate getSelectByIdTemplate(Class<?> type) {
+		return SQLTemplates.of(type).getSelectById();
 	}
 }
@@ -0,0 +1,61 @@
+package com.edgardleal.util.data;
+
+/**
+ * Recebe as medicoes do {@link SQLGenerator} (geracao de cada comando) e do
+ * {@link BatchWriter} (execucao de cada lote). As implementacoes devem ser
+ * thread-safe e rapidas, ja que sao chamadas a cada comando.<br>
+ * Com {@link #NONE} (padrao), o tempo nao e medido.
+ *
+ * @author Edgard Leal
+ * @see SQLMetrics
+ */
+public interface SQLListener {
+
+	/**
+	 * Nao faz nada. O {@link SQLGenerator} compara o listener com esta
+	 * instancia para evitar a medicao do tempo.
+	 */
+	SQLListener NONE = new SQLListener() {
+		@Override
+		public void statementGenerated(Class<?> type, Operation operation,
+				long nanos, int length) {
+		}
+
+		@Override
+		public void batchExecuted(Class<?> type, Operation operation,
+				int size, long nanos) {
+		}
+	};
+
+	/**
+	 * Chamado apos a geracao de um comando com valores literais. Os comandos
+	 * com varias linhas (INSERT e DELETE em lote) sao informados uma vez por
+	 * comando; os comandos "insert or update" sao informados como
+	 * {@link Operation#INSERT}.
+	 *
+	 * @param type
+	 *            classe da entidade
+	 * @param operation
+	 * @param nanos
+	 *            tempo de geracao
+	 * @param length
+	 *            tamanho do comando, em caracteres
+	 */
+	void statementGenerated(Class<?> type, Operation operation, long nanos,
+			int length);
+
+	/**
+	 * Chamado apos a execucao de um lote pelo {@link BatchWriter}, inclusive
+	 * quando a execucao falha.
+	 *
+	 * @param type
+	 *            classe das entidades do lote
+	 * @param operation
+	 * @param size
+	 *            quantidade de entidades do lote
+	 * @param nanos
+	 *            tempo de <code>executeBatch()</code>
+	 */
+	void batchExecuted(Class<?> type, Operation operation, int size,
+			long nanos);
+}
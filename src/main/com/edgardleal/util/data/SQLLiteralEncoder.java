@@ -0,0 +1,230 @@
+package com.edgardleal.util.data;
+
+import java.math.BigDecimal;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * Escreve valores como literais SQL diretamente no <code>StringBuilder</code>
+ * informado, em uma unica passagem e sem <code>String.format</code>.<br>
+ * Textos sao delimitados por apostrofos e os apostrofos internos sao
+ * duplicados (<code>O'Neil</code> -&gt; <code>'O''Neil'</code>); quando
+ * <code>backslashEscapes</code> e verdadeiro (MySQL), a barra invertida e o
+ * caractere nulo tambem sao escapados.<br>
+ * Numeros, booleanos, <code>null</code> e datas sao escritos sem conversao
+ * intermediaria para <code>String</code>:<br>
+ * <code>
+ * null -&gt; null<br>
+ * 10 -&gt; 10<br>
+ * true -&gt; TRUE<br>
+ * java.sql.Date -&gt; '2012-01-31'<br>
+ * java.util.Date -&gt; '2012-01-31 10:20:30.400'<br>
+ * java.util.Calendar -&gt; '2012-01-31 10:20:30.400'<br>
+ * byte[] -&gt; X'0AFF'
+ * </code>
+ *
+ * @author Edgard Leal
+ */
+public class SQLLiteralEncoder {
+	/**
+	 * Literais do padrao SQL: apenas o apostrofo e escapado
+	 */
+	public static final SQLLiteralEncoder STANDARD = new SQLLiteralEncoder(
+			false);
+	private static final String NULL = "null";
+	private static final char QUOTE = '\'';
+	private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+	private static final ThreadLocal<Calendar> CALENDAR = new ThreadLocal<Calendar>() {
+		@Override
+		protected Calendar initialValue() {
+			return Calendar.getInstance();
+		}
+	};
+
+	private final boolean backslashEscapes;
+
+	/**
+	 * @param backslashEscapes
+	 *            indica se o banco interpreta a barra invertida dentro de
+	 *            textos (ex.: MySQL sem NO_BACKSLASH_ESCAPES)
+	 */
+	public SQLLiteralEncoder(boolean backslashEscapes) {
+		this.backslashEscapes = backslashEscapes;
+	}
+
+	/**
+	 * Adiciona em <code>result</code> o literal SQL do valor informado.
+	 */
+	public void append(StringBuilder result, Object value) {
+		if (value == null)
+			result.append(NULL);
+		else if (value instanceof Integer || value instanceof Long
+				|| value instanceof Short || value instanceof Byte)
+			result.append(((Number) value).longValue());
+		else if (value instanceof Double)
+			appendDouble(result, ((Double) value).doubleValue());
+		else if (value instanceof Float)
+			append(result, ((Float) value).floatValue());
+		else if (value instanceof BigDecimal)
+			result.append(((BigDecimal) value).toPlainString());
+		else if (value instanceof Number)
+			result.append(value.toString());
+		else if (value instanceof Boolean)
+			append(result, ((Boolean) value).booleanValue());
+		else if (value instanceof CharSequence)
+			appendString(result, (CharSequence) value);
+		else if (value instanceof Date)
+			appendDate(result, (Date) value);
+		else if (value instanceof Calendar)
+			appendDate(result, ((Calendar) value).getTime());
+		else if (value instanceof byte[])
+			appendBytes(result, (byte[]) value);
+		else
+			appendString(result, value.toString());
+	}
+
+	public void append(StringBuilder result, long value) {
+		result.append(value);
+	}
+
+	public void append(StringBuilder result, double value) {
+		appendDouble(result, value);
+	}
+
+	/**
+	 * Escrito com a precisao do <code>float</code> (1.1f -&gt; 1.1)
+	 */
+	public void append(StringBuilder result, float value) {
+		if (Float.isNaN(value) || Float.isInfinite(value))
+			appendDouble(result, value);
+		else
+			result.append(value);
+	}
+
+	public void append(StringBuilder result, boolean value) {
+		result.append(value ? "TRUE" : "FALSE");
+	}
+
+	public void append(StringBuilder result, char value) {
+		result.append(QUOTE);
+		if (value == QUOTE)
+			result.append(QUOTE);
+		else if (backslashEscapes && (value == '\\' || value == 0)) {
+			result.append('\\');
+			value = value == 0 ? '0' : value;
+		}
+		result.append(value).append(QUOTE);
+	}
+
+	/**
+	 * Retorna o literal SQL do valor informado.
+	 */
+	public String encode(Object value) {
+		StringBuilder result = new StringBuilder();
+		append(result, value);
+		return result.toString();
+	}
+
+	/**
+	 * NaN e infinito nao possuem literal numerico e sao escritos como texto.
+	 */
+	protected void appendDouble(StringBuilder result, double value) {
+		if (Double.isNaN(value) || Double.isInfinite(value))
+			result.append(QUOTE).append(value).append(QUOTE);
+		else
+			result.append(value);
+	}
+
+	/**
+	 * Escreve o texto entre apostrofos, copiando os trechos sem caracteres
+	 * especiais de uma unica vez.
+	 */
+	protected void appendString(StringBuilder result, CharSequence value) {
+		result.append(QUOTE);
+		int start = 0, length = value.length();
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			if (c == QUOTE) {
+				result.append(value, start, i).append(QUOTE).append(QUOTE);
+				start = i + 1;
+			} else if (backslashEscapes && (c == '\\' || c == 0)) {
+				result.append(value, start, i).append('\\')
+						.append(c == 0 ? '0' : c);
+				start = i + 1;
+			}
+		}
+		result.append(value, start, length).append(QUOTE);
+	}
+
+	/**
+	 * Data entre apostrofos, no formato de {@link #appendDateText}
+	 */
+	protected void appendDate(StringBuilder result, Date value) {
+		appendDateText(result.append(QUOTE), value);
+		result.append(QUOTE);
+	}
+
+	/**
+	 * <code>java.sql.Date</code>: aaaa-mm-dd; <code>java.sql.Time</code>:
+	 * hh:mm:ss; demais: aaaa-mm-dd hh:mm:ss[.fracao]
+	 */
+	static void appendDateText(StringBuilder result, Date value) {
+		Calendar calendar = CALENDAR.get();
+		calendar.setTime(value);
+		if (!(value instanceof Time)) {
+			pad(result, calendar.get(Calendar.YEAR), 4).append('-');
+			pad(result, calendar.get(Calendar.MONTH) + 1, 2).append('-');
+			pad(result, calendar.get(Calendar.DAY_OF_MONTH), 2);
+		}
+		if (!(value instanceof java.sql.Date)) {
+			if (!(value instanceof Time))
+				result.append(' ');
+			pad(result, calendar.get(Calendar.HOUR_OF_DAY), 2).append(':');
+			pad(result, calendar.get(Calendar.MINUTE), 2).append(':');
+			pad(result, calendar.get(Calendar.SECOND), 2);
+			if (value instanceof Timestamp)
+				appendFraction(result, ((Timestamp) value).getNanos(), 9);
+			else if (!(value instanceof Time))
+				appendFraction(result, calendar.get(Calendar.MILLISECOND), 3);
+		}
+	}
+
+	/**
+	 * Adiciona ".fracao" sem os zeros a direita, ou nada quando zero.
+	 */
+	private static void appendFraction(StringBuilder result, int value,
+			int digits) {
+		if (value == 0)
+			return;
+		while (value % 10 == 0) {
+			value /= 10;
+			digits--;
+		}
+		pad(result.append('.'), value, digits);
+	}
+
+	private static StringBuilder pad(StringBuilder result, int value,
+			int digits) {
+		for (int limit = 10; digits > 1 && limit <= value; limit *= 10)
+			digits--;
+		while (--digits > 0)
+			result.append('0');
+		return result.append(value);
+	}
+
+	/**
+	 * Literal hexadecimal. Ex.: X'0AFF'
+	 */
+	protected void appendBytes(StringBuilder result, byte[] value) {
+		result.append('X').append(QUOTE);
+		appendHex(result, value);
+		result.append(QUOTE);
+	}
+
+	protected static void appendHex(StringBuilder result, byte[] value) {
+		for (byte b : value)
+			result.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+	}
+}
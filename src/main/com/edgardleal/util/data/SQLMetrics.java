@@ -0,0 +1,200 @@
+package com.edgardleal.util.data;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * {@link SQLListener} que acumula as medicoes em memoria: quantidades por
+ * classe de entidade e histogramas ({@link LogHistogram}) do tempo de
+ * geracao, do tamanho dos comandos, do tamanho dos lotes e do tempo de
+ * execucao. Pode ser publicado via JMX com {@link #register(String)}.<br>
+ * Ex.:<br>
+ * <code>
+ * SQLMetrics metrics = new SQLMetrics();<br>
+ * metrics.register("vendas");<br>
+ * generator.setListener(metrics);
+ * </code>
+ *
+ * @author Edgard Leal
+ */
+public class SQLMetrics implements SQLListener, SQLMetricsMBean {
+	public static final String DOMAIN = "com.edgardleal.util.data";
+
+	private final LogHistogram generationNanos = new LogHistogram();
+	private final LogHistogram statementLength = new LogHistogram();
+	private final LogHistogram batchSize = new LogHistogram();
+	private final LogHistogram executionNanos = new LogHistogram();
+	/**
+	 * Por classe: comandos gerados e entidades gravadas, por operacao
+	 */
+	private final ConcurrentMap<Class<?>, AtomicLongArray> counts = new ConcurrentHashMap<Class<?>, AtomicLongArray>();
+
+	@Override
+	public void statementGenerated(Class<?> type, Operation operation,
+			long nanos, int length) {
+		generationNanos.record(nanos);
+		statementLength.record(length);
+		getCounts(type).incrementAndGet(operation.ordinal());
+	}
+
+	@Override
+	public void batchExecuted(Class<?> type, Operation operation, int size,
+			long nanos) {
+		batchSize.record(size);
+		executionNanos.record(nanos);
+		getCounts(type).addAndGet(
+				Operation.values().length + operation.ordinal(), size);
+	}
+
+	private AtomicLongArray getCounts(Class<?> type) {
+		AtomicLongArray result = counts.get(type);
+		if (result == null) {
+			AtomicLongArray created = new AtomicLongArray(
+					Operation.values().length * 2);
+			result = counts.putIfAbsent(type, created);
+			if (result == null)
+				result = created;
+		}
+		return result;
+	}
+
+	/**
+	 * Quantidade de comandos gerados para a classe e operacao informadas
+	 */
+	public long getGeneratedCount(Class<?> type, Operation operation) {
+		AtomicLongArray result = counts.get(type);
+		return result == null ? 0 : result.get(operation.ordinal());
+	}
+
+	/**
+	 * Quantidade de entidades da classe informada gravadas em lote
+	 */
+	public long getExecutedCount(Class<?> type, Operation operation) {
+		AtomicLongArray result = counts.get(type);
+		return result == null ? 0 : result.get(Operation.values().length
+				+ operation.ordinal());
+	}
+
+	public LogHistogram getGenerationNanos() {
+		return generationNanos;
+	}
+
+	public LogHistogram getStatementLength() {
+		return statementLength;
+	}
+
+	public LogHistogram getBatchSize() {
+		return batchSize;
+	}
+
+	public LogHistogram getExecutionNanos() {
+		return executionNanos;
+	}
+
+	@Override
+	public long getStatementCount() {
+		return generationNanos.getCount();
+	}
+
+	@Override
+	public double getGenerationNanosMean() {
+		return generationNanos.getMean();
+	}
+
+	@Override
+	public long getGenerationNanosP99() {
+		return generationNanos.getPercentile(99);
+	}
+
+	@Override
+	public double getStatementLengthMean() {
+		return statementLength.getMean();
+	}
+
+	@Override
+	public long getStatementLengthMax() {
+		return statementLength.getMax();
+	}
+
+	@Override
+	public long getBatchCount() {
+		return batchSize.getCount();
+	}
+
+	@Override
+	public double getBatchSizeMean() {
+		return batchSize.getMean();
+	}
+
+	@Override
+	public double getExecutionNanosMean() {
+		return executionNanos.getMean();
+	}
+
+	@Override
+	public long getExecutionNanosP50() {
+		return executionNanos.getPercentile(50);
+	}
+
+	@Override
+	public long getExecutionNanosP99() {
+		return executionNanos.getPercentile(99);
+	}
+
+	@Override
+	public long getExecutionNanosMax() {
+		return executionNanos.getMax();
+	}
+
+	@Override
+	public String[] getEntityCounts() {
+		List<String> result = new ArrayList<String>();
+		Operation[] operations = Operation.values();
+		for (Map.Entry<Class<?>, AtomicLongArray> entry : counts.entrySet()) {
+			StringBuilder line = new StringBuilder(entry.getKey().getName());
+			for (Operation operation : operations)
+				line.append(' ').append(operation).append('=')
+						.append(entry.getValue().get(operation.ordinal()))
+						.append('/')
+						.append(entry.getValue().get(
+								operations.length + operation.ordinal()));
+			result.add(line.toString());
+		}
+		return result.toArray(new String[result.size()]);
+	}
+
+	@Override
+	public void reset() {
+		generationNanos.reset();
+		statementLength.reset();
+		batchSize.reset();
+		executionNanos.reset();
+		counts.clear();
+	}
+
+	/**
+	 * Publica as medicoes no MBeanServer da plataforma com o nome
+	 * <code>com.edgardleal.util.data:type=SQLMetrics,name=&lt;name&gt;</code>.
+	 *
+	 * @return o nome registrado, para {@link #unregister(ObjectName)}
+	 */
+	public ObjectName register(String name) throws JMException {
+		ObjectName objectName = new ObjectName(DOMAIN + ":type=SQLMetrics,name="
+				+ ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+				objectName);
+		return objectName;
+	}
+
+	public static void unregister(ObjectName name) throws JMException {
+		ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+	}
+}
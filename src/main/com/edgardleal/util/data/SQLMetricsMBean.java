@@ -0,0 +1,40 @@
+package com.edgardleal.util.data;
+
+/**
+ * Atributos de {@link SQLMetrics} publicados via JMX. Tempos em nanossegundos.
+ *
+ * @author Edgard Leal
+ */
+public interface SQLMetricsMBean {
+
+	long getStatementCount();
+
+	double getGenerationNanosMean();
+
+	long getGenerationNanosP99();
+
+	double getStatementLengthMean();
+
+	long getStatementLengthMax();
+
+	long getBatchCount();
+
+	double getBatchSizeMean();
+
+	double getExecutionNanosMean();
+
+	long getExecutionNanosP50();
+
+	long getExecutionNanosP99();
+
+	long getExecutionNanosMax();
+
+	/**
+	 * Uma linha por classe de entidade, com a quantidade de comandos gerados
+	 * e de entidades gravadas em lote por operacao. Ex.:
+	 * "Cliente INSERT=10/500 UPDATE=0/0 DELETE=2/0"
+	 */
+	String[] getEntityCounts();
+
+	void reset();
+}
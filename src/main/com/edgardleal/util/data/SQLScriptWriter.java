@@ -0,0 +1,211 @@
+package com.edgardleal.util.data;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.util.List;
+
+/**
+ * Escreve um script SQL (um comando por linha, terminado por ";") diretamente
+ * em um <code>Appendable</code>, <code>Writer</code>,
+ * <code>OutputStream</code> ou <code>WritableByteChannel</code>.<br>
+ * Os comandos sao montados pelo {@link SQLGenerator} em um unico buffer
+ * reutilizado, que e descarregado no destino sempre que atinge
+ * <code>bufferSize</code> caracteres. Assim, a memoria utilizada nao depende
+ * da quantidade de entidades exportadas.<br>
+ * Ex.:<br>
+ * <code>
+ * SQLScriptWriter writer = new SQLScriptWriter(new FileOutputStream("dump.sql"), Charset.forName("UTF-8"));<br>
+ * for (Cliente cliente : clientes)<br>
+ * &nbsp;&nbsp;writer.writeInsert(cliente);<br>
+ * writer.close();
+ * </code>
+ *
+ * @author Edgard Leal
+ */
+public class SQLScriptWriter implements Flushable, AutoCloseable {
+	public static final int DEFAULT_BUFFER_SIZE = 8192;
+	private static final String STATEMENT_END = ";\n";
+
+	private final SQLGenerator generator;
+	private final Appendable appendable;
+	private final Writer writer;
+	private final WritableByteChannel channel;
+	private final CharsetEncoder encoder;
+	private final ByteBuffer bytes;
+	private final int bufferSize;
+	private final StringBuilder buffer;
+	private char[] chars = new char[0];
+
+	public SQLScriptWriter(Appendable out) {
+		this(out, new SQLGenerator(), DEFAULT_BUFFER_SIZE);
+	}
+
+	public SQLScriptWriter(Appendable out, SQLGenerator generator,
+			int bufferSize) {
+		this(generator, out, null, null, bufferSize);
+	}
+
+	public SQLScriptWriter(OutputStream out, Charset charset) {
+		this(Channels.newChannel(out), charset);
+	}
+
+	public SQLScriptWriter(WritableByteChannel channel, Charset charset) {
+		this(channel, charset, new SQLGenerator(), DEFAULT_BUFFER_SIZE);
+	}
+
+	public SQLScriptWriter(WritableByteChannel channel, Charset charset,
+			SQLGenerator generator, int bufferSize) {
+		this(generator, null, channel, charset, bufferSize);
+	}
+
+	private SQLScriptWriter(SQLGenerator generator, Appendable out,
+			WritableByteChannel channel, Charset charset, int bufferSize) {
+		this.generator = generator;
+		this.appendable = out;
+		this.writer = out instanceof Writer ? (Writer) out : null;
+		this.channel = channel;
+		this.encoder = charset == null ? null : charset.newEncoder();
+		this.bytes = charset == null ? null : ByteBuffer
+				.allocate((int) (bufferSize * encoder.maxBytesPerChar()));
+		this.bufferSize = bufferSize;
+		this.buffer = new StringBuilder(bufferSize + bufferSize / 2);
+	}
+
+	public void writeInsert(Object entity) throws IOException {
+		write(Operation.INSERT, entity);
+	}
+
+	public void writeUpdate(Object entity) throws IOException {
+		write(Operation.UPDATE, entity);
+	}
+
+	public void writeDelete(Object entity) throws IOException {
+		write(Operation.DELETE, entity);
+	}
+
+	/**
+	 * Escreve o comando de cada entidade informada.
+	 */
+	public void write(Iterable<?> entities, Operation operation)
+			throws IOException {
+		for (Object entity : entities)
+			write(operation, entity);
+	}
+
+	/**
+	 * Escreve o comando da operacao informada, seguido de ";" e quebra de
+	 * linha.
+	 */
+	public void write(Operation operation, Object entity) throws IOException {
+		int start = buffer.length();
+		try {
+			generator.append(operation, entity, buffer);
+		} catch (InvocationTargetException e) {
+			buffer.setLength(start);
+			throw new IOException(e.getCause());
+		}
+		buffer.append(STATEMENT_END);
+		if (buffer.length() >= bufferSize)
+			drain(false);
+	}
+
+	/**
+	 * Escreve um UPDATE somente com as colunas informadas.
+	 */
+	public void writeUpdate(Object entity, List<ColumnMetadata> columns)
+			throws IOException {
+		int start = buffer.length();
+		try {
+			generator.appendUpdate(entity, columns, buffer);
+		} catch (InvocationTargetException e) {
+			buffer.setLength(start);
+			throw new IOException(e.getCause());
+		}
+		buffer.append(STATEMENT_END);
+		if (buffer.length() >= bufferSize)
+			drain(false);
+	}
+
+	/**
+	 * Escreve um texto qualquer no script (ex.: comentarios, BEGIN/COMMIT).
+	 */
+	public void writeRaw(CharSequence text) throws IOException {
+		buffer.append(text);
+		if (buffer.length() >= bufferSize)
+			drain(false);
+	}
+
+	private void drain(boolean endOfInput) throws IOException {
+		if (channel != null) {
+			// um caractere incompleto (surrogate) permanece no buffer
+			buffer.delete(0, encode(endOfInput));
+			return;
+		} else if (writer != null) {
+			int length = buffer.length();
+			if (chars.length < length)
+				chars = new char[Math.max(length, bufferSize)];
+			buffer.getChars(0, length, chars, 0);
+			writer.write(chars, 0, length);
+		} else
+			appendable.append(buffer);
+		buffer.setLength(0);
+	}
+
+	private int encode(boolean endOfInput) throws IOException {
+		CharBuffer input = CharBuffer.wrap(buffer);
+		CoderResult result;
+		do {
+			result = encoder.encode(input, bytes, endOfInput);
+			if (result.isError())
+				result.throwException();
+			writeBytes();
+		} while (result.isOverflow());
+		if (endOfInput) {
+			while (encoder.flush(bytes).isOverflow())
+				writeBytes();
+			writeBytes();
+			encoder.reset();
+		}
+		return input.position();
+	}
+
+	private void writeBytes() throws IOException {
+		bytes.flip();
+		while (bytes.hasRemaining())
+			channel.write(bytes);
+		bytes.clear();
+	}
+
+	/**
+	 * Descarrega o buffer no destino.
+	 */
+	@Override
+	public void flush() throws IOException {
+		drain(true);
+		if (writer != null)
+			writer.flush();
+	}
+
+	/**
+	 * Descarrega o buffer e fecha o destino, quando este for um
+	 * <code>Writer</code> ou um canal.
+	 */
+	@Override
+	public void close() throws IOException {
+		flush();
+		if (channel != null)
+			channel.close();
+		else if (writer != null)
+			writer.close();
+	}
+}
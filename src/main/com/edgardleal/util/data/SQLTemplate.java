@@ -0,0 +1,91 @@
+package com.edgardleal.util.data;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Comando SQL com parametros ("?") e a lista de colunas correspondente a cada
+ * parametro, na ordem em que aparecem no comando.<br>
+ * Ex.:<br>
+ * <code>
+ * SQLTemplate insert = generator.getInsertTemplate(Cliente.class);<br>
+ * PreparedStatement statement = connection.prepareStatement(insert.getSql());<br>
+ * insert.bind(statement, cliente);<br>
+ * statement.executeUpdate();
+ * </code>
+ *
+ * @author Edgard Leal
+ */
+public class SQLTemplate {
+	private final String sql;
+	private final List<ColumnMetadata> parameters;
+	private final Operation operation;
+	private final EntityMapper<Object> mapper;
+
+	SQLTemplate(String sql, List<ColumnMetadata> parameters,
+			Operation operation, EntityMapper<Object> mapper) {
+		this.sql = sql;
+		this.parameters = Collections.unmodifiableList(parameters);
+		this.operation = operation;
+		this.mapper = mapper;
+	}
+
+	/**
+	 * Operacao do comando ou <code>null</code> para consultas
+	 */
+	public Operation getOperation() {
+		return operation;
+	}
+
+	public String getSql() {
+		return sql;
+	}
+
+	/**
+	 * Colunas correspondentes aos parametros do comando
+	 */
+	public List<ColumnMetadata> getParameters() {
+		return parameters;
+	}
+
+	/**
+	 * Passa os valores da entidade para os parametros do comando.
+	 *
+	 * @param statement
+	 *            comando preparado a partir de {@link #getSql()}
+	 * @param entity
+	 * @throws SQLException
+	 */
+	public void bind(PreparedStatement statement, Object entity)
+			throws SQLException {
+		if (mapper != null) {
+			bindWithMapper(statement, entity);
+			return;
+		}
+		int index = 1;
+		for (ColumnMetadata column : parameters)
+			column.bind(statement, index++, entity);
+	}
+
+	private void bindWithMapper(PreparedStatement statement, Object entity)
+			throws SQLException {
+		switch (operation) {
+		case INSERT:
+			mapper.bindInsert(statement, entity);
+			break;
+		case UPDATE:
+			mapper.bindUpdate(statement, entity);
+			break;
+		case DELETE:
+			mapper.bindDelete(statement, entity);
+			break;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return sql;
+	}
+}
@@ -0,0 +1,108 @@
+package com.edgardleal.util.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.edgardleal.util.Str;
+
+/**
+ * Comandos parametrizados (INSERT, UPDATE, DELETE e SELECT por
+ * <code>@Id</code>) de uma entidade, montados uma unica vez por classe. Como o texto do comando nao
+ * muda de uma entidade para outra, o banco de dados pode reaproveitar o mesmo
+ * plano de execucao.
+ *
+ * @author Edgard Leal
+ */
+class SQLTemplates {
+	private static final ClassValue<SQLTemplates> REGISTRY = new ClassValue<SQLTemplates>() {
+		@Override
+		protected SQLTemplates computeValue(Class<?> type) {
+			return new SQLTemplates(EntityMetadata.of(type));
+		}
+	};
+
+	private final SQLTemplate insert;
+	private final SQLTemplate update;
+	private final SQLTemplate delete;
+	private final String select;
+	private final SQLTemplate selectById;
+
+	static SQLTemplates of(Class<?> type) {
+		return REGISTRY.get(type);
+	}
+
+	@SuppressWarnings("unchecked")
+	private SQLTemplates(EntityMetadata metadata) {
+		EntityMapper<Object> mapper = (EntityMapper<Object>) EntityMappers
+				.find(metadata.getEntityClass());
+		StringBuilder sql = new StringBuilder();
+		sql.append("INSERT INTO ").append(metadata.getTableName())
+				.append(" (").append(metadata.getInsertColumnList())
+				.append(") VALUES(");
+		appendPlaceholders(sql, metadata.getInsertColumns().size());
+		insert = new SQLTemplate(sql.append(")").toString(),
+				metadata.getInsertColumns(), Operation.INSERT, mapper);
+
+		sql.setLength(0);
+		sql.append("UPDATE ").append(metadata.getTableName()).append(" SET ");
+		appendAssignments(sql, metadata.getUpdateColumns(), ",");
+		sql.append(" WHERE ");
+		appendAssignments(sql, metadata.getKeyColumns(), " AND ");
+		List<ColumnMetadata> parameters = new ArrayList<ColumnMetadata>(
+				metadata.getUpdateColumns());
+		parameters.addAll(metadata.getKeyColumns());
+		update = new SQLTemplate(sql.toString(), parameters,
+				Operation.UPDATE, mapper);
+
+		sql.setLength(0);
+		sql.append("DELETE FROM ").append(metadata.getTableName())
+				.append(" WHERE ");
+		appendAssignments(sql, metadata.getKeyColumns(), " AND ");
+		delete = new SQLTemplate(sql.toString(), metadata.getKeyColumns(),
+				Operation.DELETE, mapper);
+
+		sql.setLength(0);
+		sql.append("SELECT ").append(metadata.getColumnList())
+				.append(" FROM ").append(metadata.getTableName());
+		select = sql.toString();
+		sql.append(" WHERE ");
+		appendAssignments(sql, metadata.getKeyColumns(), " AND ");
+		selectById = new SQLTemplate(sql.toString(),
+				metadata.getKeyColumns(), null, null);
+	}
+
+	private static void appendPlaceholders(StringBuilder sql, int count) {
+		for (int i = 0; i < count; i++)
+			sql.append(i == 0 ? Str.EMPTY : ",").append('?');
+	}
+
+	private static void appendAssignments(StringBuilder sql,
+			List<ColumnMetadata> columns, String separator) {
+		boolean started = false;
+		for (ColumnMetadata column : columns) {
+			sql.append(started ? separator : Str.EMPTY)
+					.append(column.getName()).append(" = ?");
+			started = true;
+		}
+	}
+
+	SQLTemplate getInsert() {
+		return insert;
+	}
+
+	SQLTemplate getUpdate() {
+		return update;
+	}
+
+	SQLTemplate getDelete() {
+		return delete;
+	}
+
+	String getSelect() {
+		return select;
+	}
+
+	SQLTemplate getSelectById() {
+		return selectById;
+	}
+}
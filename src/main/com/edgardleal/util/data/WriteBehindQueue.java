@@ -0,0 +1,362 @@
+package com.edgardleal.util.data;
+
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fila de gravacao assincrona ("write-behind"): as operacoes sao registradas
+ * sem esperar pelo banco e gravadas em lotes ({@link BatchWriter}) por uma
+ * thread propria, a cada <code>flushIntervalMillis</code> ou quando a fila
+ * fica cheia.<br>
+ * As operacoes pendentes sobre a mesma entidade (mesma {@link EntityKey}) sao
+ * combinadas e somente o ultimo estado e gravado:<br>
+ * <code>
+ * INSERT + UPDATE -&gt; INSERT<br>
+ * INSERT + DELETE -&gt; (nada)<br>
+ * UPDATE + DELETE -&gt; DELETE<br>
+ * UPDATE + INSERT -&gt; UPDATE (o registro ja existe)<br>
+ * DELETE + INSERT -&gt; UPDATE<br>
+ * </code>
+ * Entidades novas cuja chave <code>@GeneratedValue</code> ainda nao foi
+ * atribuida (ver {@link EntityKey#isAssigned()}) sao combinadas somente com
+ * operacoes sobre a mesma instancia.<br>
+ * Os valores sao lidos da entidade no momento da gravacao, e nao no momento
+ * da chamada.<br>
+ * As operacoes sao gravadas na ordem em que cada entidade entrou na fila: um
+ * novo lote e iniciado a cada mudanca de classe ou operacao (ver
+ * {@link BatchWriter}), de modo que um DELETE registrado antes de um INSERT
+ * e executado antes dele.<br>
+ * A fila guarda no maximo <code>capacity</code> entidades diferentes; quando
+ * cheia, quem chama {@link #insert(Object)}, {@link #update(Object)} ou
+ * {@link #delete(Object)} aguarda a proxima gravacao (operacoes sobre
+ * entidades que ja estao na fila nao aguardam).<br>
+ * A conexao e utilizada somente pela thread de gravacao e por
+ * {@link #flush()}. Quando o autoCommit esta desligado, cada gravacao e
+ * confirmada (<code>commit</code>) ou desfeita (<code>rollback</code>). Em
+ * caso de erro (inclusive excecoes nao verificadas, como as do
+ * {@link BatchListener}), as operacoes daquela gravacao sao descartadas e o
+ * erro e lancado no proximo {@link #flush()} ou {@link #close()}, como
+ * <code>SQLException</code>; a thread de gravacao continua ativa.<br>
+ * Ex.:<br>
+ * <code>
+ * WriteBehindQueue queue = new WriteBehindQueue(connection);<br>
+ * queue.update(cliente); // retorna sem acessar o banco<br>
+ * ...<br>
+ * queue.close(); // grava o que estiver pendente
+ * </code>
+ *
+ * @author Edgard Leal
+ */
+public class WriteBehindQueue implements AutoCloseable {
+	public static final int DEFAULT_CAPACITY = 10000;
+	public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000L;
+
+	private final Connection connection;
+	private final BatchWriter writer;
+	private final int capacity;
+	private final long flushIntervalMillis;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notFull = lock.newCondition();
+	private final Condition full = lock.newCondition();
+	/**
+	 * Mantem a ordem das gravacoes: a fila e esvaziada e gravada sem que
+	 * outra gravacao possa ocorrer entre as duas etapas.
+	 */
+	private final Object writeLock = new Object();
+	private final Thread worker;
+	private Map<Object, Pending> pending = new LinkedHashMap<Object, Pending>();
+	private volatile boolean closed;
+	private SQLException error;
+
+	public WriteBehindQueue(Connection connection) {
+		this(connection, DEFAULT_CAPACITY, DEFAULT_FLUSH_INTERVAL_MILLIS);
+	}
+
+	public WriteBehindQueue(Connection connection, int capacity,
+			long flushIntervalMillis) {
+		this(connection, new SQLGenerator(), capacity, flushIntervalMillis);
+	}
+
+	/**
+	 * @param connection
+	 * @param generator
+	 * @param capacity
+	 *            quantidade maxima de entidades na fila
+	 * @param flushIntervalMillis
+	 *            intervalo maximo entre as gravacoes
+	 */
+	public WriteBehindQueue(Connection connection, SQLGenerator generator,
+			int capacity, long flushIntervalMillis) {
+		if (capacity < 1)
+			throw new IllegalArgumentException(
+					"capacity deve ser maior que zero");
+		if (flushIntervalMillis < 1)
+			throw new IllegalArgumentException(
+					"flushIntervalMillis deve ser maior que zero");
+		this.connection = connection;
+		this.writer = new BatchWriter(connection, generator,
+				BatchWriter.DEFAULT_BATCH_SIZE, Long.MAX_VALUE);
+		this.capacity = capacity;
+		this.flushIntervalMillis = flushIntervalMillis;
+		this.worker = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				runWorker();
+			}
+		}, "WriteBehindQueue");
+		this.worker.setDaemon(true);
+		this.worker.start();
+	}
+
+	/**
+	 * Recebe o resultado de cada lote gravado (chamado pela thread de
+	 * gravacao).
+	 */
+	public void setListener(BatchListener listener) {
+		synchronized (writeLock) {
+			writer.setListener(listener);
+		}
+	}
+
+	public void insert(Object entity) throws InterruptedException,
+			InvocationTargetException {
+		add(Operation.INSERT, entity);
+	}
+
+	public void update(Object entity) throws InterruptedException,
+			InvocationTargetException {
+		add(Operation.UPDATE, entity);
+	}
+
+	public void delete(Object entity) throws InterruptedException,
+			InvocationTargetException {
+		add(Operation.DELETE, entity);
+	}
+
+	/**
+	 * Registra a operacao, combinando-a com a operacao pendente da mesma
+	 * entidade. Aguarda caso a fila esteja cheia.
+	 *
+	 * @throws IllegalStateException
+	 *             caso a fila tenha sido fechada
+	 */
+	public void add(Operation operation, Object entity)
+			throws InterruptedException, InvocationTargetException {
+		Object key = getKey(entity);
+		lock.lockInterruptibly();
+		try {
+			Pending current;
+			while ((current = pending.get(key)) == null
+					&& pending.size() >= capacity) {
+				checkOpen();
+				full.signal();
+				notFull.await();
+			}
+			checkOpen();
+			if (current == null)
+				pending.put(key, new Pending(operation, entity));
+			else if (!current.combine(operation, entity))
+				pending.remove(key);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * {@link EntityKey} da entidade ou, quando a chave ainda nao foi
+	 * atribuida, a propria instancia.
+	 */
+	private static Object getKey(Object entity)
+			throws InvocationTargetException {
+		EntityKey key = EntityKey.of(entity);
+		return key.isAssigned() ? key : new Instance(entity);
+	}
+
+	private void checkOpen() {
+		if (closed)
+			throw new IllegalStateException("WriteBehindQueue fechada");
+	}
+
+	/**
+	 * Quantidade de entidades aguardando gravacao
+	 */
+	public int getPendingCount() {
+		lock.lock();
+		try {
+			return pending.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void runWorker() {
+		while (!closed) {
+			lock.lock();
+			try {
+				long remaining = TimeUnit.MILLISECONDS
+						.toNanos(flushIntervalMillis);
+				while (!closed && pending.size() < capacity && remaining > 0)
+					remaining = full.awaitNanos(remaining);
+			} catch (InterruptedException e) {
+				return;
+			} finally {
+				lock.unlock();
+			}
+			if (!closed)
+				write();
+		}
+	}
+
+	private Map<Object, Pending> drain() {
+		lock.lock();
+		try {
+			Map<Object, Pending> result = pending;
+			if (!result.isEmpty()) {
+				pending = new LinkedHashMap<Object, Pending>();
+				notFull.signalAll();
+			}
+			return result;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Esvazia a fila e grava as operacoes; o erro e guardado para o proximo
+	 * {@link #flush()}.
+	 */
+	private void write() {
+		synchronized (writeLock) {
+			Map<Object, Pending> operations = drain();
+			if (operations.isEmpty())
+				return;
+			try {
+				// o BatchWriter mantem a ordem de insercao do mapa
+				for (Pending operation : operations.values())
+					writer.add(operation.operation, operation.entity);
+				writer.flush();
+				if (!connection.getAutoCommit())
+					connection.commit();
+			} catch (SQLException e) {
+				fail(e);
+			} catch (RuntimeException e) {
+				fail(new SQLException(e));
+			}
+		}
+	}
+
+	private void fail(SQLException e) {
+		rollback(e);
+		if (error == null)
+			error = e;
+		else
+			error.addSuppressed(e);
+	}
+
+	private void rollback(SQLException cause) {
+		try {
+			writer.clear();
+			if (!connection.getAutoCommit())
+				connection.rollback();
+		} catch (SQLException e) {
+			cause.addSuppressed(e);
+		}
+	}
+
+	/**
+	 * Grava imediatamente todas as operacoes pendentes e lanca o erro de
+	 * alguma gravacao anterior que tenha falhado.
+	 */
+	public void flush() throws SQLException {
+		synchronized (writeLock) {
+			write();
+			if (error != null) {
+				SQLException result = error;
+				error = null;
+				throw result;
+			}
+		}
+	}
+
+	/**
+	 * Encerra a thread de gravacao, grava as operacoes pendentes e fecha os
+	 * comandos preparados. A conexao nao e fechada.
+	 */
+	@Override
+	public void close() throws SQLException {
+		lock.lock();
+		try {
+			closed = true;
+			full.signalAll();
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		try {
+			worker.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		synchronized (writeLock) {
+			try {
+				flush();
+			} finally {
+				writer.close();
+			}
+		}
+	}
+
+	private static class Pending {
+		Operation operation;
+		Object entity;
+
+		Pending(Operation operation, Object entity) {
+			this.operation = operation;
+			this.entity = entity;
+		}
+
+		/**
+		 * Combina a nova operacao com a pendente. Retorna <code>false</code>
+		 * quando as duas se anulam (INSERT seguido de DELETE).
+		 */
+		boolean combine(Operation next, Object entity) {
+			this.entity = entity;
+			if (operation == Operation.INSERT && next == Operation.DELETE)
+				return false;
+			if (next == Operation.INSERT)
+				// UPDATE ou DELETE pendente: o registro ja existe no banco
+				operation = operation == Operation.INSERT ? operation
+						: Operation.UPDATE;
+			else if (operation != Operation.INSERT || next != Operation.UPDATE)
+				operation = next;
+			return true;
+		}
+	}
+
+	/**
+	 * Identifica a entidade pela instancia (<code>==</code>)
+	 */
+	private static class Instance {
+		final Object entity;
+
+		Instance(Object entity) {
+			this.entity = entity;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(entity);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Instance && ((Instance) obj).entity == entity;
+		}
+	}
+}
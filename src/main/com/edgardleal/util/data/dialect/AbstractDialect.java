@@ -0,0 +1,64 @@
+package com.edgardleal.util.data.dialect;
+
+import java.util.List;
+
+import com.edgardleal.util.Str;
+import com.edgardleal.util.data.ColumnMetadata;
+import com.edgardleal.util.data.EntityMetadata;
+import com.edgardleal.util.data.SQLLiteralEncoder;
+
+/**
+ * Base para os dialetos, com o prefixo
+ * <code>INSERT INTO tabela (colunas) VALUES</code> utilizado pela maioria dos
+ * bancos no "insert or update".
+ *
+ * @author Edgard Leal
+ */
+public abstract class AbstractDialect implements SQLDialect {
+
+	@Override
+	public void appendUpsertPrefix(EntityMetadata metadata,
+			StringBuilder result) {
+		result.append("INSERT INTO ").append(metadata.getTableName())
+				.append(" (").append(metadata.getColumnList())
+				.append(") VALUES");
+	}
+
+	@Override
+	public boolean supportsRowValueIn() {
+		return true;
+	}
+
+	/**
+	 * Literais do padrao SQL ({@link SQLLiteralEncoder#STANDARD})
+	 */
+	@Override
+	public SQLLiteralEncoder getLiteralEncoder() {
+		return SQLLiteralEncoder.STANDARD;
+	}
+
+	/**
+	 * Padrao SQL:2008: " FETCH FIRST n ROWS ONLY"
+	 */
+	@Override
+	public void appendLimit(int rows, StringBuilder result) {
+		result.append(" FETCH FIRST ").append(rows).append(" ROWS ONLY");
+	}
+
+	/**
+	 * Adiciona "a = &lt;valor&gt;,b = &lt;valor&gt;", onde valor e o nome da
+	 * coluna entre <code>prefix</code> e <code>suffix</code>. Ex.: prefix =
+	 * "EXCLUDED."
+	 */
+	protected void appendAssignments(List<ColumnMetadata> columns,
+			String separator, String prefix, String suffix,
+			StringBuilder result) {
+		boolean started = false;
+		for (ColumnMetadata column : columns) {
+			result.append(started ? separator : Str.EMPTY)
+					.append(column.getName()).append(" = ").append(prefix)
+					.append(column.getName()).append(suffix);
+			started = true;
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package com.edgardleal.util.data.dialect;
+
+import com.edgardleal.util.Str;
+import com.edgardleal.util.data.EntityMetadata;
+import com.edgardleal.util.data.SQLLiteralEncoder;
+
+/**
+ * Dialeto do MySQL/MariaDB, com o "insert or update" feito por
+ * <code>INSERT ... ON DUPLICATE KEY UPDATE</code>. A chave utilizada e a
+ * chave primaria (ou unica) da tabela.<br>
+ * Ex.:<br>
+ * <code>
+ * INSERT INTO cliente (codigo,nome) VALUES(1,'Maria'),(2,'Joao')
+ * ON DUPLICATE KEY UPDATE nome = VALUES(nome)
+ * </code>
+ *
+ * @author Edgard Leal
+ */
+public class MySQLDialect extends AbstractDialect {
+	private static final SQLLiteralEncoder ENCODER = new SQLLiteralEncoder(
+			true);
+
+	@Override
+	public void appendUpsertSuffix(EntityMetadata metadata,
+			StringBuilder result) {
+		result.append(" ON DUPLICATE KEY UPDATE ");
+		if (metadata.getUpdateColumns().isEmpty())
+			appendAssignments(metadata.getKeyColumns().subList(0, 1), ",",
+					Str.EMPTY, Str.EMPTY, result);
+		else
+			appendAssignments(metadata.getUpdateColumns(), ",", "VALUES(",
+					")", result);
+	}
+
+	/**
+	 * O MySQL interpreta a barra invertida dentro dos textos, que tambem
+	 * precisa ser escapada.
+	 */
+	@Override
+	public SQLLiteralEncoder getLiteralEncoder() {
+		return ENCODER;
+	}
+
+	@Override
+	public void appendLimit(int rows, StringBuilder result) {
+		result.append(" LIMIT ").append(rows);
+	}
+}
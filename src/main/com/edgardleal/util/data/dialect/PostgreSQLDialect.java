@@ -0,0 +1,61 @@
+package com.edgardleal.util.data.dialect;
+
+import com.edgardleal.util.Str;
+import com.edgardleal.util.data.ColumnMetadata;
+import com.edgardleal.util.data.EntityMetadata;
+import com.edgardleal.util.data.SQLLiteralEncoder;
+
+/**
+ * Dialeto do PostgreSQL (9.5 ou superior), com o "insert or update" feito por
+ * <code>INSERT ... ON CONFLICT</code>.<br>
+ * Ex.:<br>
+ * <code>
+ * INSERT INTO cliente (codigo,nome) VALUES(1,'Maria'),(2,'Joao')
+ * ON CONFLICT (codigo) DO UPDATE SET nome = EXCLUDED.nome
+ * </code>
+ *
+ * @author Edgard Leal
+ */
+public class PostgreSQLDialect extends AbstractDialect {
+	private static final SQLLiteralEncoder ENCODER = new SQLLiteralEncoder(
+			false) {
+		@Override
+		protected void appendBytes(StringBuilder result, byte[] value) {
+			result.append("'\\x");
+			appendHex(result, value);
+			result.append('\'');
+		}
+	};
+
+	@Override
+	public void appendUpsertSuffix(EntityMetadata metadata,
+			StringBuilder result) {
+		result.append(" ON CONFLICT (");
+		boolean started = false;
+		for (ColumnMetadata column : metadata.getKeyColumns()) {
+			result.append(started ? "," : Str.EMPTY).append(column.getName());
+			started = true;
+		}
+		if (metadata.getUpdateColumns().isEmpty()) {
+			result.append(") DO NOTHING");
+			return;
+		}
+		result.append(") DO UPDATE SET ");
+		appendAssignments(metadata.getUpdateColumns(), ",", "EXCLUDED.",
+				Str.EMPTY, result);
+	}
+
+	/**
+	 * <code>byte[]</code> no formato de entrada do <code>bytea</code>
+	 * ('\x0aff'); X'0AFF' seria um <code>bit varying</code> no PostgreSQL.
+	 */
+	@Override
+	public SQLLiteralEncoder getLiteralEncoder() {
+		return ENCODER;
+	}
+
+	@Override
+	public void appendLimit(int rows, StringBuilder result) {
+		result.append(" LIMIT ").append(rows);
+	}
+}
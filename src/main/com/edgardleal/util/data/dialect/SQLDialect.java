@@ -0,0 +1,49 @@
+package com.edgardleal.util.data.dialect;
+
+import com.edgardleal.util.data.EntityMetadata;
+import com.edgardleal.util.data.SQLLiteralEncoder;
+
+/**
+ * Trechos de SQL que variam de um banco de dados para outro. Para suportar um
+ * novo banco, basta implementar esta interface (ou estender
+ * {@link AbstractDialect}) e informa-la em
+ * <code>SQLGenerator.setDialect()</code>.<br>
+ * O comando "insert or update" e montado da seguinte forma:<br>
+ * <code>prefixo + (1,'a'),(2,'b') + sufixo</code>
+ *
+ * @author Edgard Leal
+ */
+public interface SQLDialect {
+
+	/**
+	 * Texto que antecede as linhas de valores do "insert or update". Ex.:
+	 * "INSERT INTO tabela (a,b) VALUES"
+	 */
+	void appendUpsertPrefix(EntityMetadata metadata, StringBuilder result);
+
+	/**
+	 * Texto que segue as linhas de valores do "insert or update". Ex.:
+	 * " ON CONFLICT (a) DO UPDATE SET b = EXCLUDED.b"
+	 */
+	void appendUpsertSuffix(EntityMetadata metadata, StringBuilder result);
+
+	/**
+	 * Indica se o banco aceita comparacao de linhas no IN. Ex.:
+	 * <code>WHERE (a,b) IN ((1,2),(3,4))</code>. Quando nao aceita, a exclusao
+	 * em lote de entidades com chave composta utiliza
+	 * <code>(a = 1 AND b = 2) OR (a = 3 AND b = 4)</code>.
+	 */
+	boolean supportsRowValueIn();
+
+	/**
+	 * Encoder utilizado para escrever os valores (textos, datas, numeros)
+	 * como literais SQL deste banco.
+	 */
+	SQLLiteralEncoder getLiteralEncoder();
+
+	/**
+	 * Limita a quantidade de linhas retornadas pela consulta. Ex.:
+	 * " FETCH FIRST 20 ROWS ONLY" ou " LIMIT 20"
+	 */
+	void appendLimit(int rows, StringBuilder result);
+}
@@ -0,0 +1,57 @@
+package com.edgardleal.util.data.dialect;
+
+import com.edgardleal.util.Str;
+import com.edgardleal.util.data.ColumnMetadata;
+import com.edgardleal.util.data.EntityMetadata;
+
+/**
+ * Dialeto padrao (SQL:2003), com o "insert or update" feito por
+ * <code>MERGE INTO</code>. Suportado pelo H2, HSQLDB, DB2, SQL Server e
+ * PostgreSQL 15 ou superior.<br>
+ * Ex.:<br>
+ * <code>
+ * MERGE INTO cliente t USING (VALUES (1,'Maria'),(2,'Joao')) s (codigo,nome)
+ * ON (t.codigo = s.codigo) WHEN MATCHED THEN UPDATE SET nome = s.nome
+ * WHEN NOT MATCHED THEN INSERT (codigo,nome) VALUES (s.codigo,s.nome)
+ * </code>
+ *
+ * @author Edgard Leal
+ */
+public class StandardDialect extends AbstractDialect {
+
+	@Override
+	public void appendUpsertPrefix(EntityMetadata metadata,
+			StringBuilder result) {
+		result.append("MERGE INTO ").append(metadata.getTableName())
+				.append(" t USING (VALUES ");
+	}
+
+	@Override
+	public void appendUpsertSuffix(EntityMetadata metadata,
+			StringBuilder result) {
+		result.append(") s (").append(metadata.getColumnList())
+				.append(") ON (");
+		boolean started = false;
+		for (ColumnMetadata column : metadata.getKeyColumns()) {
+			result.append(started ? " AND " : Str.EMPTY).append("t.")
+					.append(column.getName()).append(" = s.")
+					.append(column.getName());
+			started = true;
+		}
+		result.append(')');
+		if (!metadata.getUpdateColumns().isEmpty()) {
+			result.append(" WHEN MATCHED THEN UPDATE SET ");
+			appendAssignments(metadata.getUpdateColumns(), ",", "s.", Str.EMPTY,
+					result);
+		}
+		result.append(" WHEN NOT MATCHED THEN INSERT (")
+				.append(metadata.getColumnList()).append(") VALUES (");
+		started = false;
+		for (ColumnMetadata column : metadata.getColumns()) {
+			result.append(started ? "," : Str.EMPTY).append("s.")
+					.append(column.getName());
+			started = true;
+		}
+		result.append(')');
+	}
+}
@@ -0,0 +1,151 @@
+package com.edgardleal.util.html;
+
+import java.beans.Transient;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.edgardleal.util.Str;
+import com.edgardleal.util.data.ColumnMetadata;
+import com.edgardleal.util.data.EntityMetadata;
+import com.edgardleal.util.data.PropertyAccessor;
+
+/**
+ * Modelo do formulario de {@link HtmlGenerator#getForm}, montado uma unica vez
+ * para cada classe, pagina e acao: os rotulos, os campos (com o atributo
+ * readonly para <code>@Id</code>/<code>@Transient</code>) e o rodape sao
+ * concatenados previamente e os valores sao lidos pelos
+ * {@link PropertyAccessor} das colunas de {@link EntityMetadata}. Cada
+ * exibicao consiste apenas em copiar os trechos e os valores (com escape) para
+ * o {@link HTMLStringBuffer}.<br>
+ * Os modelos ficam associados a classe (<code>ClassValue</code>), sem impedir
+ * que o class loader da entidade seja descarregado.
+ *
+ * @author Edgard Leal
+ */
+class FormTemplate {
+	/**
+	 * Quantidade maxima de combinacoes de pagina e acao por classe
+	 */
+	private static final int MAX_TEMPLATES = 16;
+	private static final String FIELD_END = "\"/></div>";
+
+	private static final ClassValue<Map<Key, FormTemplate>> templates = new ClassValue<Map<Key, FormTemplate>>() {
+		@Override
+		protected Map<Key, FormTemplate> computeValue(Class<?> type) {
+			return new LinkedHashMap<Key, FormTemplate>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(
+						Map.Entry<Key, FormTemplate> eldest) {
+					return size() > MAX_TEMPLATES;
+				}
+			};
+		}
+	};
+
+	private final String head;
+	private final String[] fieldStarts;
+	private final PropertyAccessor[] accessors;
+	private final String tail;
+
+	private FormTemplate(Class<?> type, String page, String action) {
+		List<ColumnMetadata> columns = EntityMetadata.of(type).getColumns();
+		String prefix = type.getSimpleName().toLowerCase() + ".";
+
+		head = "<form name='form1' action='" + page + "' method='post'>";
+		fieldStarts = new String[columns.size()];
+		accessors = new PropertyAccessor[columns.size()];
+		for (int i = 0; i < fieldStarts.length; i++) {
+			ColumnMetadata column = columns.get(i);
+			Field field = column.getField();
+			accessors[i] = column.getAccessor();
+
+			String readonly = (column.isId() || field
+					.isAnnotationPresent(Transient.class)) ? "readonly"
+					: Str.EMPTY;
+			String fieldName = prefix + field.getName().toLowerCase();
+			fieldStarts[i] = "<div class=\"formLine\"><label class='formLabel' for='"
+					+ field.getName()
+					+ "'>"
+					+ field.getName().toUpperCase()
+					+ "</label><input type='text' id='"
+					+ fieldName
+					+ "' name='"
+					+ fieldName
+					+ "' class='formField' "
+					+ readonly
+					+ " value=\"";
+		}
+		tail = "<div class=\"formLine\"><input type=\"submit\" value=\"Salvar\" style=\"height: 24px\" class=\"linkButton\" /> "
+				+ "<a class=\"linkButton\" href=\""
+				+ page
+				+ "\">Voltar</a></div>"
+				+ "</fieldset><input type=\"hidden\" name=\"action\" value=\""
+				+ action
+				+ "\" /> <input type=\"hidden\" name=\"type\" value=\"1\" />"
+				+ "</form>";
+	}
+
+	/**
+	 * Modelo para a classe, pagina e acao informadas, criado na primeira
+	 * chamada.
+	 */
+	static FormTemplate of(Class<?> type, String page, String action) {
+		Map<Key, FormTemplate> map = templates.get(type);
+		Key key = new Key(page, action);
+		synchronized (map) {
+			FormTemplate template = map.get(key);
+			if (template == null) {
+				template = new FormTemplate(type, page, action);
+				map.put(key, template);
+			}
+			return template;
+		}
+	}
+
+	/**
+	 * Adiciona o formulario preenchido com os valores da entidade. Valores
+	 * <code>null</code> sao exibidos vazios.
+	 */
+	void append(Object obj, HTMLStringBuffer buffer)
+			throws InvocationTargetException {
+		buffer.append(head);
+		for (int i = 0; i < fieldStarts.length; i++) {
+			buffer.append(fieldStarts[i]);
+			Object value = accessors[i].get(obj);
+			if (value != null)
+				buffer.appendEscaped(value);
+			buffer.append(FIELD_END);
+		}
+		buffer.append(tail);
+	}
+
+	private static class Key {
+		final String page;
+		final String action;
+
+		Key(String page, String action) {
+			this.page = page;
+			this.action = action;
+		}
+
+		@Override
+		public int hashCode() {
+			return String.valueOf(page).hashCode() * 31 + action.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return action.equals(other.action)
+					&& (page == null ? other.page == null : page
+							.equals(other.page));
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package com.edgardleal.util.html;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.edgardleal.util.Config;
+
+/**
+ * Modelo das linhas do grid de {@link HtmlGenerator#getSimpleGrid}, montado
+ * uma unica vez para cada formato de consulta (nomes e tipos das colunas): os
+ * trechos fixos do HTML sao concatenados previamente e a formatacao de cada
+ * coluna e escolhida pelo seu tipo. Cada linha consiste apenas em copiar os
+ * trechos e os valores (com escape) para o {@link HTMLStringBuffer}.
+ *
+ * @author Edgard Leal
+ */
+class GridTemplate {
+	private static final int MAX_TEMPLATES = 256;
+	private static final String EVEN_ROW = "<a href='#' class='linha linhaPar linkLine'>";
+	private static final String ODD_ROW = "<a href='#' class='linha linhaImpar linkLine'>";
+	private static final String CELL_END = "</div>";
+	private static final String ROW_END = "</a>";
+
+	private static final Map<String, GridTemplate> templates = new LinkedHashMap<String, GridTemplate>(
+			16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(
+				Map.Entry<String, GridTemplate> eldest) {
+			return size() > MAX_TEMPLATES;
+		}
+	};
+
+	private static final ThreadLocal<DateFormat> dateFormat = new ThreadLocal<DateFormat>() {
+		@Override
+		protected DateFormat initialValue() {
+			return new SimpleDateFormat(Config.DATE_FORMAT);
+		}
+	};
+
+	private final String[] labels;
+	private final String[] widths;
+	private final String[] cellStarts;
+	private final boolean[] dates;
+
+	private GridTemplate(ResultSetMetaData meta) throws SQLException {
+		int columnCount = meta.getColumnCount();
+		labels = new String[columnCount];
+		widths = new String[columnCount];
+		cellStarts = new String[columnCount];
+		dates = new boolean[columnCount];
+		for (int i = 0; i < columnCount; i++) {
+			labels[i] = meta.getColumnLabel(i + 1);
+			widths[i] = i == 0 ? "50px" : "100px";
+			cellStarts[i] = "<div class='col' style='width:" + widths[i]
+					+ "'>";
+			dates[i] = "java.sql.Date".equals(meta.getColumnClassName(i + 1));
+		}
+	}
+
+	/**
+	 * Modelo para as colunas do <code>ResultSet</code>, criado na primeira
+	 * consulta com o mesmo formato.
+	 */
+	static GridTemplate of(ResultSetMetaData meta) throws SQLException {
+		StringBuilder shape = new StringBuilder();
+		for (int i = 1; i <= meta.getColumnCount(); i++)
+			shape.append(meta.getColumnLabel(i)).append(':')
+					.append(meta.getColumnClassName(i)).append(',');
+		String key = shape.toString();
+		synchronized (templates) {
+			GridTemplate template = templates.get(key);
+			if (template == null) {
+				template = new GridTemplate(meta);
+				templates.put(key, template);
+			}
+			return template;
+		}
+	}
+
+	int getColumnCount() {
+		return labels.length;
+	}
+
+	/**
+	 * Cabecalho do grid, com os links de ordenacao para a pagina informada
+	 */
+	void appendHeader(String page, HTMLStringBuffer buffer) {
+		buffer.append("<div id=\"dataGrid\"><div class='linha' id='gridHeader' style='background:#E8E8E8'>");
+		for (int i = 0; i < labels.length; i++)
+			buffer.append("<div class='col' style='width:").append(widths[i])
+					.append("' ><a href='").append(page).append("?order=")
+					.append(labels[i]).append("'>").append(labels[i])
+					.append("</a></div>");
+		buffer.append("</div>");
+	}
+
+	/**
+	 * Adiciona a linha atual do <code>ResultSet</code>.
+	 *
+	 * @param row
+	 *            numero da linha, a partir de zero (alterna as classes
+	 *            linhaPar/linhaImpar)
+	 */
+	void appendRow(ResultSet rs, int row, HTMLStringBuffer buffer)
+			throws SQLException {
+		buffer.append(row % 2 == 0 ? EVEN_ROW : ODD_ROW);
+		for (int i = 0; i < cellStarts.length; i++) {
+			buffer.append(cellStarts[i]);
+			if (dates[i]) {
+				java.sql.Date value = rs.getDate(i + 1);
+				if (value != null)
+					buffer.append(dateFormat.get().format(value));
+			} else {
+				String value = rs.getString(i + 1);
+				if (value != null)
+					buffer.appendEscaped(value);
+			}
+			buffer.append(CELL_END);
+		}
+		buffer.append(ROW_END);
+	}
+}
@@ -18,6 +18,9 @@ package com.edgardleal.util.html;
  * specific language governing permissions and limitations
  * under the License.
  */
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
 import java.util.Map;
 
 /**
@@ -1020,6 +1023,34 @@ public class HTMLStringBuffer {
 		return count;
 	}
 
+	/**
+	 * Discard the buffer contents, keeping the allocated capacity.
+	 */
+	public void clear() {
+		count = 0;
+	}
+
+	/**
+	 * Write the buffer contents to the given destination without creating an
+	 * intermediate <tt>String</tt>.
+	 * 
+	 * @param out
+	 *            the destination, e.g. a servlet response <tt>Writer</tt>
+	 * @throws IOException
+	 *             if the destination cannot be written
+	 */
+	public void writeTo(Appendable out) throws IOException {
+		if (out instanceof Writer) {
+			((Writer) out).write(characters, 0, count);
+
+		} else if (out instanceof StringBuilder) {
+			((StringBuilder) out).append(characters, 0, count);
+
+		} else {
+			out.append(CharBuffer.wrap(characters, 0, count));
+		}
+	}
+
 	/**
 	 * @see Object#toString()
 	 * 
@@ -1,19 +1,26 @@
 package com.edgardleal.util.html;
 
 import java.beans.Transient;
+import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 
 import org.apache.commons.beanutils.BeanUtils;
 
-import com.edgardleal.util.DateUtil;
 import com.edgardleal.util.Str;
+import com.edgardleal.util.data.ColumnMetadata;
+import com.edgardleal.util.data.KeysetQuery;
 
 public class HtmlGenerator {
-	private final String formLine = "<div class=\"formLine\">%s%s</div>";
+	/**
+	 * Quantidade de caracteres acumulados antes de cada escrita do grid no
+	 * destino
+	 */
+	public static final int GRID_BUFFER_SIZE = 8192;
 	String deleteLine = "<div class='col'><img src='%s' onclick=\"return __delete('%s')\" /></div>",
 			editLine = "<div class='col'><img src='%s' onclick=\"return __alter('%s')\"/></div>";
 
@@ -56,28 +63,24 @@ public class HtmlGenerator {
 		return getForm(obj, page, "insert");
 	}
 
+	/**
+	 * Monta o formulario de edicao da entidade, com um campo para cada
+	 * atributo declarado. O modelo do formulario e montado uma unica vez para
+	 * cada classe, pagina e acao ({@link FormTemplate}); a cada chamada somente
+	 * os valores sao lidos (pelos metodos get ou, na falta destes, pelos
+	 * proprios atributos) e escapados.
+	 *
+	 * @param obj
+	 * @param page
+	 * @param action
+	 *            "new" para inclusao; qualquer outro valor para alteracao
+	 */
 	public String getForm(Object obj, String page, String action)
 			throws IllegalArgumentException, IllegalAccessException, InvocationTargetException, NoSuchMethodException {
 
 		action = action.equals("new") ? "insert" : "update";
-		StringBuilder result = new StringBuilder();
-
-		Field fields[] = obj.getClass().getDeclaredFields();
-
-		result.append(String.format(
-				"<form name='form1' action='%s%s' method='post'>", "", page));
-
-		for (Field field : fields) {
-			result.append(String.format(formLine, getLabel(field, obj),
-					getInput(field, obj)));
-
-		}
-		result.append(String
-				.format("<div class=\"formLine\"><input type=\"submit\" value=\"Salvar\" style=\"height: 24px\" class=\"linkButton\" /> "
-						+ "<a class=\"linkButton\" href=\"%s%s\">Voltar</a></div>"
-						+ "</fieldset><input type=\"hidden\" name=\"action\" value=\"%s\" /> <input type=\"hidden\" name=\"type\" value=\"1\" />",
-						Str.EMPTY, page, action));
-		result.append("</form>");
+		HTMLStringBuffer result = new HTMLStringBuffer(1024);
+		FormTemplate.of(obj.getClass(), page, action).append(obj, result);
 		return result.toString();
 	}
 
@@ -106,46 +109,170 @@ public class HtmlGenerator {
 						BeanUtils.getProperty(obj, field.getName()).toString());
 	}
 
-	private String getFormatedValue(Object value, String className) {
-		switch (className) {
-		case "java.sql.Date":
-			return DateUtil.format(Str.emptyIfNull(value));
-		}
-		return Str.emptyIfNull(value);
+	public String getSimpleGrid(ResultSet rs, String _page) {
+		return getSimpleGrid(rs, _page, null, null, null);
 	}
 
-	public String getSimpleGrid(ResultSet rs, String _page) {
+	/**
+	 * Monta o grid com os links de paginacao por chave ao final:
+	 * <code>pagina?order=nome&amp;order=codigo&amp;before=token</code>
+	 * (Anterior) e
+	 * <code>pagina?order=nome&amp;order=codigo&amp;after=token</code>
+	 * (Proxima), com todas as colunas de ordenacao e
+	 * <code>&amp;desc=true</code> quando a ordem e decrescente; os tokens sao
+	 * os valores de ordenacao da primeira e da ultima linha.<br>
+	 * "Anterior" nao e exibido na primeira pagina e "Proxima" nao e exibido
+	 * quando a pagina possui menos de <code>pageSize</code> linhas (fim do
+	 * resultado).<br>
+	 * Ex.:<br>
+	 * <code>
+	 * KeysetQuery query = new KeysetQuery(Cliente.class, request.getParameterValues("order"));<br>
+	 * query.setDescending(request.getParameter("desc") != null);<br>
+	 * String after = request.getParameter("after"), before = request.getParameter("before");<br>
+	 * String sql = after != null ? query.getNextPage(after) : before != null ? query.getPreviousPage(before) : query.getFirstPage();<br>
+	 * out.print(generator.getSimpleGrid(statement.executeQuery(sql), "clientes.jsp", query, after, before));
+	 * </code>
+	 *
+	 * @param rs
+	 * @param _page
+	 * @param query
+	 *            consulta que gerou o <code>ResultSet</code>; sem links quando
+	 *            <code>null</code>
+	 * @param after
+	 *            token da pagina atual, quando gerada por
+	 *            {@link KeysetQuery#getNextPage(String)}
+	 * @param before
+	 *            token da pagina atual, quando gerada por
+	 *            {@link KeysetQuery#getPreviousPage(String)}
+	 */
+	public String getSimpleGrid(ResultSet rs, String _page, KeysetQuery query,
+			String after, String before) {
 		StringBuilder result = new StringBuilder();
-		ResultSetMetaData meta = null;
 		try {
-			meta = rs.getMetaData();
-
-			int columnCount = meta.getColumnCount();
-			result.append("<div id=\"dataGrid\"><div class='linha' id='gridHeader' style='background:#E8E8E8'>");
-			for (int i = 1; i <= columnCount; i++)
-				result.append(String
-						.format("<div class='col' style='width:%s' ><a href='%s?order=%s'>%s</a></div>",
-								i == 1 ? "50px" : "100px", _page,
-								meta.getColumnLabel(i), meta.getColumnLabel(i)));
-			result.append("</div>");
-			int j = 0;
-			while (rs.next()) {
-				result.append(String.format(
-						"<a href='#' class='linha linha%s linkLine'>",
-						j++ % 2 == 0 ? "Par" : "Impar"));
-
-				for (int i = 1; i <= columnCount; i++)
-					result.append(String.format(
-							"<div class='col' style='width:%s'>%s</div>",
-							i == 1 ? "50px" : "100px",
-							getFormatedValue(rs.getString(i),
-									meta.getColumnClassName(i))));
-				result.append("</a>");
-			}
-			return result.toString() + "</div>";
+			getSimpleGrid(rs, _page, query, after, before, result);
+			return result.toString();
 		} catch (SQLException e) {
 			e.printStackTrace();
 			return e.getMessage();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public void getSimpleGrid(ResultSet rs, String _page, Appendable out)
+			throws SQLException, IOException {
+		getSimpleGrid(rs, _page, null, null, null, out);
+	}
+
+	/**
+	 * Escreve o grid diretamente em <code>out</code> (ex.: o
+	 * <code>Writer</code> da resposta do servlet) a medida que as linhas sao
+	 * lidas do <code>ResultSet</code>, em blocos de ate
+	 * {@link #GRID_BUFFER_SIZE} caracteres. Assim, a memoria utilizada nao
+	 * depende da quantidade de linhas e o inicio do grid e enviado antes da
+	 * leitura da ultima linha.<br>
+	 * As linhas sao montadas pelo modelo compilado para o formato da consulta
+	 * ({@link GridTemplate}); os valores das celulas sao escapados e as
+	 * colunas <code>java.sql.Date</code> sao formatadas com
+	 * {@link com.edgardleal.util.Config#DATE_FORMAT}.
+	 *
+	 * @param rs
+	 * @param _page
+	 * @param query
+	 *            consulta que gerou o <code>ResultSet</code>; sem links de
+	 *            paginacao quando <code>null</code>
+	 * @param after
+	 * @param before
+	 * @param out
+	 * @see #getSimpleGrid(ResultSet, String, KeysetQuery, String, String)
+	 */
+	public void getSimpleGrid(ResultSet rs, String _page, KeysetQuery query,
+			String after, String before, Appendable out) throws SQLException,
+			IOException {
+		HTMLStringBuffer result = new HTMLStringBuffer(GRID_BUFFER_SIZE
+				+ GRID_BUFFER_SIZE / 4);
+		Object[] first = null, last = null;
+		GridTemplate template = GridTemplate.of(rs.getMetaData());
+		int pageSize = query == null ? 0 : query.getPageSize();
+
+		template.appendHeader(_page, result);
+		int j = 0;
+		while (rs.next()) {
+			// os valores sao lidos somente na primeira linha e na ultima de
+			// uma pagina completa; voltando (before), a pagina pode terminar
+			// antes e todas as linhas sao lidas
+			if (query != null
+					&& (j == 0 || j == pageSize - 1 || before != null)) {
+				last = query.getValues(rs);
+				if (j == 0)
+					first = last;
+			}
+			template.appendRow(rs, j++, result);
+			if (result.length() >= GRID_BUFFER_SIZE) {
+				result.writeTo(out);
+				result.clear();
+			}
+		}
+		if (first != null) {
+			boolean complete = j >= pageSize;
+			boolean previous = (after != null || before != null)
+					&& (complete || before == null);
+			boolean next = complete || before != null;
+			appendPagingLinks(result, _page, query,
+					previous ? query.toToken(first) : null,
+					next ? query.toToken(last) : null);
+		}
+		result.append("</div>");
+		result.writeTo(out);
+	}
+
+	/**
+	 * Links "Anterior" e "Proxima"; o link e omitido quando o token e
+	 * <code>null</code>.
+	 */
+	private void appendPagingLinks(HTMLStringBuffer result, String _page,
+			KeysetQuery query, String first, String last) {
+		if (first == null && last == null)
+			return;
+		StringBuilder link = new StringBuilder(_page).append('?');
+		for (ColumnMetadata column : query.getColumns())
+			link.append("order=").append(column.getName()).append("&amp;");
+		if (query.isDescending())
+			link.append("desc=true&amp;");
+		String href = link.toString();
+		result.append("<div class='paginacao'>");
+		if (first != null)
+			result.append("<a href='").append(href).append("before=")
+					.append(first).append("'>Anterior</a>");
+		if (first != null && last != null)
+			result.append(' ');
+		if (last != null)
+			result.append("<a href='").append(href).append("after=")
+					.append(last).append("'>Proxima</a>");
+		result.append("</div>");
+	}
+
+	/**
+	 * Executa a consulta e escreve o grid em <code>out</code>, lendo as linhas
+	 * do banco em blocos de <code>fetchSize</code> (ver
+	 * {@link com.edgardleal.util.data.ResultSetCursor}). O comando e fechado
+	 * ao final; um erro ao fecha-lo tambem e lancado.
+	 *
+	 * @param connection
+	 * @param sql
+	 * @param fetchSize
+	 *            quantidade de linhas buscadas no banco de cada vez
+	 * @param _page
+	 * @param out
+	 * @see #getSimpleGrid(ResultSet, String, KeysetQuery, Appendable)
+	 */
+	public void getSimpleGrid(Connection connection, String sql,
+			int fetchSize, String _page, Appendable out) throws SQLException,
+			IOException {
+		try (PreparedStatement statement = connection.prepareStatement(sql,
+				ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+			statement.setFetchSize(fetchSize);
+			getSimpleGrid(statement.executeQuery(), _page, out);
 		}
 	}
 
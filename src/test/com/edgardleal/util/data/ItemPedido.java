@@ -0,0 +1,48 @@
+package test.edgardleal.util.data;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+@Entity
+public class ItemPedido {
+	@Id
+	private int pedido;
+	@Id
+	private int item;
+	private int quantidade;
+
+	public ItemPedido() {
+
+	}
+
+	public ItemPedido(int pedido, int item, int quantidade) {
+		setPedido(pedido);
+		setItem(item);
+		setQuantidade(quantidade);
+	}
+
+	public int getPedido() {
+		return pedido;
+	}
+
+	public void setPedido(int pedido) {
+		this.pedido = pedido;
+	}
+
+	public int getItem() {
+		return item;
+	}
+
+	public void setItem(int item) {
+		this.item = item;
+	}
+
+	public int getQuantidade() {
+		return quantidade;
+	}
+
+	public void setQuantidade(int quantidade) {
+		this.quantidade = quantidade;
+	}
+
+}
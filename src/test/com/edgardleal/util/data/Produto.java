@@ -0,0 +1,49 @@
+package test.edgardleal.util.data;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+@Entity
+@Table(name = "produto", schema = "loja")
+public class Produto {
+	@Id
+	private int codigo;
+	private String nome;
+	private double preco;
+
+	public Produto() {
+
+	}
+
+	public Produto(int codigo, String nome, double preco) {
+		setCodigo(codigo);
+		setNome(nome);
+		setPreco(preco);
+	}
+
+	public int getCodigo() {
+		return codigo;
+	}
+
+	public void setCodigo(int codigo) {
+		this.codigo = codigo;
+	}
+
+	public String getNome() {
+		return nome;
+	}
+
+	public void setNome(String nome) {
+		this.nome = nome;
+	}
+
+	public double getPreco() {
+		return preco;
+	}
+
+	public void setPreco(double preco) {
+		this.preco = preco;
+	}
+
+}
@@ -0,0 +1,139 @@
+package test.edgardleal.util.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.edgardleal.util.data.BatchListener;
+import com.edgardleal.util.data.BatchWriter;
+import com.edgardleal.util.data.Operation;
+
+public class TestBatchWriter {
+	private Connection connection = null;
+	private List<int[]> batches = null;
+
+	@Before
+	public void setUp() throws Exception {
+		connection = DriverManager.getConnection("jdbc:h2:mem:batch");
+		connection.createStatement().execute("CREATE SCHEMA loja");
+		connection
+				.createStatement()
+				.execute(
+						"CREATE TABLE loja.produto (codigo INT PRIMARY KEY, nome VARCHAR(50), preco DOUBLE)");
+		batches = new ArrayList<int[]>();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		connection.close();
+	}
+
+	private BatchWriter createWriter(int batchSize) {
+		BatchWriter writer = new BatchWriter(connection, batchSize, 60000L);
+		writer.setListener(new BatchListener() {
+			@Override
+			public void batchExecuted(Class<?> type, Operation operation,
+					int[] updateCounts) {
+				assertEquals(Produto.class, type);
+				batches.add(updateCounts);
+			}
+		});
+		return writer;
+	}
+
+	@Test
+	public void testBatchSize() throws SQLException {
+		BatchWriter writer = createWriter(2);
+		for (int i = 1; i <= 5; i++)
+			writer.insert(new Produto(i, "Produto " + i, i));
+		assertEquals(2, batches.size());
+		writer.close();
+
+		assertEquals(3, batches.size());
+		assertEquals(1, batches.get(2).length);
+		assertEquals(5, count("SELECT COUNT(*) FROM loja.produto"));
+	}
+
+	@Test
+	public void testOperations() throws SQLException {
+		BatchWriter writer = createWriter(100);
+		writer.insert(new Produto(1, "Caneta", 1));
+		writer.insert(new Produto(2, "Lapis", 1));
+		writer.flush();
+		writer.update(new Produto(1, "Caneta azul", 3));
+		writer.delete(new Produto(2, null, 0));
+		writer.close();
+
+		assertEquals(3, batches.size());
+		assertEquals(1, count("SELECT COUNT(*) FROM loja.produto"));
+		assertEquals(3,
+				count("SELECT preco FROM loja.produto WHERE nome = 'Caneta azul'"));
+	}
+
+	@Test
+	public void testOrder() throws SQLException {
+		BatchWriter writer = createWriter(100);
+		writer.insert(new Produto(1, "Caneta", 1));
+		writer.insert(new Produto(2, "Lapis", 1));
+		writer.delete(new Produto(1, null, 0));
+		writer.insert(new Produto(1, "Caneta nova", 2));
+		writer.insert(new Produto(3, "Regua", 1));
+		writer.update(new Produto(2, "Lapis azul", 1));
+		writer.close();
+
+		// os lotes sao executados na ordem em que as entidades foram
+		// adicionadas
+		assertEquals(4, batches.size());
+		assertEquals(2, batches.get(0).length);
+		assertEquals(1, batches.get(1).length);
+		assertEquals(2, batches.get(2).length);
+		assertEquals(1, batches.get(3).length);
+		assertEquals(3, count("SELECT COUNT(*) FROM loja.produto"));
+		assertEquals(2,
+				count("SELECT preco FROM loja.produto WHERE nome = 'Caneta nova'"));
+		assertEquals(1,
+				count("SELECT COUNT(*) FROM loja.produto WHERE nome = 'Lapis azul'"));
+	}
+
+	@Test
+	public void testGrouped() throws SQLException {
+		BatchWriter writer = createWriter(100);
+		writer.setPreserveOrder(false);
+		for (int i = 1; i <= 3; i++) {
+			writer.insert(new Produto(i, "Produto " + i, i));
+			writer.update(new Produto(i, "Alterado " + i, i));
+		}
+		writer.close();
+
+		// um lote por operacao, executados na ordem em que foram criados
+		assertEquals(2, batches.size());
+		assertEquals(3, batches.get(0).length);
+		assertEquals(3, batches.get(1).length);
+		assertEquals(3,
+				count("SELECT COUNT(*) FROM loja.produto WHERE nome LIKE 'Alterado%'"));
+	}
+
+	@Test
+	public void testLinger() throws Exception {
+		BatchWriter writer = new BatchWriter(connection, 100, 0L);
+		writer.insert(new Produto(1, "Caneta", 1));
+		assertEquals(1, count("SELECT COUNT(*) FROM loja.produto"));
+		writer.close();
+	}
+
+	private int count(String sql) throws SQLException {
+		ResultSet rs = connection.createStatement().executeQuery(sql);
+		assertTrue(rs.next());
+		return rs.getInt(1);
+	}
+}
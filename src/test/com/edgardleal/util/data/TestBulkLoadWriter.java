@@ -0,0 +1,74 @@
+package test.edgardleal.util.data;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import test.edgardleal.util.GuineaPigModel;
+
+import com.edgardleal.util.data.BulkLoadWriter;
+import com.edgardleal.util.data.BulkLoadWriter.Format;
+
+public class TestBulkLoadWriter {
+
+	@Test
+	public void testText() throws Exception {
+		StringBuilder out = new StringBuilder();
+		BulkLoadWriter writer = new BulkLoadWriter(out, Format.TEXT);
+		writer.write(Arrays.asList(new Produto(1, "Caf\u00e9\tforte", 2.5),
+				new Produto(2, "a\\b\nc", 1), new Produto(3, null, 0)));
+		writer.close();
+		assertEquals("1\tCaf\u00e9\\tforte\t2.5\n" + "2\ta\\\\b\\nc\t1.0\n"
+				+ "3\t\\N\t0.0\n", out.toString());
+		assertEquals("COPY loja.produto (codigo,nome,preco) FROM STDIN",
+				writer.getCopyCommand(Produto.class));
+	}
+
+	@Test
+	public void testCsv() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Charset utf8 = Charset.forName("UTF-8");
+		BulkLoadWriter writer = new BulkLoadWriter(out, utf8, Format.CSV);
+		assertEquals(
+				"COPY loja.produto (codigo,nome,preco) FROM STDIN WITH (FORMAT csv)",
+				writer.getCopyCommand(Produto.class));
+		writer.writeHeader(Produto.class);
+		writer.write(new Produto(1, "Lapis, \"preto\"", 2.5));
+		writer.write(new Produto(2, "", 1));
+		writer.write(new Produto(3, null, 0));
+		writer.close();
+		assertEquals("codigo,nome,preco\r\n"
+				+ "1,\"Lapis, \"\"preto\"\"\",2.5\r\n" + "2,\"\",1.0\r\n"
+				+ "3,,0.0\r\n", new String(out.toByteArray(), utf8));
+		assertEquals(
+				"COPY loja.produto (codigo,nome,preco) FROM STDIN WITH (FORMAT csv, HEADER true)",
+				writer.getCopyCommand(Produto.class));
+	}
+
+	@Test
+	public void testColumns() throws Exception {
+		StringBuilder out = new StringBuilder();
+		BulkLoadWriter writer = new BulkLoadWriter(out, Format.TEXT);
+		GuineaPigModel model = new GuineaPigModel();
+		model.setCode(10);
+		model.setName("Rex");
+		writer.write(model);
+		Pedido pedido = new Pedido();
+		pedido.setNumero(5L);
+		pedido.setDataEntrega(java.sql.Date.valueOf("2012-01-31"));
+		pedido.setTotal(new BigDecimal("1E+1"));
+		pedido.setPago(true);
+		writer.write(pedido);
+		writer.close();
+		// code (@GeneratedValue) fica fora
+		assertEquals("Rex\t\\N\t\\N\n" + "5\t2012-01-31\t10\ttrue\t\\N\n",
+				out.toString());
+		assertEquals("COPY GuineaPigModel (name,color,birth) FROM STDIN",
+				writer.getCopyCommand(GuineaPigModel.class));
+	}
+}
@@ -0,0 +1,103 @@
+package test.edgardleal.util.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.util.Date;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.edgardleal.util.data.BatchWriter;
+import com.edgardleal.util.data.ColumnarBuffer;
+import com.edgardleal.util.data.EntityMetadata;
+import com.edgardleal.util.data.Operation;
+import com.edgardleal.util.data.SQLGenerator;
+
+public class TestColumnarBuffer {
+	private Connection connection = null;
+
+	@Before
+	public void setUp() throws Exception {
+		connection = DriverManager.getConnection("jdbc:h2:mem:columnar");
+		connection.createStatement().execute("CREATE SCHEMA loja");
+		connection
+				.createStatement()
+				.execute(
+						"CREATE TABLE loja.produto (codigo INT PRIMARY KEY, nome VARCHAR(50), preco DOUBLE)");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		connection.close();
+	}
+
+	@Test
+	public void testValues() throws Exception {
+		ColumnarBuffer buffer = new ColumnarBuffer(Pedido.class, 1);
+		Pedido pedido = new Pedido();
+		pedido.setNumero(1L);
+		pedido.setDataEntrega(new Date(1000L));
+		pedido.setTotal(new BigDecimal("10.50"));
+		pedido.setPago(true);
+		pedido.setParcelas(3);
+		buffer.add(pedido);
+		buffer.add(new Pedido());
+		assertEquals(2, buffer.size());
+
+		EntityMetadata metadata = buffer.getMetadata();
+		assertEquals(1L, buffer.getValue(0, metadata.getColumn("numero")));
+		assertEquals(new Date(1000L),
+				buffer.getValue(0, metadata.getColumn("dataEntrega")));
+		assertEquals(new BigDecimal("10.50"),
+				buffer.getValue(0, metadata.getColumn("total")));
+		assertEquals(true, buffer.getValue(0, metadata.getColumn("pago")));
+		assertEquals(3, buffer.getValue(0, metadata.getColumn("parcelas")));
+		assertNull(buffer.getValue(1, metadata.getColumn("numero")));
+		assertNull(buffer.getValue(1, metadata.getColumn("parcelas")));
+		assertEquals(false, buffer.getValue(1, metadata.getColumn("pago")));
+	}
+
+	@Test
+	public void testInsertCommand() throws Exception {
+		ColumnarBuffer buffer = new ColumnarBuffer(Produto.class, 4);
+		buffer.add(new Produto(1, "D'Agua", 1.5));
+		buffer.add(new Produto(2, null, 2));
+		SQLGenerator generator = new SQLGenerator();
+		for (int row = 0; row < buffer.size(); row++) {
+			StringBuilder result = new StringBuilder();
+			buffer.appendInsertCommand(generator, row, result);
+			assertEquals(generator.getInsertCommand(row == 0 ? new Produto(1,
+					"D'Agua", 1.5) : new Produto(2, null, 2)),
+					result.toString());
+		}
+		buffer.clear();
+		assertEquals(0, buffer.size());
+	}
+
+	@Test
+	public void testBatchWriter() throws Exception {
+		ColumnarBuffer buffer = new ColumnarBuffer(Produto.class, 16);
+		for (int i = 1; i <= 100; i++)
+			buffer.add(new Produto(i, i % 10 == 0 ? null : "Produto " + i, i));
+		BatchWriter writer = new BatchWriter(connection, 30, 60000L);
+		writer.write(buffer, Operation.INSERT);
+		writer.close();
+
+		ResultSet rs = connection.createStatement().executeQuery(
+				"SELECT COUNT(*), COUNT(nome), SUM(preco) FROM loja.produto");
+		rs.next();
+		assertEquals(100, rs.getInt(1));
+		assertEquals(90, rs.getInt(2));
+		assertEquals(5050.0, rs.getDouble(3), 0);
+		rs = connection.createStatement().executeQuery(
+				"SELECT nome FROM loja.produto WHERE codigo = 55");
+		rs.next();
+		assertEquals("Produto 55", rs.getString(1));
+	}
+}
@@ -0,0 +1,119 @@
+package test.edgardleal.util.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.edgardleal.util.data.ColumnMetadata;
+import com.edgardleal.util.data.DiffListener;
+import com.edgardleal.util.data.EntityDiff;
+import com.edgardleal.util.data.SQLScriptWriter;
+
+public class TestEntityDiff {
+
+	private static class Changes implements DiffListener<Produto> {
+		List<String> list = new ArrayList<String>();
+
+		@Override
+		public void inserted(Produto entity) {
+			list.add("I" + entity.getCodigo());
+		}
+
+		@Override
+		public void updated(Produto current, Produto desired,
+				List<ColumnMetadata> changedColumns) {
+			list.add("U" + desired.getCodigo() + changedColumns);
+		}
+
+		@Override
+		public void deleted(Produto entity) {
+			list.add("D" + entity.getCodigo());
+		}
+	}
+
+	private List<Produto> current() {
+		return Arrays.asList(new Produto(1, "Lapis", 1), new Produto(2,
+				"Caneta", 2), new Produto(3, "Borracha", 3), new Produto(5,
+				"Regua", 5));
+	}
+
+	private List<Produto> desired() {
+		return Arrays.asList(new Produto(1, "Lapis", 1), new Produto(2,
+				"Caneta azul", 2), new Produto(4, "Caderno", 4), new Produto(
+				5, "Regua", 6.5));
+	}
+
+	@Test
+	public void testCompare() throws Exception {
+		EntityDiff<Produto> diff = new EntityDiff<Produto>(Produto.class);
+		Changes changes = new Changes();
+		diff.compare(current(), desired(), changes);
+		assertEquals("[U2[nome], I4, U5[preco], D3]",
+				changes.list.toString());
+		assertEquals(1, diff.getInserts());
+		assertEquals(2, diff.getUpdates());
+		assertEquals(1, diff.getDeletes());
+	}
+
+	@Test
+	public void testCompareSorted() throws Exception {
+		EntityDiff<Produto> diff = new EntityDiff<Produto>(Produto.class);
+		Changes changes = new Changes();
+		diff.compareSorted(current().iterator(), desired().iterator(),
+				changes);
+		assertEquals("[U2[nome], D3, I4, U5[preco]]",
+				changes.list.toString());
+
+		changes = new Changes();
+		diff.compareSorted(current().iterator(), new ArrayList<Produto>()
+				.iterator(), changes);
+		assertEquals("[D1, D2, D3, D5]", changes.list.toString());
+	}
+
+	@Test
+	public void testInvalidInput() throws Exception {
+		EntityDiff<Produto> diff = new EntityDiff<Produto>(Produto.class);
+		try {
+			diff.compareSorted(desired().iterator(), Arrays.asList(
+					new Produto(2, "a", 1), new Produto(1, "b", 1)).iterator(),
+					new Changes());
+			fail("Deveria lancar IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			diff.compare(current(), Arrays.asList(new Produto(7, "a", 1),
+					new Produto(7, "b", 1)), new Changes());
+			fail("Deveria lancar IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	@Test
+	public void testHash() throws Exception {
+		EntityDiff<Produto> diff = new EntityDiff<Produto>(Produto.class);
+		assertEquals(diff.getHash(new Produto(1, "Aa", 1)),
+				diff.getHash(new Produto(2, "Aa", 1)));
+		// "Aa" e "BB" possuem o mesmo hashCode()
+		if (diff.getHash(new Produto(1, "Aa", 1)) == diff.getHash(new Produto(
+				1, "BB", 1)))
+			fail("Hash igual para valores diferentes");
+	}
+
+	@Test
+	public void testScript() throws Exception {
+		StringBuilder out = new StringBuilder();
+		SQLScriptWriter writer = new SQLScriptWriter(out);
+		new EntityDiff<Produto>(Produto.class).compare(current(), desired(),
+				EntityDiff.toScript(writer));
+		writer.close();
+		assertEquals("UPDATE loja.produto SET nome = 'Caneta azul' WHERE codigo = 2;\n"
+				+ "INSERT INTO loja.produto (codigo,nome,preco) VALUES(4,'Caderno',4.0);\n"
+				+ "UPDATE loja.produto SET preco = 6.5 WHERE codigo = 5;\n"
+				+ "DELETE FROM loja.produto WHERE codigo = 3;\n", out.toString());
+	}
+}
@@ -0,0 +1,104 @@
+package test.edgardleal.util.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import org.junit.Test;
+
+import com.edgardleal.util.data.EntityMapper;
+import com.edgardleal.util.data.EntityMappers;
+import com.edgardleal.util.data.SQLGenerator;
+
+public class TestEntityMappers {
+
+	@Table(name = "inacessivel")
+	public static class Inacessivel {
+		@Id
+		int codigo;
+	}
+
+	@Table(name = "invertido")
+	public static class Invertido {
+		@Id
+		int codigo = 1;
+		String nome = "a";
+	}
+
+	@Test
+	public void testInaccessibleMapper() {
+		try {
+			EntityMappers.find(Inacessivel.class);
+			fail("Deveria lancar IllegalStateException");
+		} catch (IllegalStateException e) {
+			assertTrue(e.getCause() instanceof IllegalAccessException);
+		}
+	}
+
+	@Test
+	public void testColumnOrder() {
+		// colunas do mapeador em outra ordem: utiliza reflexao
+		assertNull(EntityMappers.find(Invertido.class));
+		assertEquals("INSERT INTO invertido (codigo,nome) VALUES(1,'a')",
+				new SQLGenerator().getInsertCommand(new Invertido()));
+	}
+}
+
+/**
+ * Mapeador sem comandos, para testar a busca do {@link EntityMappers}
+ */
+abstract class EmptyMapper implements EntityMapper<Object> {
+
+	@Override
+	public void appendInsertCommand(SQLGenerator generator, Object entity,
+			StringBuilder result) {
+	}
+
+	@Override
+	public void appendInsertValues(SQLGenerator generator, Object entity,
+			StringBuilder result) {
+	}
+
+	@Override
+	public void appendUpdate(SQLGenerator generator, Object entity,
+			StringBuilder result) {
+	}
+
+	@Override
+	public void appendDeleteCommand(SQLGenerator generator, Object entity,
+			StringBuilder result) {
+	}
+
+	@Override
+	public void bindInsert(PreparedStatement statement, Object entity)
+			throws SQLException {
+	}
+
+	@Override
+	public void bindUpdate(PreparedStatement statement, Object entity)
+			throws SQLException {
+	}
+
+	@Override
+	public void bindDelete(PreparedStatement statement, Object entity)
+			throws SQLException {
+	}
+}
+
+/**
+ * Mapeador que o {@link EntityMappers} nao consegue criar (classe nao publica)
+ */
+class TestEntityMappers_InacessivelSQLMapper extends EmptyMapper {
+
+	@Override
+	public String[] getColumnNames() {
+		return new String[] { "codigo" };
+	}
+}
@@ -0,0 +1,12 @@
+package test.edgardleal.util.data;
+
+/**
+ * Mapeador com as colunas em ordem diferente da entidade
+ */
+public class TestEntityMappers_InvertidoSQLMapper extends EmptyMapper {
+
+	@Override
+	public String[] getColumnNames() {
+		return new String[] { "nome", "codigo" };
+	}
+}
@@ -0,0 +1,104 @@
+package test.edgardleal.util.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.edgardleal.util.data.EntityRowMapper;
+import com.edgardleal.util.data.SQLGenerator;
+import com.edgardleal.util.data.SQLTemplate;
+
+public class TestEntityRowMapper {
+	private Connection connection = null;
+	private SQLGenerator generator = null;
+
+	@Before
+	public void setUp() throws Exception {
+		generator = new SQLGenerator();
+		connection = DriverManager.getConnection("jdbc:h2:mem:rowmapper");
+		Statement statement = connection.createStatement();
+		statement
+				.execute("CREATE TABLE Pedido (numero BIGINT PRIMARY KEY, data_entrega TIMESTAMP, total DECIMAL(10,2), pago BOOLEAN, parcelas INT)");
+		statement
+				.execute("INSERT INTO Pedido VALUES (1, '2012-01-01 10:00:00', 10.50, TRUE, 3)");
+		statement
+				.execute("INSERT INTO Pedido VALUES (2, NULL, NULL, FALSE, NULL)");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		connection.close();
+	}
+
+	@Test
+	public void testSelectCommands() throws Exception {
+		assertEquals(
+				"SELECT numero,dataEntrega,total,pago,parcelas FROM Pedido",
+				generator.getSelectCommand(Pedido.class));
+		Pedido pedido = new Pedido();
+		pedido.setNumero(1L);
+		assertEquals(
+				"SELECT numero,dataEntrega,total,pago,parcelas FROM Pedido WHERE numero = 1",
+				generator.getSelectByIdCommand(pedido));
+		assertEquals(
+				"SELECT codigo,nome,preco FROM loja.produto WHERE codigo = ?",
+				generator.getSelectByIdTemplate(Produto.class).getSql());
+	}
+
+	@Test
+	public void testMapRow() throws Exception {
+		EntityRowMapper<Pedido> mapper = EntityRowMapper.of(Pedido.class);
+		ResultSet rs = connection.createStatement().executeQuery(
+				"SELECT * FROM Pedido ORDER BY numero");
+
+		assertTrue(rs.next());
+		Pedido pedido = mapper.mapRow(rs);
+		assertEquals(Long.valueOf(1), pedido.getNumero());
+		assertEquals(new BigDecimal("10.50"), pedido.getTotal());
+		assertTrue(pedido.isPago());
+		assertEquals(Integer.valueOf(3), pedido.getParcelas());
+		assertEquals(java.util.Date.class, pedido.getDataEntrega().getClass());
+
+		assertTrue(rs.next());
+		pedido = mapper.mapRow(rs);
+		assertEquals(Long.valueOf(2), pedido.getNumero());
+		assertNull(pedido.getDataEntrega());
+		assertNull(pedido.getTotal());
+		assertNull(pedido.getParcelas());
+	}
+
+	@Test
+	public void testSelectById() throws Exception {
+		Pedido chave = new Pedido();
+		chave.setNumero(2L);
+		SQLTemplate template = generator.getSelectByIdTemplate(Pedido.class);
+		PreparedStatement statement = connection.prepareStatement(template
+				.getSql().replace("dataEntrega", "data_entrega"));
+		template.bind(statement, chave);
+		ResultSet rs = statement.executeQuery();
+		assertTrue(rs.next());
+		assertEquals(Long.valueOf(2),
+				EntityRowMapper.of(Pedido.class).mapRow(rs).getNumero());
+	}
+
+	@Test
+	public void testShared() throws Exception {
+		assertSame(EntityRowMapper.of(Pedido.class),
+				EntityRowMapper.of(Pedido.class));
+		assertNotSame(EntityRowMapper.of(Pedido.class), new EntityRowMapper<Pedido>(
+				Pedido.class));
+	}
+}
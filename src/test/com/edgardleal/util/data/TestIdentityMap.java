@@ -0,0 +1,115 @@
+package test.edgardleal.util.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import test.edgardleal.util.GuineaPigModel;
+
+import com.edgardleal.util.data.IdentityMap;
+
+public class TestIdentityMap {
+	private Connection connection = null;
+
+	@Before
+	public void setUp() throws Exception {
+		connection = DriverManager.getConnection("jdbc:h2:mem:identity");
+		Statement statement = connection.createStatement();
+		statement.execute("CREATE SCHEMA loja");
+		statement
+				.execute("CREATE TABLE loja.produto (codigo INT PRIMARY KEY, nome VARCHAR(50), preco DOUBLE)");
+		statement
+				.execute("CREATE TABLE ItemPedido (pedido INT, item INT, quantidade INT, PRIMARY KEY (pedido, item))");
+		statement.execute("INSERT INTO loja.produto VALUES (1, 'Lapis', 1)");
+		statement.execute("INSERT INTO loja.produto VALUES (2, 'Caneta', 2)");
+		statement.execute("INSERT INTO ItemPedido VALUES (1, 1, 5)");
+		statement.execute("INSERT INTO ItemPedido VALUES (1, 2, 7)");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		connection.close();
+	}
+
+	@Test
+	public void testFind() throws Exception {
+		IdentityMap map = new IdentityMap();
+		Produto lapis = map.find(connection, Produto.class, 1);
+		assertEquals("Lapis", lapis.getNome());
+		assertSame(lapis, map.find(connection, Produto.class, 1));
+		assertSame(lapis, map.get(Produto.class, 1));
+		assertNull(map.find(connection, Produto.class, 99));
+		assertEquals(1, map.getHits());
+		assertEquals(2, map.getMisses());
+
+		assertSame(lapis, map.register(new Produto(1, "Outro", 0)));
+		map.remove(lapis);
+		assertFalse(map.contains(Produto.class, 1));
+		map.clear();
+		assertEquals(0, map.size());
+	}
+
+	@Test
+	public void testCompositeKey() throws Exception {
+		IdentityMap map = new IdentityMap();
+		ItemPedido item = map.find(connection, ItemPedido.class, 1, 2);
+		assertEquals(7, item.getQuantidade());
+		assertSame(item, map.find(connection, ItemPedido.class, 1, 2));
+		assertTrue(map.contains(ItemPedido.class, 1, 2));
+		assertFalse(map.contains(ItemPedido.class, 2, 1));
+	}
+
+	@Test
+	public void testIdType() throws Exception {
+		IdentityMap map = new IdentityMap();
+		Produto lapis = map.find(connection, Produto.class, 1L);
+		assertSame(lapis, map.find(connection, Produto.class, 1));
+		assertSame(lapis, map.get(Produto.class, (short) 1));
+		assertTrue(map.contains(Produto.class, new BigDecimal("1.00")));
+		assertEquals(1, map.getMisses());
+		try {
+			map.get(Produto.class, 1.5);
+			fail("Deveria lancar IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	@Test
+	public void testUnassignedKey() throws Exception {
+		IdentityMap map = new IdentityMap();
+		GuineaPigModel first = new GuineaPigModel();
+		GuineaPigModel second = new GuineaPigModel();
+		assertSame(first, map.register(first));
+		assertSame(second, map.register(second));
+		assertEquals(0, map.size());
+
+		second.setCode(10);
+		assertSame(second, map.register(second));
+		assertSame(second, map.get(GuineaPigModel.class, 10));
+	}
+
+	@Test
+	public void testLru() throws Exception {
+		IdentityMap map = new IdentityMap(2);
+		map.register(new Produto(1, "a", 1));
+		map.register(new Produto(2, "b", 1));
+		map.get(Produto.class, 1);
+		map.register(new Produto(3, "c", 1));
+		assertEquals(2, map.size());
+		assertTrue(map.contains(Produto.class, 1));
+		assertFalse(map.contains(Produto.class, 2));
+		assertTrue(map.contains(Produto.class, 3));
+	}
+}
@@ -0,0 +1,166 @@
+package test.edgardleal.util.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.edgardleal.util.data.EntityRowMapper;
+import com.edgardleal.util.data.KeysetQuery;
+import com.edgardleal.util.data.SQLGenerator;
+import com.edgardleal.util.data.dialect.PostgreSQLDialect;
+import com.edgardleal.util.data.dialect.StandardDialect;
+import com.edgardleal.util.html.HtmlGenerator;
+
+public class TestKeysetQuery {
+	private Connection connection = null;
+
+	@Before
+	public void setUp() throws Exception {
+		connection = DriverManager.getConnection("jdbc:h2:mem:keyset");
+		Statement statement = connection.createStatement();
+		statement.execute("CREATE SCHEMA loja");
+		statement
+				.execute("CREATE TABLE loja.produto (codigo INT PRIMARY KEY, nome VARCHAR(50), preco DOUBLE)");
+		for (int i = 1; i <= 10; i++)
+			statement.execute("INSERT INTO loja.produto VALUES (" + i
+					+ ", 'Produto " + (i % 3) + "', " + i + ")");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		connection.close();
+	}
+
+	@Test
+	public void testCommands() throws Exception {
+		KeysetQuery query = new KeysetQuery(Produto.class, "nome");
+		query.setPageSize(3);
+		assertEquals(
+				"SELECT codigo,nome,preco FROM loja.produto ORDER BY nome,codigo FETCH FIRST 3 ROWS ONLY",
+				query.getFirstPage());
+		String token = query.getToken(new Produto(4, "O'Neil, Jr", 1));
+		assertEquals(
+				"SELECT codigo,nome,preco FROM loja.produto WHERE (nome,codigo) > ('O''Neil, Jr',4) ORDER BY nome,codigo FETCH FIRST 3 ROWS ONLY",
+				query.getNextPage(token));
+		assertEquals(
+				"SELECT * FROM (SELECT codigo,nome,preco FROM loja.produto WHERE (nome,codigo) < ('O''Neil, Jr',4) ORDER BY nome DESC,codigo DESC FETCH FIRST 3 ROWS ONLY) p ORDER BY nome,codigo",
+				query.getPreviousPage(token));
+
+		query = new KeysetQuery(new SQLGenerator(new PostgreSQLDialect()),
+				ItemPedido.class, "quantidade");
+		query.setDescending(true);
+		assertEquals(
+				"SELECT pedido,item,quantidade FROM ItemPedido WHERE (quantidade,pedido,item) < (5,1,2) ORDER BY quantidade DESC,pedido DESC,item DESC LIMIT 20",
+				query.getNextPage(query.getToken(new ItemPedido(1, 2, 5))));
+
+		query = new KeysetQuery(new SQLGenerator(new StandardDialect() {
+			@Override
+			public boolean supportsRowValueIn() {
+				return false;
+			}
+		}), ItemPedido.class);
+		assertEquals(
+				"SELECT pedido,item,quantidade FROM ItemPedido WHERE ((pedido > 1) OR (pedido = 1 AND item > 2)) ORDER BY pedido,item FETCH FIRST 20 ROWS ONLY",
+				query.getNextPage(query.getToken(new ItemPedido(1, 2, 5))));
+	}
+
+	@Test
+	public void testToken() throws Exception {
+		KeysetQuery query = new KeysetQuery(Pedido.class, "dataEntrega",
+				"total", "pago");
+		Pedido pedido = new Pedido();
+		pedido.setNumero(7L);
+		pedido.setDataEntrega(Timestamp.valueOf("2012-01-31 10:20:30.5"));
+		pedido.setTotal(new BigDecimal("10.50"));
+		String token = query.getToken(pedido);
+		assertTrue(token.indexOf(' ') < 0);
+		assertArrayEquals(new Object[] { pedido.getDataEntrega(),
+				new BigDecimal("10.50"), Boolean.FALSE, 7L },
+				query.parseToken(token));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidColumn() {
+		new KeysetQuery(Produto.class, "nome; DROP TABLE x");
+	}
+
+	private List<Integer> getCodigos(String sql) throws Exception {
+		List<Integer> result = new ArrayList<Integer>();
+		ResultSet rs = connection.createStatement().executeQuery(sql);
+		while (rs.next())
+			result.add(EntityRowMapper.of(Produto.class).mapRow(rs)
+					.getCodigo());
+		return result;
+	}
+
+	@Test
+	public void testPaging() throws Exception {
+		KeysetQuery query = new KeysetQuery(Produto.class, "nome");
+		query.setPageSize(4);
+		// Produto 0: 3,6,9; Produto 1: 1,4,7,10; Produto 2: 2,5,8
+		List<Integer> page = getCodigos(query.getFirstPage());
+		assertEquals("[3, 6, 9, 1]", page.toString());
+		String token = query.getToken(new Produto(1, "Produto 1", 1));
+		assertEquals("[4, 7, 10, 2]", getCodigos(query.getNextPage(token))
+				.toString());
+		token = query.getToken(new Produto(4, "Produto 1", 4));
+		assertEquals("[3, 6, 9, 1]", getCodigos(query.getPreviousPage(token))
+				.toString());
+	}
+
+	private String getLinks(KeysetQuery query, String after, String before)
+			throws Exception {
+		String sql = after != null ? query.getNextPage(after)
+				: before != null ? query.getPreviousPage(before) : query
+						.getFirstPage();
+		String grid = new HtmlGenerator().getSimpleGrid(connection
+				.createStatement().executeQuery(sql), "produtos.jsp", query,
+				after, before);
+		int start = grid.indexOf("<div class='paginacao'>");
+		return start < 0 ? "" : grid.substring(start, grid.length() - 6);
+	}
+
+	@Test
+	public void testGridLinks() throws Exception {
+		KeysetQuery query = new KeysetQuery(Produto.class, "nome");
+		query.setPageSize(4);
+		String href = "<a href='produtos.jsp?order=nome&amp;order=codigo&amp;";
+		// primeira pagina: [3, 6, 9, 1]
+		assertEquals("<div class='paginacao'>" + href
+				+ "after=Produto+1%2C1'>Proxima</a></div>",
+				getLinks(query, null, null));
+		// [4, 7, 10, 2]
+		assertEquals("<div class='paginacao'>" + href
+				+ "before=Produto+1%2C4'>Anterior</a> " + href
+				+ "after=Produto+2%2C2'>Proxima</a></div>",
+				getLinks(query, "Produto+1%2C1", null));
+		// ultima pagina, incompleta: [5, 8]
+		assertEquals("<div class='paginacao'>" + href
+				+ "before=Produto+2%2C5'>Anterior</a></div>",
+				getLinks(query, "Produto+2%2C2", null));
+		// voltando ao inicio, incompleta: [3]
+		assertEquals("<div class='paginacao'>" + href
+				+ "after=Produto+0%2C3'>Proxima</a></div>",
+				getLinks(query, null, "Produto+0%2C6"));
+
+		query = new KeysetQuery(Produto.class, (String[]) null);
+		query.setPageSize(4);
+		query.setDescending(true);
+		assertEquals(
+				"<div class='paginacao'><a href='produtos.jsp?order=codigo&amp;desc=true&amp;after=7'>Proxima</a></div>",
+				getLinks(query, null, null));
+	}
+}
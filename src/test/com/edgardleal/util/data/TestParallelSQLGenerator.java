@@ -0,0 +1,61 @@
+package test.edgardleal.util.data;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.edgardleal.util.data.Operation;
+import com.edgardleal.util.data.ParallelSQLGenerator;
+import com.edgardleal.util.data.SQLGenerator;
+import com.edgardleal.util.data.SQLScriptWriter;
+
+public class TestParallelSQLGenerator {
+	private final SQLGenerator generator = new SQLGenerator();
+	private final ParallelSQLGenerator parallel = new ParallelSQLGenerator(
+			generator, new ForkJoinPool(4), 7);
+
+	private List<Produto> getProdutos(int count) {
+		List<Produto> result = new ArrayList<Produto>();
+		for (int i = 0; i < count; i++)
+			result.add(new Produto(i, "Produto " + i, i / 2.0));
+		return result;
+	}
+
+	@Test
+	public void testGenerateKeepsOrder() throws Exception {
+		List<Produto> produtos = getProdutos(1000);
+		List<String> commands = parallel.generate(
+				new LinkedList<Produto>(produtos), Operation.INSERT);
+		assertEquals(produtos.size(), commands.size());
+		for (int i = 0; i < produtos.size(); i++)
+			assertEquals(generator.getInsertCommand(produtos.get(i)),
+					commands.get(i));
+	}
+
+	@Test
+	public void testWriteKeepsOrder() throws Exception {
+		List<Produto> produtos = getProdutos(1001);
+		StringBuilder expected = new StringBuilder();
+		SQLScriptWriter writer = new SQLScriptWriter(expected);
+		writer.write(produtos, Operation.DELETE);
+		writer.close();
+
+		StringBuilder out = new StringBuilder();
+		writer = new SQLScriptWriter(out);
+		parallel.write(produtos, Operation.DELETE, writer);
+		writer.close();
+		assertEquals(expected.toString(), out.toString());
+	}
+
+	@Test
+	public void testEmpty() throws Exception {
+		assertEquals(0,
+				parallel.generate(new ArrayList<Produto>(), Operation.UPDATE)
+						.size());
+	}
+}
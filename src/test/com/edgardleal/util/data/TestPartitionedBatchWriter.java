@@ -0,0 +1,278 @@
+package test.edgardleal.util.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import test.edgardleal.util.GuineaPigModel;
+
+import com.edgardleal.util.data.PartitionedBatchWriter;
+import com.edgardleal.util.data.SQLGenerator;
+
+public class TestPartitionedBatchWriter {
+	private JdbcDataSource dataSource = null;
+	private Connection connection = null;
+
+	@Before
+	public void setUp() throws Exception {
+		dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:partitioned;DB_CLOSE_DELAY=-1");
+		connection = dataSource.getConnection();
+		connection.createStatement().execute("CREATE SCHEMA loja");
+		connection
+				.createStatement()
+				.execute(
+						"CREATE TABLE loja.produto (codigo INT PRIMARY KEY, nome VARCHAR(50), preco DOUBLE)");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		connection.createStatement().execute("DROP ALL OBJECTS");
+		connection.close();
+	}
+
+	private int count(String where) throws SQLException {
+		ResultSet rs = connection.createStatement().executeQuery(
+				"SELECT COUNT(*) FROM loja.produto WHERE " + where);
+		rs.next();
+		return rs.getInt(1);
+	}
+
+	@Test
+	public void testPartition() throws Exception {
+		PartitionedBatchWriter writer = new PartitionedBatchWriter(dataSource,
+				4);
+		try {
+			assertEquals(4, writer.getPartitionCount());
+			Produto produto = new Produto(7, "Caneta", 2);
+			int partition = writer.getPartition(produto);
+			assertTrue(partition >= 0 && partition < 4);
+			assertEquals(partition,
+					writer.getPartition(new Produto(7, "Outro", 5)));
+		} finally {
+			writer.close();
+		}
+	}
+
+	@Test
+	public void testWrite() throws Exception {
+		PartitionedBatchWriter writer = new PartitionedBatchWriter(dataSource,
+				4);
+		for (int i = 0; i < 1000; i++)
+			writer.insert(new Produto(i, "Produto " + i, i));
+		writer.flush();
+		assertEquals(1000, count("1 = 1"));
+
+		// operacoes sobre a mesma chave mantem a ordem
+		for (int i = 0; i < 1000; i++) {
+			writer.update(new Produto(i, "Alterado", i));
+			if (i % 2 == 0) {
+				writer.delete(new Produto(i, null, 0));
+				writer.insert(new Produto(i, "Novo", i));
+			}
+		}
+		writer.close();
+		assertEquals(500, count("nome = 'Alterado'"));
+		assertEquals(500, count("nome = 'Novo'"));
+	}
+
+	@Test
+	public void testCloseInterrupted() throws Exception {
+		PartitionedBatchWriter writer = new PartitionedBatchWriter(dataSource,
+				2);
+		for (int i = 0; i < 100; i++)
+			writer.insert(new Produto(i, "Produto " + i, i));
+		Thread.currentThread().interrupt();
+		try {
+			writer.close();
+			// o estado de interrupcao e mantido
+			assertTrue(Thread.interrupted());
+		} finally {
+			Thread.interrupted();
+		}
+		assertEquals(100, count("1 = 1"));
+	}
+
+	@Test
+	public void testUnassignedKey() throws Exception {
+		connection
+				.createStatement()
+				.execute(
+						"CREATE TABLE GuineaPigModel (code INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(50), color VARCHAR(20), birth DATE)");
+		PartitionedBatchWriter writer = new PartitionedBatchWriter(dataSource,
+				4);
+		assertEquals(-1, writer.getPartition(new GuineaPigModel()));
+		for (int i = 0; i < 100; i++) {
+			GuineaPigModel model = new GuineaPigModel();
+			model.setName("Novo " + i);
+			writer.insert(model);
+		}
+		writer.close();
+		ResultSet rs = connection.createStatement().executeQuery(
+				"SELECT COUNT(*) FROM GuineaPigModel");
+		rs.next();
+		assertEquals(100, rs.getInt(1));
+	}
+
+	@Test
+	public void testErrors() throws Exception {
+		connection.createStatement().execute(
+				"INSERT INTO loja.produto VALUES (1, 'Lapis', 1)");
+		connection.createStatement().execute(
+				"INSERT INTO loja.produto VALUES (2, 'Borracha', 1)");
+		PartitionedBatchWriter writer = new PartitionedBatchWriter(dataSource,
+				2);
+		writer.insert(new Produto(1, "Duplicado", 1));
+		writer.insert(new Produto(2, "Duplicado", 1));
+		try {
+			writer.flush();
+			fail("Deveria lancar SQLException");
+		} catch (SQLException e) {
+			assertTrue(e.getSuppressed().length >= 1);
+		}
+		// os erros sao lancados uma unica vez
+		writer.insert(new Produto(3, "Caneta", 1));
+		writer.close();
+		assertEquals(1, count("codigo = 3"));
+		assertEquals(0, count("nome = 'Duplicado'"));
+	}
+
+	@Test(timeout = 10000)
+	public void testThreadFactoryError() throws Exception {
+		final List<Connection> connections = new ArrayList<Connection>();
+		DataSource source = (DataSource) Proxy.newProxyInstance(getClass()
+				.getClassLoader(), new Class<?>[] { DataSource.class },
+				new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method,
+							Object[] args) throws Throwable {
+						Object result = TestPartitionedBatchWriter.invoke(
+								dataSource, method, args);
+						if (result instanceof Connection)
+							connections.add((Connection) result);
+						return result;
+					}
+				});
+		final List<Thread> threads = new ArrayList<Thread>();
+		ThreadFactory factory = new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				if (threads.size() == 2)
+					throw new IllegalStateException("limite de threads");
+				Thread thread = new Thread(runnable);
+				threads.add(thread);
+				return thread;
+			}
+		};
+		try {
+			new PartitionedBatchWriter(source, 4, new SQLGenerator(), 100,
+					1000L, 100, factory);
+			fail("Deveria lancar IllegalStateException");
+		} catch (IllegalStateException e) {
+		}
+		for (Thread thread : threads)
+			thread.join();
+		assertEquals(4, connections.size());
+		for (Connection opened : connections)
+			assertTrue(opened.isClosed());
+	}
+
+	/**
+	 * Conexao cujo <code>executeBatch</code> lanca
+	 * <code>IllegalStateException</code>
+	 */
+	private Connection createFailingConnection() throws SQLException {
+		final Connection target = dataSource.getConnection();
+		return (Connection) Proxy.newProxyInstance(getClass()
+				.getClassLoader(), new Class<?>[] { Connection.class },
+				new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method,
+							Object[] args) throws Throwable {
+						Object result = TestPartitionedBatchWriter.invoke(
+								target, method, args);
+						if (!(result instanceof PreparedStatement))
+							return result;
+						final Object statement = result;
+						return Proxy.newProxyInstance(getClass()
+								.getClassLoader(),
+								new Class<?>[] { PreparedStatement.class },
+								new InvocationHandler() {
+									@Override
+									public Object invoke(Object proxy,
+											Method method, Object[] args)
+											throws Throwable {
+										if (method.getName().equals(
+												"executeBatch"))
+											throw new IllegalStateException(
+													"executeBatch");
+										return TestPartitionedBatchWriter
+												.invoke(statement, method,
+														args);
+									}
+								});
+					}
+				});
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args)
+			throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void testRuntimeError() throws Exception {
+		final Connection failing = createFailingConnection();
+		DataSource failingSource = (DataSource) Proxy.newProxyInstance(
+				getClass().getClassLoader(),
+				new Class<?>[] { DataSource.class }, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method,
+							Object[] args) throws Throwable {
+						return method.getName().equals("getConnection") ? failing
+								: TestPartitionedBatchWriter.invoke(
+										dataSource, method, args);
+					}
+				});
+		PartitionedBatchWriter writer = new PartitionedBatchWriter(
+				failingSource, 1);
+		writer.insert(new Produto(1, "Lapis", 1));
+		try {
+			writer.flush();
+			fail("Deveria lancar SQLException");
+		} catch (SQLException e) {
+			Throwable cause = e.getSuppressed()[0].getCause();
+			assertTrue(cause.getCause() instanceof IllegalStateException);
+		}
+		// a particao continua ativa
+		writer.insert(new Produto(2, "Caneta", 1));
+		try {
+			writer.close();
+			fail("Deveria lancar SQLException");
+		} catch (SQLException e) {
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package test.edgardleal.util.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.NoSuchElementException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.edgardleal.util.data.EntityRowMapper;
+import com.edgardleal.util.data.ResultSetCursor;
+
+public class TestResultSetCursor {
+	private Connection connection = null;
+
+	@Before
+	public void setUp() throws Exception {
+		connection = DriverManager.getConnection("jdbc:h2:mem:cursor");
+		Statement statement = connection.createStatement();
+		statement.execute("CREATE SCHEMA loja");
+		statement
+				.execute("CREATE TABLE loja.produto (codigo INT PRIMARY KEY, nome VARCHAR(50), preco DOUBLE)");
+		for (int i = 1; i <= 25; i++)
+			statement.execute("INSERT INTO loja.produto VALUES (" + i
+					+ ", 'Produto " + i + "', " + i + ".5)");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		connection.close();
+	}
+
+	@Test
+	public void testIterateAll() throws Exception {
+		ResultSetCursor<Produto> cursor = ResultSetCursor.select(connection,
+				Produto.class, 10);
+		assertEquals(10, cursor.getResultSet().getStatement().getFetchSize());
+		int count = 0;
+		for (Produto produto : cursor) {
+			count++;
+			assertEquals("Produto " + produto.getCodigo(), produto.getNome());
+		}
+		assertEquals(25, count);
+		assertTrue(cursor.isClosed());
+		assertFalse(cursor.hasNext());
+	}
+
+	@Test
+	public void testCloseBeforeEnd() throws Exception {
+		ResultSetCursor<Produto> cursor;
+		try (ResultSetCursor<Produto> opened = ResultSetCursor.open(
+				connection, "SELECT * FROM loja.produto ORDER BY codigo", 5,
+				EntityRowMapper.of(Produto.class))) {
+			cursor = opened;
+			assertEquals(1, cursor.next().getCodigo());
+			assertEquals(2, cursor.next().getCodigo());
+		}
+		assertTrue(cursor.isClosed());
+		assertTrue(cursor.getResultSet().isClosed());
+		assertFalse(cursor.hasNext());
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void testNextAfterEnd() throws Exception {
+		ResultSetCursor<Produto> cursor = ResultSetCursor.open(connection,
+				"SELECT * FROM loja.produto WHERE codigo > 100", 5,
+				EntityRowMapper.of(Produto.class));
+		cursor.next();
+	}
+}
@@ -0,0 +1,244 @@
+package test.edgardleal.util.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.persistence.Id;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import test.edgardleal.util.GuineaPigModel;
+
+import com.edgardleal.util.data.EntityMetadata;
+import com.edgardleal.util.data.EntitySnapshot;
+import com.edgardleal.util.data.SQLGenerator;
+import com.edgardleal.util.data.SQLTemplate;
+import com.edgardleal.util.data.dialect.StandardDialect;
+
+public class TestSQLGenerator {
+	private SQLGenerator generator = null;
+	private Produto produto = null;
+
+	@Before
+	public void setUp() throws Exception {
+		generator = new SQLGenerator();
+		produto = new Produto(1, "Caneta", 2.5);
+	}
+
+	@Test
+	public void testMetadata() {
+		EntityMetadata metadata = EntityMetadata.of(Produto.class);
+		assertSame(metadata, EntityMetadata.of(Produto.class));
+		assertEquals("loja.produto", metadata.getTableName());
+		assertEquals(3, metadata.getColumns().size());
+		assertEquals("codigo", metadata.getKeyColumns().get(0).getName());
+		assertEquals("codigo,nome,preco", metadata.getInsertColumnList());
+
+		metadata = EntityMetadata.of(GuineaPigModel.class);
+		assertEquals("GuineaPigModel", metadata.getTableName());
+		assertEquals("code", metadata.getGeneratedColumns().get(0).getName());
+		assertEquals("name,color,birth", metadata.getInsertColumnList());
+	}
+
+	@Test
+	public void testGetInsertCommand() {
+		assertEquals(
+				"INSERT INTO loja.produto (codigo,nome,preco) VALUES(1,'Caneta',2.5)",
+				generator.getInsertCommand(produto));
+	}
+
+	@Test
+	public void testGetInsertCommandTypedValues() {
+		produto.setNome(null);
+		produto.setCodigo(-3);
+		assertEquals(
+				"INSERT INTO loja.produto (codigo,nome,preco) VALUES(-3,null,2.5)",
+				generator.getInsertCommand(produto));
+	}
+
+	@Test
+	public void testGetInsertCommandCollection() throws Exception {
+		List<Produto> produtos = Arrays.asList(produto, new Produto(2,
+				"Lapis", 1), new Produto(3, "Borracha", 0.5));
+		List<String> commands = generator.getInsertCommand(produtos);
+		assertEquals(1, commands.size());
+		assertEquals(
+				"INSERT INTO loja.produto (codigo,nome,preco) VALUES(1,'Caneta',2.5),(2,'Lapis',1.0),(3,'Borracha',0.5)",
+				commands.get(0));
+
+		commands = generator.getInsertCommand(produtos, 2, 1024);
+		assertEquals(2, commands.size());
+		assertEquals(
+				"INSERT INTO loja.produto (codigo,nome,preco) VALUES(3,'Borracha',0.5)",
+				commands.get(1));
+
+		commands = generator.getInsertCommand(produtos, 10, 70);
+		assertEquals(3, commands.size());
+		assertEquals(generator.getInsertCommand(produto), commands.get(0));
+	}
+
+	@Test(expected = InvocationTargetException.class)
+	public void testGetInsertCommandCollectionFailure() throws Exception {
+		generator.getInsertCommand(Arrays.asList(new Defeituoso(1),
+				new Defeituoso(2)));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testGetInsertCommandFailure() {
+		generator.getInsertCommand(new Defeituoso(1));
+	}
+
+	@Test
+	public void testGetUpdate() throws Exception {
+		assertEquals(
+				"UPDATE loja.produto SET nome = 'Caneta',preco = 2.5 WHERE codigo = 1",
+				generator.getUpdate(produto));
+	}
+
+	@Test
+	public void testGetUpdateChangedColumns() throws Exception {
+		EntitySnapshot snapshot = EntitySnapshot.capture(produto);
+		assertNull(generator.getUpdate(produto, snapshot));
+
+		produto.setPreco(3);
+		assertEquals("UPDATE loja.produto SET preco = 3.0 WHERE codigo = 1",
+				generator.getUpdate(produto, snapshot));
+	}
+
+	@Test
+	public void testGetDeleteCommand() {
+		assertTrue(generator.getDeleteCommand(produto).equals(
+				"DELETE FROM loja.produto WHERE codigo = 1"));
+	}
+
+	@Test
+	public void testGetDeleteCommandCollection() throws Exception {
+		List<String> commands = generator.getDeleteCommand(Arrays.asList(
+				produto, new Produto(2, "Lapis", 1), new Produto(3, "Borracha",
+						0.5)), 2);
+		assertEquals(2, commands.size());
+		assertEquals("DELETE FROM loja.produto WHERE codigo IN (1,2)",
+				commands.get(0));
+		assertEquals("DELETE FROM loja.produto WHERE codigo IN (3)",
+				commands.get(1));
+	}
+
+	@Test(expected = InvocationTargetException.class)
+	public void testGetDeleteCommandCollectionFailure() throws Exception {
+		generator.getDeleteCommand(Arrays.asList(new Defeituoso(1)));
+	}
+
+	@Test
+	public void testGetDeleteCommandCompositeKey() throws Exception {
+		List<ItemPedido> itens = Arrays.asList(new ItemPedido(1, 1, 5),
+				new ItemPedido(1, 2, 3));
+		assertEquals(
+				"DELETE FROM ItemPedido WHERE (pedido,item) IN ((1,1),(1,2))",
+				generator.getDeleteCommand(itens).get(0));
+
+		generator.setDialect(new StandardDialect() {
+			@Override
+			public boolean supportsRowValueIn() {
+				return false;
+			}
+		});
+		assertEquals(
+				"DELETE FROM ItemPedido WHERE (pedido = 1 AND item = 1) OR (pedido = 1 AND item = 2)",
+				generator.getDeleteCommand(itens).get(0));
+	}
+
+	@Test
+	public void testTemplates() {
+		SQLTemplate insert = generator.getInsertTemplate(Produto.class);
+		assertSame(insert, generator.getInsertTemplate(Produto.class));
+		assertEquals(
+				"INSERT INTO loja.produto (codigo,nome,preco) VALUES(?,?,?)",
+				insert.getSql());
+		assertEquals(
+				"UPDATE loja.produto SET nome = ?,preco = ? WHERE codigo = ?",
+				generator.getUpdateTemplate(Produto.class).getSql());
+		assertEquals("DELETE FROM loja.produto WHERE codigo = ?", generator
+				.getDeleteTemplate(Produto.class).getSql());
+		assertEquals("INSERT INTO GuineaPigModel (name,color,birth) VALUES(?,?,?)",
+				generator.getInsertTemplate(GuineaPigModel.class).getSql());
+	}
+
+	@Test
+	public void testBindTemplate() throws SQLException {
+		Connection connection = DriverManager
+				.getConnection("jdbc:h2:mem:template");
+		try {
+			Statement statement = connection.createStatement();
+			statement.execute("CREATE SCHEMA loja");
+			statement
+					.execute("CREATE TABLE loja.produto (codigo INT PRIMARY KEY, nome VARCHAR(50), preco DOUBLE)");
+
+			execute(connection, generator.getInsertTemplate(Produto.class),
+					produto);
+			produto.setNome(null);
+			execute(connection, generator.getUpdateTemplate(Produto.class),
+					produto);
+
+			ResultSet rs = statement
+					.executeQuery("SELECT nome, preco FROM loja.produto WHERE codigo = 1");
+			assertTrue(rs.next());
+			assertNull(rs.getString(1));
+			assertEquals(2.5, rs.getDouble(2), 0);
+
+			assertEquals(1, execute(connection,
+					generator.getDeleteTemplate(Produto.class), produto));
+		} finally {
+			connection.close();
+		}
+	}
+
+	private int execute(Connection connection, SQLTemplate template,
+			Object entity) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement(template
+				.getSql());
+		template.bind(statement, entity);
+		return statement.executeUpdate();
+	}
+
+	/**
+	 * Entidade cujo metodo get falha, para testar a propagacao da excecao.
+	 */
+	public static class Defeituoso {
+		private int codigo;
+		@Id
+		private String nome;
+
+		public Defeituoso(int codigo) {
+			this.codigo = codigo;
+		}
+
+		public int getCodigo() {
+			return codigo;
+		}
+
+		public void setCodigo(int codigo) {
+			this.codigo = codigo;
+		}
+
+		public String getNome() {
+			throw new UnsupportedOperationException("nome indisponivel");
+		}
+
+		public void setNome(String nome) {
+			this.nome = nome;
+		}
+	}
+}
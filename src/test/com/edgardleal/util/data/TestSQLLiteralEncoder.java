@@ -0,0 +1,82 @@
+package test.edgardleal.util.data;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+import org.junit.Test;
+
+import com.edgardleal.util.data.SQLGenerator;
+import com.edgardleal.util.data.SQLLiteralEncoder;
+import com.edgardleal.util.data.dialect.MySQLDialect;
+import com.edgardleal.util.data.dialect.PostgreSQLDialect;
+
+public class TestSQLLiteralEncoder {
+	private final SQLLiteralEncoder standard = SQLLiteralEncoder.STANDARD;
+	private final SQLLiteralEncoder mysql = new MySQLDialect()
+			.getLiteralEncoder();
+
+	@Test
+	public void testNumbersAndNull() {
+		assertEquals("null", standard.encode(null));
+		assertEquals("10", standard.encode(10));
+		assertEquals("-5", standard.encode(-5L));
+		assertEquals("2.5", standard.encode(2.5));
+		assertEquals("1.1", standard.encode(1.1f));
+		assertEquals("100", standard.encode(new BigDecimal("1E+2")));
+		assertEquals("'NaN'", standard.encode(Double.NaN));
+		assertEquals("TRUE", standard.encode(true));
+		assertEquals("FALSE", standard.encode(Boolean.FALSE));
+	}
+
+	@Test
+	public void testQuotes() {
+		assertEquals("'abc'", standard.encode("abc"));
+		assertEquals("'O''Neil'", standard.encode("O'Neil"));
+		assertEquals("''''''", standard.encode("''"));
+		assertEquals("'a\\b'", standard.encode("a\\b"));
+		assertEquals("'a\\\\b'", mysql.encode("a\\b"));
+		assertEquals("'\\\\'' OR 1=1 --'", mysql.encode("\\' OR 1=1 --"));
+	}
+
+	@Test
+	public void testDates() {
+		Calendar calendar = new GregorianCalendar(2012, Calendar.JANUARY, 5,
+				8, 3, 9);
+		assertEquals("'2012-01-05 08:03:09'",
+				standard.encode(calendar.getTime()));
+		calendar.set(Calendar.MILLISECOND, 40);
+		assertEquals("'2012-01-05 08:03:09.04'",
+				standard.encode(calendar.getTime()));
+		assertEquals("'2012-01-05 08:03:09.04'", standard.encode(calendar));
+		assertEquals("'2012-01-05'",
+				standard.encode(java.sql.Date.valueOf("2012-01-05")));
+		assertEquals("'08:03:09'", standard.encode(Time.valueOf("08:03:09")));
+		assertEquals("'2012-01-05 08:03:09.000000123'",
+				standard.encode(Timestamp
+						.valueOf("2012-01-05 08:03:09.000000123")));
+	}
+
+	@Test
+	public void testBytes() {
+		byte[] value = { 10, (byte) 255 };
+		assertEquals("X'0AFF'", standard.encode(value));
+		assertEquals("'\\x0AFF'",
+				new PostgreSQLDialect().getLiteralEncoder().encode(value));
+	}
+
+	@Test
+	public void testGeneratorEscapes() throws Exception {
+		assertEquals(
+				"UPDATE loja.produto SET nome = 'D''Agua',preco = 1.5 WHERE codigo = 1",
+				new SQLGenerator().getUpdate(new Produto(1, "D'Agua", 1.5)));
+		assertEquals(
+				"INSERT INTO loja.produto (codigo,nome,preco) VALUES(1,'a\\\\b',1.5)",
+				new SQLGenerator(new MySQLDialect())
+						.getInsertCommand(new Produto(1, "a\\b", 1.5)));
+	}
+}
@@ -0,0 +1,139 @@
+package test.edgardleal.util.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import com.edgardleal.util.data.BatchWriter;
+import com.edgardleal.util.data.EntitySnapshot;
+import com.edgardleal.util.data.LogHistogram;
+import com.edgardleal.util.data.Operation;
+import com.edgardleal.util.data.SQLGenerator;
+import com.edgardleal.util.data.SQLListener;
+import com.edgardleal.util.data.SQLMetrics;
+
+public class TestSQLMetrics {
+
+	@Test
+	public void testHistogram() {
+		LogHistogram histogram = new LogHistogram();
+		assertEquals(0, histogram.getPercentile(99));
+		for (int i = 1; i <= 100; i++)
+			histogram.record(i);
+		assertEquals(100, histogram.getCount());
+		assertEquals(5050, histogram.getSum());
+		assertEquals(100, histogram.getMax());
+		assertEquals(50.5, histogram.getMean(), 0.001);
+		assertEquals(63, histogram.getPercentile(50));
+		assertEquals(100, histogram.getPercentile(99));
+		assertEquals(1, histogram.getBuckets()[1]);
+		assertEquals(2, histogram.getBuckets()[2]);
+		assertEquals(37, histogram.getBuckets()[7]);
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+	}
+
+	@Test
+	public void testGenerator() throws Exception {
+		SQLGenerator generator = new SQLGenerator();
+		assertTrue(generator.getListener() == SQLListener.NONE);
+		SQLMetrics metrics = new SQLMetrics();
+		generator.setListener(metrics);
+		String insert = generator.getInsertCommand(new Produto(1, "Lapis", 1));
+		generator.getUpdate(new Produto(1, "Lapis", 1));
+		generator.getDeleteCommand(new Produto(1, "Lapis", 1));
+		generator.getDeleteCommand(new Produto(2, "Caneta", 1));
+
+		assertEquals(4, metrics.getStatementCount());
+		assertEquals(1, metrics.getGeneratedCount(Produto.class,
+				Operation.INSERT));
+		assertEquals(2, metrics.getGeneratedCount(Produto.class,
+				Operation.DELETE));
+		assertTrue(metrics.getStatementLengthMax() >= insert.length());
+		assertEquals("test.edgardleal.util.data.Produto INSERT=1/0 UPDATE=1/0 DELETE=2/0",
+				metrics.getEntityCounts()[0]);
+
+		generator.setListener(null);
+		generator.getInsertCommand(new Produto(3, "Regua", 1));
+		assertEquals(4, metrics.getStatementCount());
+	}
+
+	@Test
+	public void testBulkCommands() throws Exception {
+		SQLGenerator generator = new SQLGenerator();
+		SQLMetrics metrics = new SQLMetrics();
+		generator.setListener(metrics);
+		List<Produto> produtos = Arrays.asList(new Produto(1, "Lapis", 1),
+				new Produto(2, "Caneta", 1), new Produto(3, "Regua", 1));
+		List<String> inserts = generator.getInsertCommand(produtos, 2,
+				Integer.MAX_VALUE);
+		assertEquals(2, inserts.size());
+		generator.getUpsertCommand(produtos.get(0));
+		assertEquals(3, generator.getDeleteCommand(produtos, 1).size());
+		Produto lapis = produtos.get(0);
+		EntitySnapshot snapshot = EntitySnapshot.capture(lapis);
+		lapis.setNome("Lapis azul");
+		generator.getUpdate(lapis, snapshot);
+
+		assertEquals(3, metrics.getGeneratedCount(Produto.class,
+				Operation.INSERT));
+		assertEquals(1, metrics.getGeneratedCount(Produto.class,
+				Operation.UPDATE));
+		assertEquals(3, metrics.getGeneratedCount(Produto.class,
+				Operation.DELETE));
+		assertTrue(metrics.getStatementLengthMax() >= inserts.get(0).length());
+	}
+
+	@Test
+	public void testBatchWriter() throws Exception {
+		Connection connection = DriverManager
+				.getConnection("jdbc:h2:mem:metrics");
+		try {
+			connection.createStatement().execute("CREATE SCHEMA loja");
+			connection
+					.createStatement()
+					.execute(
+							"CREATE TABLE loja.produto (codigo INT PRIMARY KEY, nome VARCHAR(50), preco DOUBLE)");
+			SQLGenerator generator = new SQLGenerator();
+			SQLMetrics metrics = new SQLMetrics();
+			generator.setListener(metrics);
+			BatchWriter writer = new BatchWriter(connection, generator, 10,
+					60000);
+			for (int i = 0; i < 25; i++)
+				writer.insert(new Produto(i, "Produto", i));
+			writer.close();
+			assertEquals(3, metrics.getBatchCount());
+			assertEquals(25, metrics.getBatchSize().getSum());
+			assertEquals(25, metrics.getExecutedCount(Produto.class,
+					Operation.INSERT));
+			assertTrue(metrics.getExecutionNanosMax() > 0);
+		} finally {
+			connection.close();
+		}
+	}
+
+	@Test
+	public void testJmx() throws Exception {
+		SQLMetrics metrics = new SQLMetrics();
+		metrics.statementGenerated(Produto.class, Operation.INSERT, 1000, 80);
+		ObjectName name = metrics.register("teste");
+		try {
+			assertEquals(1L, ManagementFactory.getPlatformMBeanServer()
+					.getAttribute(name, "StatementCount"));
+			ManagementFactory.getPlatformMBeanServer().invoke(name, "reset",
+					null, null);
+			assertEquals(0, metrics.getStatementCount());
+		} finally {
+			SQLMetrics.unregister(name);
+		}
+	}
+}
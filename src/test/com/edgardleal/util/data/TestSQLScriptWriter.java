@@ -0,0 +1,50 @@
+package test.edgardleal.util.data;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.edgardleal.util.data.Operation;
+import com.edgardleal.util.data.SQLGenerator;
+import com.edgardleal.util.data.SQLScriptWriter;
+
+public class TestSQLScriptWriter {
+	private final String expected = "INSERT INTO loja.produto (codigo,nome,preco) VALUES(1,'Cafe\u00e9',2.5);\n"
+			+ "DELETE FROM loja.produto WHERE codigo = 2;\n";
+
+	private void write(SQLScriptWriter writer) throws IOException {
+		writer.write(Arrays.asList(new Produto(1, "Cafe\u00e9", 2.5)),
+				Operation.INSERT);
+		writer.writeDelete(new Produto(2, "Lapis", 1));
+		writer.close();
+	}
+
+	@Test
+	public void testWriter() throws IOException {
+		StringWriter out = new StringWriter();
+		write(new SQLScriptWriter(out, new SQLGenerator(), 16));
+		assertEquals(expected, out.toString());
+	}
+
+	@Test
+	public void testAppendable() throws IOException {
+		StringBuilder out = new StringBuilder();
+		write(new SQLScriptWriter(out));
+		assertEquals(expected, out.toString());
+	}
+
+	@Test
+	public void testOutputStream() throws IOException {
+		Charset utf8 = Charset.forName("UTF-8");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		write(new SQLScriptWriter(java.nio.channels.Channels.newChannel(out),
+				utf8, new SQLGenerator(), 16));
+		assertEquals(expected, new String(out.toByteArray(), utf8));
+	}
+}
@@ -0,0 +1,86 @@
+package test.edgardleal.util.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.edgardleal.util.data.SQLGenerator;
+import com.edgardleal.util.data.dialect.MySQLDialect;
+import com.edgardleal.util.data.dialect.PostgreSQLDialect;
+
+public class TestUpsert {
+	private SQLGenerator generator = null;
+	private List<Produto> produtos = null;
+
+	@Before
+	public void setUp() throws Exception {
+		generator = new SQLGenerator();
+		produtos = Arrays.asList(new Produto(1, "Caneta", 2.5), new Produto(
+				2, "Lapis", 1));
+	}
+
+	@Test
+	public void testPostgreSQL() throws Exception {
+		generator.setDialect(new PostgreSQLDialect());
+		assertEquals(
+				"INSERT INTO loja.produto (codigo,nome,preco) VALUES(1,'Caneta',2.5),(2,'Lapis',1.0)"
+						+ " ON CONFLICT (codigo) DO UPDATE SET nome = EXCLUDED.nome,preco = EXCLUDED.preco",
+				generator.getUpsertCommand(produtos).get(0));
+	}
+
+	@Test
+	public void testMySQL() throws Exception {
+		generator.setDialect(new MySQLDialect());
+		assertEquals(
+				"INSERT INTO loja.produto (codigo,nome,preco) VALUES(1,'Caneta',2.5)"
+						+ " ON DUPLICATE KEY UPDATE nome = VALUES(nome),preco = VALUES(preco)",
+				generator.getUpsertCommand(produtos.get(0)));
+	}
+
+	@Test
+	public void testDuplicateKey() throws Exception {
+		generator.setDialect(new PostgreSQLDialect());
+		List<String> commands = generator.getUpsertCommand(Arrays.asList(
+				produtos.get(0), produtos.get(1), new Produto(1, "Caneta", 3)));
+		assertEquals(1, commands.size());
+		assertEquals(
+				"INSERT INTO loja.produto (codigo,nome,preco) VALUES(1,'Caneta',3.0),(2,'Lapis',1.0)"
+						+ " ON CONFLICT (codigo) DO UPDATE SET nome = EXCLUDED.nome,preco = EXCLUDED.preco",
+				commands.get(0));
+	}
+
+	@Test
+	public void testMerge() throws Exception {
+		Connection connection = DriverManager
+				.getConnection("jdbc:h2:mem:upsert");
+		try {
+			Statement statement = connection.createStatement();
+			statement.execute("CREATE SCHEMA loja");
+			statement
+					.execute("CREATE TABLE loja.produto (codigo INT PRIMARY KEY, nome VARCHAR(50), preco DOUBLE)");
+			statement.execute(generator.getInsertCommand(produtos.get(0)));
+
+			produtos.get(0).setPreco(3);
+			for (String sql : generator.getUpsertCommand(produtos))
+				assertEquals(2, statement.executeUpdate(sql));
+
+			ResultSet rs = statement
+					.executeQuery("SELECT COUNT(*), SUM(preco) FROM loja.produto");
+			assertTrue(rs.next());
+			assertEquals(2, rs.getInt(1));
+			assertEquals(4, rs.getDouble(2), 0);
+		} finally {
+			connection.close();
+		}
+	}
+}
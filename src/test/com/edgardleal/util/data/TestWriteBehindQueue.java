@@ -0,0 +1,220 @@
+package test.edgardleal.util.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import test.edgardleal.util.GuineaPigModel;
+
+import com.edgardleal.util.data.BatchListener;
+import com.edgardleal.util.data.EntityKey;
+import com.edgardleal.util.data.Operation;
+import com.edgardleal.util.data.WriteBehindQueue;
+
+public class TestWriteBehindQueue {
+	private Connection connection = null;
+	private List<Operation> operations = null;
+
+	@Before
+	public void setUp() throws Exception {
+		connection = DriverManager.getConnection("jdbc:h2:mem:writebehind");
+		connection.createStatement().execute("CREATE SCHEMA loja");
+		connection
+				.createStatement()
+				.execute(
+						"CREATE TABLE loja.produto (codigo INT PRIMARY KEY, nome VARCHAR(50), preco DOUBLE)");
+		connection.createStatement().execute(
+				"INSERT INTO loja.produto VALUES (1, 'Lapis', 1)");
+		operations = Collections.synchronizedList(new ArrayList<Operation>());
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		connection.close();
+	}
+
+	private WriteBehindQueue createQueue(int capacity) {
+		WriteBehindQueue queue = new WriteBehindQueue(connection, capacity,
+				60000L);
+		queue.setListener(new BatchListener() {
+			@Override
+			public void batchExecuted(Class<?> type, Operation operation,
+					int[] updateCounts) {
+				for (int i = 0; i < updateCounts.length; i++)
+					operations.add(operation);
+			}
+		});
+		return queue;
+	}
+
+	private String getNome(int codigo) throws SQLException {
+		ResultSet rs = connection.createStatement().executeQuery(
+				"SELECT nome FROM loja.produto WHERE codigo = " + codigo);
+		return rs.next() ? rs.getString(1) : null;
+	}
+
+	@Test
+	public void testEntityKey() throws Exception {
+		assertEquals(EntityKey.of(Produto.class, 1),
+				EntityKey.of(new Produto(1, "a", 1)));
+		assertFalse(EntityKey.of(Produto.class, 1).equals(
+				EntityKey.of(Produto.class, 2)));
+		ItemPedido item = new ItemPedido();
+		item.setPedido(1);
+		item.setItem(2);
+		assertEquals(EntityKey.of(ItemPedido.class, 1, 2),
+				EntityKey.of(item));
+	}
+
+	@Test
+	public void testCoalescing() throws Exception {
+		WriteBehindQueue queue = createQueue(100);
+		Produto lapis = new Produto(1, "Lapis", 1);
+		for (int i = 0; i < 10; i++) {
+			lapis.setNome("Lapis " + i);
+			queue.update(lapis);
+		}
+		queue.insert(new Produto(2, "Caneta", 2));
+		queue.update(new Produto(2, "Caneta azul", 2));
+		queue.insert(new Produto(3, "Borracha", 3));
+		queue.delete(new Produto(3, "Borracha", 3));
+		assertEquals(2, queue.getPendingCount());
+		queue.flush();
+
+		assertEquals(0, queue.getPendingCount());
+		assertEquals(2, operations.size());
+		assertTrue(operations.contains(Operation.UPDATE));
+		assertTrue(operations.contains(Operation.INSERT));
+		assertEquals("Lapis 9", getNome(1));
+		assertEquals("Caneta azul", getNome(2));
+		assertEquals(null, getNome(3));
+
+		queue.delete(lapis);
+		queue.insert(new Produto(1, "Lapis novo", 1));
+		queue.flush();
+		assertEquals(Operation.UPDATE, operations.get(2));
+		assertEquals("Lapis novo", getNome(1));
+
+		queue.update(lapis);
+		queue.insert(new Produto(1, "Lapis de cor", 1));
+		queue.close();
+		assertEquals(Operation.UPDATE, operations.get(3));
+		assertEquals("Lapis de cor", getNome(1));
+	}
+
+	@Test
+	public void testOrder() throws Exception {
+		WriteBehindQueue queue = createQueue(100);
+		queue.insert(new Produto(2, "Caneta", 2));
+		queue.delete(new Produto(1, null, 0));
+		queue.insert(new Produto(3, "Borracha", 3));
+		queue.update(new Produto(2, "Caneta azul", 2));
+		queue.close();
+		// gravado na ordem da fila, sem agrupar os INSERT
+		assertEquals(Arrays.asList(Operation.INSERT, Operation.DELETE,
+				Operation.INSERT), operations);
+		assertEquals("Caneta azul", getNome(2));
+	}
+
+	@Test
+	public void testUnassignedKey() throws Exception {
+		connection
+				.createStatement()
+				.execute(
+						"CREATE TABLE GuineaPigModel (code INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(50), color VARCHAR(20), birth DATE)");
+		WriteBehindQueue queue = createQueue(100);
+		GuineaPigModel first = new GuineaPigModel();
+		assertFalse(EntityKey.of(first).isAssigned());
+		queue.insert(first);
+		first.setName("Rex");
+		queue.update(first);
+		for (int i = 0; i < 4; i++) {
+			GuineaPigModel model = new GuineaPigModel();
+			model.setName("Novo " + i);
+			queue.insert(model);
+		}
+		// cada entidade nova ocupa uma posicao propria na fila
+		assertEquals(5, queue.getPendingCount());
+		queue.close();
+		assertEquals(5, operations.size());
+		ResultSet rs = connection.createStatement().executeQuery(
+				"SELECT COUNT(*) FROM GuineaPigModel WHERE name IS NOT NULL");
+		rs.next();
+		assertEquals(5, rs.getInt(1));
+	}
+
+	@Test
+	public void testBackpressure() throws Exception {
+		WriteBehindQueue queue = createQueue(5);
+		for (int i = 10; i < 60; i++)
+			queue.insert(new Produto(i, "Produto " + i, i));
+		assertTrue(queue.getPendingCount() <= 5);
+		queue.close();
+		ResultSet rs = connection.createStatement().executeQuery(
+				"SELECT COUNT(*) FROM loja.produto");
+		rs.next();
+		assertEquals(51, rs.getInt(1));
+	}
+
+	@Test
+	public void testError() throws Exception {
+		WriteBehindQueue queue = createQueue(100);
+		queue.insert(new Produto(1, "Duplicado", 1));
+		try {
+			queue.flush();
+			fail();
+		} catch (SQLException e) {
+			// chave duplicada
+		}
+		queue.update(new Produto(1, "Lapis preto", 1));
+		queue.close();
+		assertEquals("Lapis preto", getNome(1));
+		try {
+			queue.update(new Produto(1, "x", 1));
+			fail();
+		} catch (IllegalStateException e) {
+			// fechada
+		}
+	}
+
+	@Test
+	public void testListenerError() throws Exception {
+		final IllegalStateException failure = new IllegalStateException();
+		WriteBehindQueue queue = new WriteBehindQueue(connection, 100, 60000L);
+		queue.setListener(new BatchListener() {
+			@Override
+			public void batchExecuted(Class<?> type, Operation operation,
+					int[] updateCounts) {
+				if (operations.isEmpty()) {
+					operations.add(operation);
+					throw failure;
+				}
+			}
+		});
+		queue.insert(new Produto(2, "Caneta", 2));
+		try {
+			queue.flush();
+			fail();
+		} catch (SQLException e) {
+			assertSame(failure, e.getCause());
+		}
+		queue.insert(new Produto(3, "Borracha", 3));
+		queue.close();
+		assertEquals("Borracha", getNome(3));
+	}
+}
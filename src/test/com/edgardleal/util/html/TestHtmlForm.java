@@ -0,0 +1,52 @@
+package test.edgardleal.util.html;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.util.Date;
+
+import org.junit.Test;
+
+import test.edgardleal.util.GuineaPigModel;
+
+import com.edgardleal.util.html.HtmlGenerator;
+
+public class TestHtmlForm {
+	private static final String INPUT = "<div class=\"formLine\"><label class='formLabel' for='%s'>%s</label>"
+			+ "<input type='text' id='guineapigmodel.%s' name='guineapigmodel.%s' class='formField' %s value=\"%s\"/></div>";
+
+	private static String input(String field, String readonly, String value) {
+		return String.format(INPUT, field, field.toUpperCase(),
+				field.toLowerCase(), field.toLowerCase(), readonly, value);
+	}
+
+	@Test
+	public void testForm() throws Exception {
+		GuineaPigModel model = new GuineaPigModel();
+		model.setCode(7);
+		model.setName("Ana & \"Bia\"");
+		model.setColor(Color.RED);
+		model.setBirth(new Date(0));
+		HtmlGenerator generator = new HtmlGenerator();
+
+		String form = generator.getForm(model, "pets.jsp", "new");
+		assertEquals("<form name='form1' action='pets.jsp' method='post'>"
+				+ input("code", "readonly", "7")
+				+ input("name", "", "Ana &amp; &quot;Bia&quot;")
+				+ input("color", "", Color.RED.toString())
+				+ input("birth", "", new Date(0).toString())
+				+ "<div class=\"formLine\"><input type=\"submit\" value=\"Salvar\" style=\"height: 24px\" class=\"linkButton\" /> "
+				+ "<a class=\"linkButton\" href=\"pets.jsp\">Voltar</a></div>"
+				+ "</fieldset><input type=\"hidden\" name=\"action\" value=\"insert\" /> <input type=\"hidden\" name=\"type\" value=\"1\" />"
+				+ "</form>", form);
+
+		// o mesmo modelo e reutilizado com outros valores
+		model.setName(null);
+		model.setCode(8);
+		form = generator.getForm(model, "pets.jsp", "edit");
+		assertTrue(form.contains(input("code", "readonly", "8")));
+		assertTrue(form.contains(input("name", "", "")));
+		assertTrue(form.contains("name=\"action\" value=\"update\""));
+	}
+}
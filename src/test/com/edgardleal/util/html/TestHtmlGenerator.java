@@ -2,6 +2,8 @@ package test.edgardleal.util.html;
 
 import static org.junit.Assert.assertEquals;
 
+import java.lang.reflect.InvocationTargetException;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -31,7 +33,8 @@ public class TestHtmlGenerator {
 							"<input type='text' id='%s' name='%s' class='formField' readonly value=\"0\"/>",
 							name, name), htmlInput);
 		} catch (IllegalArgumentException | IllegalAccessException
-				| NoSuchFieldException | SecurityException e) {
+				| NoSuchFieldException | SecurityException
+				| InvocationTargetException | NoSuchMethodException e) {
 			e.printStackTrace();
 		}
 	}
@@ -0,0 +1,98 @@
+package test.edgardleal.util.html;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.edgardleal.util.html.HtmlGenerator;
+
+public class TestHtmlGrid {
+	private static final String SQL = "SELECT codigo, nome, cadastro FROM produto ORDER BY codigo";
+	private Connection connection = null;
+
+	@Before
+	public void setUp() throws Exception {
+		connection = DriverManager.getConnection("jdbc:h2:mem:grid");
+		connection
+				.createStatement()
+				.execute(
+						"CREATE TABLE produto (codigo INT PRIMARY KEY, nome VARCHAR(50), cadastro DATE)");
+		PreparedStatement insert = connection
+				.prepareStatement("INSERT INTO produto VALUES (?, ?, ?)");
+		for (int i = 1; i <= 1000; i++) {
+			insert.setInt(1, i);
+			insert.setString(2, i % 10 == 0 ? null : "Produto " + i);
+			insert.setDate(3, java.sql.Date.valueOf("2014-03-05"));
+			insert.addBatch();
+		}
+		insert.executeBatch();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		connection.close();
+	}
+
+	private ResultSet query() throws Exception {
+		return connection.createStatement().executeQuery(SQL);
+	}
+
+	@Test
+	public void testStreaming() throws Exception {
+		HtmlGenerator generator = new HtmlGenerator();
+		String expected = generator.getSimpleGrid(query(), "produtos.jsp");
+
+		final int[] writes = new int[1];
+		StringWriter out = new StringWriter() {
+			@Override
+			public void write(char[] cbuf, int off, int len) {
+				writes[0]++;
+				super.write(cbuf, off, len);
+			}
+		};
+		generator.getSimpleGrid(query(), "produtos.jsp", out);
+		assertEquals(expected, out.toString());
+		assertTrue(writes[0] > 1);
+		assertTrue(expected.startsWith("<div id=\"dataGrid\">"));
+		assertTrue(expected.endsWith("</a></div>"));
+	}
+
+	@Test
+	public void testFetchSize() throws Exception {
+		HtmlGenerator generator = new HtmlGenerator();
+		StringBuilder out = new StringBuilder();
+		generator.getSimpleGrid(connection, SQL, 100, "produtos.jsp", out);
+		assertEquals(generator.getSimpleGrid(query(), "produtos.jsp"),
+				out.toString());
+	}
+
+	@Test
+	public void testCells() throws Exception {
+		connection.createStatement().execute(
+				"INSERT INTO produto VALUES (2000, 'Caf\u00e9 <b>&</b>', NULL)");
+		String grid = new HtmlGenerator().getSimpleGrid(
+				connection.createStatement().executeQuery(
+						"SELECT codigo, nome, cadastro FROM produto WHERE codigo IN (1, 10, 2000) ORDER BY codigo"),
+				"produtos.jsp");
+		assertEquals("<div id=\"dataGrid\"><div class='linha' id='gridHeader' style='background:#E8E8E8'>"
+				+ "<div class='col' style='width:50px' ><a href='produtos.jsp?order=CODIGO'>CODIGO</a></div>"
+				+ "<div class='col' style='width:100px' ><a href='produtos.jsp?order=NOME'>NOME</a></div>"
+				+ "<div class='col' style='width:100px' ><a href='produtos.jsp?order=CADASTRO'>CADASTRO</a></div></div>"
+				+ "<a href='#' class='linha linhaPar linkLine'><div class='col' style='width:50px'>1</div>"
+				+ "<div class='col' style='width:100px'>Produto 1</div><div class='col' style='width:100px'>05/03/2014</div></a>"
+				+ "<a href='#' class='linha linhaImpar linkLine'><div class='col' style='width:50px'>10</div>"
+				+ "<div class='col' style='width:100px'></div><div class='col' style='width:100px'>05/03/2014</div></a>"
+				+ "<a href='#' class='linha linhaPar linkLine'><div class='col' style='width:50px'>2000</div>"
+				+ "<div class='col' style='width:100px'>Caf\u00e9 &lt;b&gt;&amp;&lt;/b&gt;</div><div class='col' style='width:100px'></div></a>"
+				+ "</div>", grid);
+	}
+}